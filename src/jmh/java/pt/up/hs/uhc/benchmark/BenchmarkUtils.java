@@ -0,0 +1,65 @@
+package pt.up.hs.uhc.benchmark;
+
+import pt.up.hs.uhc.base.PageWriter;
+import pt.up.hs.uhc.generator.CorpusGenerator;
+import pt.up.hs.uhc.models.Page;
+import pt.up.hs.uhc.utils.StreamUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Utilities for benchmarks.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+public class BenchmarkUtils {
+
+    public static final long SEED = 42L;
+
+    /**
+     * Create a synthetic page of {@code strokes} strokes of {@code dots}
+     * dots each, always the same for the same arguments.
+     *
+     * @param strokes number of strokes.
+     * @param dots    number of dots per stroke.
+     * @return {@link Page} the page.
+     */
+    public static Page createPage(int strokes, int dots) {
+        return new CorpusGenerator(SEED)
+                .strokes(strokes)
+                .dots(dots)
+                .generatePage(0);
+    }
+
+    /**
+     * Write a page with a writer into memory.
+     *
+     * @param writer {@link PageWriter} the writer.
+     * @param page   {@link Page} the page.
+     * @return {@code byte[]} written bytes.
+     * @throws Exception if the writer fails.
+     */
+    public static byte[] write(PageWriter writer, Page page) throws Exception {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        writer.writeSingle(page, os);
+        return os.toByteArray();
+    }
+
+    /**
+     * Read a sample file (shared with tests) into memory.
+     *
+     * @param path {@link String} path of the resource.
+     * @return {@code byte[]} contents of the resource.
+     * @throws IOException if the resource cannot be read.
+     */
+    public static byte[] readResource(String path) throws IOException {
+        try (InputStream is = BenchmarkUtils.class.getClassLoader().getResourceAsStream(path)) {
+            if (is == null) {
+                throw new IOException("Missing resource " + path + ".");
+            }
+            return StreamUtils.readAllBytes(is);
+        }
+    }
+}
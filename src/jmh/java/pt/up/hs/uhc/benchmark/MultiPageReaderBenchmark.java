@@ -0,0 +1,104 @@
+package pt.up.hs.uhc.benchmark;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.openjdk.jmh.annotations.*;
+import pt.up.hs.uhc.generator.CorpusGenerator;
+import pt.up.hs.uhc.handspy.HandSpyReader;
+import pt.up.hs.uhc.lspdf.LsInkMLReader;
+import pt.up.hs.uhc.lspdf.LsPDFReader;
+import pt.up.hs.uhc.models.Format;
+import pt.up.hs.uhc.models.Page;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Benchmark of the readers of multiple pages ({@link pt.up.hs.uhc.base.ArchiveReader}s
+ * and {@link pt.up.hs.uhc.base.MultiPageReader}s), reading synthetic
+ * documents of {@code pages} pages of 50 x 100 from memory. Livescribe PDFs
+ * cannot be generated, so the sample PDF of the tests is read instead.
+ * Neo Notes archives, which may be decoded by several threads, are
+ * benchmarked in {@link NeoNotesArchiveBenchmark}.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MultiPageReaderBenchmark {
+
+    @Param({"10"})
+    public int pages;
+
+    private byte[] handSpyZip;
+    private byte[] handSpyTarGz;
+    private byte[] lsInkML;
+    private byte[] lsPDF;
+
+    private final HandSpyReader handSpyReader = new HandSpyReader();
+    private final LsInkMLReader lsInkMLReader = new LsInkMLReader();
+    private final LsPDFReader lsPDFReader = new LsPDFReader();
+
+    @Setup
+    public void setUp() throws Exception {
+        CorpusGenerator generator = new CorpusGenerator(BenchmarkUtils.SEED)
+                .pages(pages)
+                .strokes(50)
+                .dots(100);
+
+        ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        ByteArrayOutputStream tgz = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(zip);
+             TarArchiveOutputStream taos = new TarArchiveOutputStream(new GZIPOutputStream(tgz))) {
+            for (int i = 0; i < pages; i++) {
+                ByteArrayOutputStream page = new ByteArrayOutputStream();
+                generator.write(generator.generatePage(i), i, Format.HANDSPY, page);
+                String name = String.format("page-%d.json", i);
+
+                zos.putNextEntry(new ZipEntry(name));
+                page.writeTo(zos);
+                zos.closeEntry();
+
+                TarArchiveEntry entry = new TarArchiveEntry(name);
+                entry.setSize(page.size());
+                taos.putArchiveEntry(entry);
+                page.writeTo(taos);
+                taos.closeArchiveEntry();
+            }
+        }
+        handSpyZip = zip.toByteArray();
+        handSpyTarGz = tgz.toByteArray();
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        generator.writeLivescribeInkML(os);
+        lsInkML = os.toByteArray();
+
+        lsPDF = BenchmarkUtils.readResource("lspdf/2-pages.pdf");
+    }
+
+    @Benchmark
+    public List<Page> handSpyZip() throws Exception {
+        return handSpyReader.readArchive("pages.json.zip", new ByteArrayInputStream(handSpyZip));
+    }
+
+    @Benchmark
+    public List<Page> handSpyTarGz() throws Exception {
+        return handSpyReader.readArchive("pages.json.tar.gz", new ByteArrayInputStream(handSpyTarGz));
+    }
+
+    @Benchmark
+    public List<Page> lsInkML() throws Exception {
+        return lsInkMLReader.read(new ByteArrayInputStream(lsInkML));
+    }
+
+    @Benchmark
+    public List<Page> lsPDF() throws Exception {
+        return lsPDFReader.read(new ByteArrayInputStream(lsPDF));
+    }
+}
@@ -0,0 +1,52 @@
+package pt.up.hs.uhc.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pt.up.hs.uhc.generator.CorpusGenerator;
+import pt.up.hs.uhc.models.Page;
+import pt.up.hs.uhc.neonotes.NeoNotesReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Benchmark of the Neo Notes archive reader, decoding the pages of a
+ * synthetic archive of {@code pages} pages of 50 x 100 from memory on
+ * {@code threads} threads.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class NeoNotesArchiveBenchmark {
+
+    @Param({"10"})
+    public int pages;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private byte[] archive;
+    private NeoNotesReader reader;
+
+    @Setup
+    public void setUp() throws Exception {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        new CorpusGenerator(BenchmarkUtils.SEED)
+                .pages(pages)
+                .strokes(50)
+                .dots(100)
+                .writeNeoNotesArchive(os);
+        archive = os.toByteArray();
+
+        reader = new NeoNotesReader().threads(threads);
+    }
+
+    @Benchmark
+    public List<Page> readArchive() throws Exception {
+        return reader.readArchive(new ZipInputStream(new ByteArrayInputStream(archive)));
+    }
+}
@@ -0,0 +1,87 @@
+package pt.up.hs.uhc.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pt.up.hs.uhc.binary.UhcBinaryReader;
+import pt.up.hs.uhc.binary.UhcBinaryWriter;
+import pt.up.hs.uhc.generator.CorpusGenerator;
+import pt.up.hs.uhc.handspy.HandSpyReader;
+import pt.up.hs.uhc.handspy.HandSpyWriter;
+import pt.up.hs.uhc.handspy.legacy.HandSpyLegacyReader;
+import pt.up.hs.uhc.handspy.legacy.HandSpyLegacyWriter;
+import pt.up.hs.uhc.inkml.InkMLReader;
+import pt.up.hs.uhc.inkml.InkMLWriter;
+import pt.up.hs.uhc.models.Format;
+import pt.up.hs.uhc.models.Page;
+import pt.up.hs.uhc.neonotes.NeoNotesReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the {@link pt.up.hs.uhc.base.PageReader}s, reading a synthetic
+ * page of {@code strokes} x {@code dots} from memory.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PageReaderBenchmark {
+
+    @Param({"10", "100"})
+    public int strokes;
+
+    @Param({"50", "500"})
+    public int dots;
+
+    private byte[] handSpyBytes;
+    private byte[] handSpyLegacyBytes;
+    private byte[] inkMLBytes;
+    private byte[] neoNotesBytes;
+    private byte[] uhcBinaryBytes;
+
+    private final HandSpyReader handSpyReader = new HandSpyReader();
+    private final HandSpyLegacyReader handSpyLegacyReader = new HandSpyLegacyReader();
+    private final InkMLReader inkMLReader = new InkMLReader();
+    private final NeoNotesReader neoNotesReader = new NeoNotesReader();
+    private final UhcBinaryReader uhcBinaryReader = new UhcBinaryReader();
+
+    @Setup
+    public void setUp() throws Exception {
+        Page page = BenchmarkUtils.createPage(strokes, dots);
+        handSpyBytes = BenchmarkUtils.write(new HandSpyWriter(), page);
+        handSpyLegacyBytes = BenchmarkUtils.write(new HandSpyLegacyWriter(), page);
+        inkMLBytes = BenchmarkUtils.write(new InkMLWriter(), page);
+        uhcBinaryBytes = BenchmarkUtils.write(new UhcBinaryWriter(), page);
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        new CorpusGenerator(BenchmarkUtils.SEED).write(page, 0, Format.NEONOTES, os);
+        neoNotesBytes = os.toByteArray();
+    }
+
+    @Benchmark
+    public Page handSpy() throws Exception {
+        return handSpyReader.readSingle(new ByteArrayInputStream(handSpyBytes));
+    }
+
+    @Benchmark
+    public Page handSpyLegacy() throws Exception {
+        return handSpyLegacyReader.readSingle(new ByteArrayInputStream(handSpyLegacyBytes));
+    }
+
+    @Benchmark
+    public Page inkML() throws Exception {
+        return inkMLReader.readSingle(new ByteArrayInputStream(inkMLBytes));
+    }
+
+    @Benchmark
+    public Page neoNotes() throws Exception {
+        return neoNotesReader.readSingle(neoNotesBytes);
+    }
+
+    @Benchmark
+    public Page uhcBinary() throws Exception {
+        return uhcBinaryReader.readSingle(new ByteArrayInputStream(uhcBinaryBytes));
+    }
+}
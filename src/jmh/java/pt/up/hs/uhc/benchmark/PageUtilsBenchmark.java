@@ -0,0 +1,99 @@
+package pt.up.hs.uhc.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pt.up.hs.uhc.models.Page;
+import pt.up.hs.uhc.models.Rect;
+import pt.up.hs.uhc.utils.PageTransform;
+import pt.up.hs.uhc.utils.PageUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the {@link PageUtils} transforms over a page of
+ * {@code strokes} x {@code dots}. Transforms are applied in place, with
+ * parameters that keep the page (roughly) unchanged across invocations.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PageUtilsBenchmark {
+
+    @Param({"10", "100"})
+    public int strokes;
+
+    @Param({"50", "500"})
+    public int dots;
+
+    private Page page;
+
+    @Setup
+    public void setUp() {
+        page = BenchmarkUtils.createPage(strokes, dots);
+    }
+
+    @Benchmark
+    public Rect boundingRect() {
+        return PageUtils.getBoundingRect(page);
+    }
+
+    @Benchmark
+    public Page translate() {
+        PageUtils.translate(page, 0D, 0D);
+        return page;
+    }
+
+    @Benchmark
+    public Page scale() {
+        PageUtils.scale(page, 1D);
+        return page;
+    }
+
+    @Benchmark
+    public Page rotate() {
+        PageUtils.rotate(page, 105D, 148.5D, 0D);
+        return page;
+    }
+
+    @Benchmark
+    public Page mirror() {
+        PageUtils.mirror(page, 105D, 0D, 105D, 297D);
+        return page;
+    }
+
+    @Benchmark
+    public Page chained() {
+        PageUtils.scale(page, 1D);
+        PageUtils.translate(page, 0D, 0D);
+        PageUtils.rotate(page, 105D, 148.5D, 0D);
+        return page;
+    }
+
+    @Benchmark
+    public Page fused() {
+        new PageTransform()
+                .scale(1D)
+                .translate(0D, 0D)
+                .rotate(105D, 148.5D, 0D)
+                .apply(page);
+        return page;
+    }
+
+    @Benchmark
+    public Page normalize() {
+        PageUtils.normalize(page, 3);
+        return page;
+    }
+
+    @Benchmark
+    public Page normalizeTime() {
+        PageUtils.normalizeTime(page);
+        return page;
+    }
+
+    @Benchmark
+    public boolean hasOverlappingStrokes() {
+        return PageUtils.hasOverlappingStrokes(page);
+    }
+}
@@ -0,0 +1,88 @@
+package pt.up.hs.uhc.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pt.up.hs.uhc.binary.UhcBinaryWriter;
+import pt.up.hs.uhc.csv.CsvWriter;
+import pt.up.hs.uhc.handspy.HandSpyWriter;
+import pt.up.hs.uhc.handspy.legacy.HandSpyLegacyWriter;
+import pt.up.hs.uhc.inkml.InkMLWriter;
+import pt.up.hs.uhc.models.Page;
+import pt.up.hs.uhc.svg.SvgWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the {@link pt.up.hs.uhc.base.PageWriter}s, writing a page
+ * of {@code strokes} x {@code dots} into memory.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PageWriterBenchmark {
+
+    @Param({"10", "100"})
+    public int strokes;
+
+    @Param({"50", "500"})
+    public int dots;
+
+    private Page page;
+    private final ByteArrayOutputStream os = new ByteArrayOutputStream(1 << 20);
+
+    private final HandSpyWriter handSpyWriter = new HandSpyWriter();
+    private final HandSpyLegacyWriter handSpyLegacyWriter = new HandSpyLegacyWriter();
+    private final InkMLWriter inkMLWriter = new InkMLWriter();
+    private final SvgWriter svgWriter = new SvgWriter();
+    private final UhcBinaryWriter uhcBinaryWriter = new UhcBinaryWriter();
+    private final CsvWriter csvWriter = new CsvWriter();
+
+    @Setup
+    public void setUp() {
+        page = BenchmarkUtils.createPage(strokes, dots);
+    }
+
+    @Benchmark
+    public int handSpy() throws Exception {
+        os.reset();
+        handSpyWriter.writeSingle(page, os);
+        return os.size();
+    }
+
+    @Benchmark
+    public int handSpyLegacy() throws Exception {
+        os.reset();
+        handSpyLegacyWriter.writeSingle(page, os);
+        return os.size();
+    }
+
+    @Benchmark
+    public int inkML() throws Exception {
+        os.reset();
+        inkMLWriter.writeSingle(page, os);
+        return os.size();
+    }
+
+    @Benchmark
+    public int svg() throws Exception {
+        os.reset();
+        svgWriter.writeSingle(page, os);
+        return os.size();
+    }
+
+    @Benchmark
+    public int uhcBinary() throws Exception {
+        os.reset();
+        uhcBinaryWriter.writeSingle(page, os);
+        return os.size();
+    }
+
+    @Benchmark
+    public int csv() throws Exception {
+        os.reset();
+        csvWriter.writeSingle(page, os);
+        return os.size();
+    }
+}
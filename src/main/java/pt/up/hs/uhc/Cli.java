@@ -4,15 +4,34 @@ import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.DefaultParser;
 import org.apache.commons.cli.Options;
-import pt.up.hs.uhc.models.Page;
+import pt.up.hs.uhc.csv.CsvWriter;
+import pt.up.hs.uhc.models.Format;
 
-import java.io.FileWriter;
+import java.io.BufferedOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -20,10 +39,208 @@ import static pt.up.hs.uhc.utils.FilenameUtils.getFilenameWithoutExtension;
 
 public class Cli {
 
+    private static final String VERSION = Cli.class.getPackage().getImplementationVersion() != null
+            ? Cli.class.getPackage().getImplementationVersion()
+            : "dev";
+
+    private static final String DEFAULT_PAGE_TEMPLATE = "{name}-{page}.{ext}";
+
+    // output formats, by extension
+    private static final Map<String, Format> OUTPUT_FORMATS = new LinkedHashMap<>();
+    static {
+        OUTPUT_FORMATS.put("csv", Format.CSV);
+        OUTPUT_FORMATS.put("json", Format.HANDSPY);
+        OUTPUT_FORMATS.put("ndjson", Format.HANDSPY_NDJSON);
+        OUTPUT_FORMATS.put("xml", Format.HANDSPY_LEGACY);
+        OUTPUT_FORMATS.put("inkml", Format.INKML);
+        OUTPUT_FORMATS.put("svg", Format.SVG);
+        OUTPUT_FORMATS.put("uhcb", Format.UHC_BINARY);
+        OUTPUT_FORMATS.put("png", Format.PNG);
+        OUTPUT_FORMATS.put("jpg", Format.JPEG);
+    }
+
+    /**
+     * Settings of the outputs of a run.
+     */
+    private static class Output {
+        private final Format format;
+        private final String extension;
+        private final CsvWriter.Column[] columns;
+        private final int[] size;
+        private final String pageTemplate;
+        private final boolean single;
+
+        private Output(
+                String extension, CsvWriter.Column[] columns, int[] size, String pageTemplate, boolean single
+        ) {
+            this.format = OUTPUT_FORMATS.get(extension);
+            this.extension = extension;
+            this.columns = columns;
+            this.size = size;
+            this.pageTemplate = pageTemplate;
+            this.single = single;
+        }
+
+        private UniversalHandwritingConverter newConverter() {
+            UniversalHandwritingConverter converter = new UniversalHandwritingConverter().outputFormat(format);
+            if (columns != null) {
+                converter.csvColumns(columns);
+            }
+            if (size != null) {
+                converter.rasterSize(size[0], size[1]);
+            }
+            return converter;
+        }
+
+        private String getFilename(String name) {
+            return name + "." + extension;
+        }
+
+        private String getPageFilename(String name, int pageNr) {
+            return pageTemplate
+                    .replace("{name}", name)
+                    .replace("{page}", String.valueOf(pageNr))
+                    .replace("{ext}", extension);
+        }
+
+        /**
+         * Get the description of the settings recorded in the manifest, so
+         * that changing them converts files again.
+         */
+        private String getSignature() {
+            StringBuilder sb = new StringBuilder(extension);
+            if (columns != null) {
+                sb.append(";columns=");
+                for (int i = 0; i < columns.length; i++) {
+                    sb.append(i > 0 ? "," : "").append(columns[i].getHeader());
+                }
+            }
+            if (size != null) {
+                sb.append(";size=").append(size[0]).append('x').append(size[1]);
+            }
+            return sb.append(single ? ";single" : ";pages=" + pageTemplate).toString();
+        }
+    }
+
+    /**
+     * Outcome of the conversion of a file.
+     */
+    private static class Result {
+        private final Path file;
+        private final long size;
+        private final boolean skipped;
+        private final ConversionManifest.Entry entry;
+        private final Exception error;
+
+        private Result(Path file, long size, boolean skipped, ConversionManifest.Entry entry, Exception error) {
+            this.file = file;
+            this.size = size;
+            this.skipped = skipped;
+            this.entry = entry;
+            this.error = error;
+        }
+    }
+
+    /**
+     * Tally of the conversions of a run, recording them in the manifest.
+     */
+    private static class Summary {
+        private final long startTime = System.nanoTime();
+        private final ConversionManifest manifest;
+        private final Path outputDirPath;
+        private int succeeded = 0;
+        private int skipped = 0;
+        private int failed = 0;
+        private int deleted = 0;
+        private long bytes = 0;
+
+        private Summary(ConversionManifest manifest, Path outputDirPath) {
+            this.manifest = manifest;
+            this.outputDirPath = outputDirPath;
+        }
+
+        private void add(Result result) throws IOException {
+            if (result.skipped) {
+                skipped++;
+                if (result.entry != manifest.get(result.entry.getPath())) {
+                    manifest.put(result.entry);
+                }
+                return;
+            }
+            if (result.error == null) {
+                succeeded++;
+                ConversionManifest.Entry previous = manifest.get(result.entry.getPath());
+                manifest.put(result.entry);
+                if (previous != null) {
+                    // e.g., pages no longer in the input
+                    List<String> stale = new ArrayList<>(previous.getOutputs());
+                    stale.removeAll(result.entry.getOutputs());
+                    removeOutputs(stale);
+                }
+                System.out.printf("[%d] Processed '%s' successfully\n", succeeded + failed, result.file);
+            } else {
+                failed++;
+                System.err.println(String.format("[%d] Error processing '%s': ", succeeded + failed, result.file)
+                        + result.error.getMessage());
+            }
+            bytes += result.size;
+        }
+
+        /**
+         * Remove outputs which are no longer produced by any input.
+         */
+        private void removeOutputs(List<String> outputs) throws IOException {
+            for (String output: outputs) {
+                if (!manifest.hasOutput(output)) {
+                    Files.deleteIfExists(outputDirPath.resolve(output));
+                }
+            }
+        }
+
+        private void print() {
+            double seconds = Math.max(System.nanoTime() - startTime, 1L) / 1e9;
+            System.out.printf(
+                    "Processed %d file(s) in %.1f s: %d succeeded, %d up to date, %d failed, %d deleted " +
+                            "(%.1f files/s, %.1f MB/s)\n",
+                    succeeded + skipped + failed, seconds, succeeded, skipped, failed, deleted,
+                    (succeeded + skipped + failed) / seconds, bytes / 1e6 / seconds
+            );
+        }
+    }
+
     public static void main(String[] args) {
+        if (!run(args)) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Run the converter with command-line arguments.
+     *
+     * @param args command-line arguments.
+     * @return {@code true} if all inputs were converted, {@code false}
+     * otherwise.
+     */
+    static boolean run(String[] args) {
         Options options = new Options();
         options.addOption("i", "input", true, "Specify input file or directory");
         options.addOption("o", "output", true, "Specify output directory");
+        options.addOption("j", "threads", true, "Number of files to convert in parallel (default: 1)");
+        options.addOption(null, "ordered", false, "Report progress in input order when converting in parallel");
+        options.addOption(null, "force", false, "Convert all files, even those whose outputs are up to date");
+        options.addOption("f", "format", true,
+                "Output format: " + String.join(", ", OUTPUT_FORMATS.keySet()) + " (default: csv)");
+        options.addOption(null, "columns", true,
+                "Comma-separated columns of CSV outputs: x, y, timestamp, pressure, type, stroke, page " +
+                        "(default: x,y,timestamp)");
+        options.addOption(null, "size", true,
+                "Maximum size of png and jpg outputs, in pixels, as WIDTHxHEIGHT (0 leaves a side " +
+                        "unconstrained, default: 512x512)");
+        options.addOption(null, "page-template", true,
+                "Name of the output of each page of multi-page inputs, with placeholders {name}, {page} " +
+                        "(starting at 0) and {ext} (default: " + DEFAULT_PAGE_TEMPLATE + ")");
+        options.addOption(null, "single-output", false,
+                "Write all pages of an input into a single output (csv, ndjson and uhcb only)");
 
         CommandLineParser parser = new DefaultParser();
         try {
@@ -52,81 +269,343 @@ public class Cli {
                 throw new IOException(String.format("Output ('%s') must be a directory.", output));
             }
 
+            int threads = 1;
+            if (cmd.hasOption("threads")) {
+                try {
+                    threads = Integer.parseInt(cmd.getOptionValue("threads"));
+                } catch (NumberFormatException e) {
+                    threads = 0;
+                }
+                if (threads < 1) {
+                    throw new IllegalArgumentException("Number of threads must be a positive integer.");
+                }
+            }
+
+            Output settings = parseOutput(cmd);
+
+            boolean success;
             if (Files.isDirectory(inputPath)) {
-                doConversionDirectory(inputPath, outputPath);
+                success = doConversionDirectory(
+                        inputPath, outputPath, settings, threads, cmd.hasOption("ordered"), cmd.hasOption("force")
+                );
             } else {
-                doConversionFile(inputPath, outputPath);
+                success = doConversionFile(inputPath, outputPath, settings);
             }
+            return success;
         } catch (Exception e) {
             System.err.println("Error: " + e.getMessage());
-            System.exit(1);
+            return false;
         }
     }
 
-    private static void doConversionFile(Path inputPath, Path outputDirPath) {
+    private static Output parseOutput(CommandLine cmd) {
+
+        String extension = cmd.getOptionValue("format", "csv").toLowerCase(Locale.ROOT);
+        if (!OUTPUT_FORMATS.containsKey(extension)) {
+            // also accept the names of the formats (e.g., handspy_ndjson)
+            extension = OUTPUT_FORMATS.entrySet().stream()
+                    .filter(entry -> entry.getValue().name().equalsIgnoreCase(cmd.getOptionValue("format")))
+                    .map(Map.Entry::getKey)
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException(
+                            String.format("Output format '%s' is not supported.", cmd.getOptionValue("format"))
+                    ));
+        }
+        Format format = OUTPUT_FORMATS.get(extension);
+
+        CsvWriter.Column[] columns = null;
+        if (cmd.hasOption("columns")) {
+            if (format != Format.CSV) {
+                throw new IllegalArgumentException("Columns can only be selected for CSV outputs.");
+            }
+            String[] names = cmd.getOptionValue("columns").split(",");
+            columns = new CsvWriter.Column[names.length];
+            for (int i = 0; i < names.length; i++) {
+                try {
+                    columns[i] = CsvWriter.Column.valueOf(names[i].trim().toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException(String.format("Unknown column '%s'.", names[i].trim()));
+                }
+            }
+        }
+
+        int[] size = null;
+        if (cmd.hasOption("size")) {
+            if (format != Format.PNG && format != Format.JPEG) {
+                throw new IllegalArgumentException("Size can only be selected for png and jpg outputs.");
+            }
+            String[] sides = cmd.getOptionValue("size").toLowerCase(Locale.ROOT).split("x");
+            try {
+                size = new int[] { Integer.parseInt(sides[0].trim()), Integer.parseInt(sides[1].trim()) };
+                if (sides.length != 2 || size[0] < 0 || size[1] < 0 || size[0] + size[1] == 0) {
+                    throw new NumberFormatException();
+                }
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                throw new IllegalArgumentException(
+                        String.format("Invalid size '%s'.", cmd.getOptionValue("size"))
+                );
+            }
+        }
+
+        boolean single = cmd.hasOption("single-output");
+        if (single && !UniversalHandwritingConverter.isMultiPageFormat(format)) {
+            throw new IllegalArgumentException(
+                    String.format("Output format '%s' cannot hold several pages in a single output.", extension)
+            );
+        }
+
+        String pageTemplate = cmd.getOptionValue("page-template", DEFAULT_PAGE_TEMPLATE);
+        if (!pageTemplate.contains("{page}")) {
+            throw new IllegalArgumentException("Page template must contain {page}.");
+        }
+
+        return new Output(extension, columns, size, pageTemplate, single);
+    }
+
+    private static boolean doConversionFile(Path inputPath, Path outputDirPath, Output output) {
         try {
-            convertFile(inputPath.getParent(), outputDirPath, inputPath);
+            convertFile(inputPath.toAbsolutePath().getParent(), outputDirPath, inputPath.toAbsolutePath(), output);
             System.out.printf("Processed '%s' successfully\n", inputPath);
+            return true;
         } catch (Exception e) {
             System.err.println(String.format("Error processing '%s': ", inputPath) + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Convert all the files of a directory, either on the main thread or on
+     * a bounded pool of worker threads. When running in parallel, at most
+     * {@code 2 * threads} files are in-flight, so that walking the directory
+     * blocks instead of queueing the whole tree. Progress is reported as
+     * files complete or, if {@code ordered}, in the order they were found.
+     *
+     * Files whose outputs are up to date according to the manifest of the
+     * output directory are skipped, unless {@code force} is set. Outputs of
+     * inputs that no longer exist are removed.
+     *
+     * @return {@code true} if all files were converted, {@code false}
+     * otherwise.
+     */
+    private static boolean doConversionDirectory(
+            Path inputDirPath, Path outputDirPath, Output output, int threads, boolean ordered, boolean force
+    ) throws Exception {
+
+        try (ConversionManifest manifest = ConversionManifest.open(outputDirPath)) {
+            Summary summary = new Summary(manifest, outputDirPath);
+            doConversionDirectory(inputDirPath, outputDirPath, output, threads, ordered, force, summary);
+            summary.print();
+            return summary.failed == 0;
         }
     }
 
-    private static void doConversionDirectory(Path inputDirPath, Path outputDirPath) throws IOException {
+    private static void doConversionDirectory(
+            Path inputDirPath, Path outputDirPath, Output output, int threads, boolean ordered, boolean force,
+            Summary summary
+    ) throws Exception {
+
+        ConversionManifest manifest = summary.manifest;
+        Set<String> seen = new HashSet<>();
+        Path manifestPath = outputDirPath.resolve(ConversionManifest.FILENAME).toAbsolutePath().normalize();
+
+        if (threads > 1) {
+            UniversalHandwritingConverter.warmUp();
+        }
+
+        ExecutorService executor = threads > 1
+                ? Executors.newFixedThreadPool(threads, r -> {
+                    Thread thread = new Thread(r, "uhc-cli-worker");
+                    thread.setDaemon(true);
+                    return thread;
+                })
+                : null;
+
         try (Stream<Path> paths = Files.walk(inputDirPath)) {
-            paths
+
+            Iterator<Path> files = paths
                     .filter(Files::isRegularFile)
-                    .forEach(file -> {
-                        try {
-                            convertFile(inputDirPath, outputDirPath, file);
-                            System.out.printf("Processed '%s' successfully\n", file.toString());
-                        } catch (Exception e) {
-                            System.err.println(String.format("Error processing '%s': ", file.toString()) + e.getMessage());
-                        }
-                    });
+                    .filter(file -> !file.toAbsolutePath().normalize().equals(manifestPath))
+                    .iterator();
+
+            if (executor == null) {
+                while (files.hasNext()) {
+                    Path file = files.next();
+                    ConversionManifest.Entry previous = previous(manifest, track(inputDirPath, file, seen), force);
+                    summary.add(convert(inputDirPath, outputDirPath, file, output, previous));
+                }
+            } else if (ordered) {
+                Queue<Future<Result>> pending = new ArrayDeque<>();
+                while (files.hasNext()) {
+                    if (pending.size() >= 2 * threads) {
+                        summary.add(pending.remove().get());
+                    }
+                    Path file = files.next();
+                    ConversionManifest.Entry previous = previous(manifest, track(inputDirPath, file, seen), force);
+                    pending.add(executor.submit(() -> convert(inputDirPath, outputDirPath, file, output, previous)));
+                }
+                while (!pending.isEmpty()) {
+                    summary.add(pending.remove().get());
+                }
+            } else {
+                CompletionService<Result> completed = new ExecutorCompletionService<>(executor);
+                int inFlight = 0;
+                while (files.hasNext()) {
+                    if (inFlight >= 2 * threads) {
+                        summary.add(completed.take().get());
+                        inFlight--;
+                    }
+                    Path file = files.next();
+                    ConversionManifest.Entry previous = previous(manifest, track(inputDirPath, file, seen), force);
+                    completed.submit(() -> convert(inputDirPath, outputDirPath, file, output, previous));
+                    inFlight++;
+                }
+                for (; inFlight > 0; inFlight--) {
+                    summary.add(completed.take().get());
+                }
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+
+        // inputs converted in previous runs which no longer exist
+        List<String> deletedPaths = manifest.getPaths().stream()
+                .filter(path -> !seen.contains(path))
+                .collect(Collectors.toList());
+        for (String path: deletedPaths) {
+            List<String> outputs = manifest.get(path).getOutputs();
+            manifest.remove(path);
+            summary.removeOutputs(outputs);
+            summary.deleted++;
+            System.out.printf("Removed output of deleted input '%s'\n", inputDirPath.resolve(path));
         }
     }
 
-    private static void convertFile(Path inputDirPath, Path outputDirPath, Path filePath) throws Exception {
-        Path relInputPath = inputDirPath.relativize(filePath);
-        String outputFilename = getFilenameWithoutExtension(relInputPath.toString()) + ".csv";
-        Path outputPath = outputDirPath.resolve(relInputPath).getParent().resolve(outputFilename);
+    private static ConversionManifest.Entry previous(ConversionManifest manifest, String path, boolean force) {
+        return force ? null : manifest.get(path);
+    }
 
-        Files.createDirectories(outputPath.getParent());
+    private static String track(Path inputDirPath, Path filePath, Set<String> seen) {
+        String path = toManifestPath(inputDirPath.relativize(filePath));
+        seen.add(path);
+        return path;
+    }
 
-        Page page = new UniversalHandwritingConverter().file(filePath.toFile()).getPage();
+    /**
+     * Convert a file, unless its outputs are up to date with the previous
+     * conversion. Files are only hashed when their size matches the
+     * previous conversion but their modification time does not.
+     */
+    private static Result convert(
+            Path inputDirPath, Path outputDirPath, Path filePath, Output output, ConversionManifest.Entry previous
+    ) {
+        long size = 0;
+        try {
+            size = Files.size(filePath);
+            long modified = Files.getLastModifiedTime(filePath).toMillis();
+            String path = toManifestPath(inputDirPath.relativize(filePath));
+            String signature = output.getSignature();
 
-        List<String[]> dataLines = new ArrayList<>();
-        page.getStrokes().forEach(stroke ->
-                        stroke.getDots().forEach(dot ->
-                                dataLines.add(new String[]{
-                                        String.format("%.3f", dot.getX()),
-                                        String.format("%.3f", dot.getY()),
-                                        String.valueOf(dot.getTimestamp())
-                                })
-                        )
-        );
+            String hash = null;
+            if (previous != null && previous.getSize() == size &&
+                    VERSION.equals(previous.getVersion()) && signature.equals(previous.getFormat()) &&
+                    previous.getOutputs().stream().allMatch(o -> Files.exists(outputDirPath.resolve(o)))) {
+                if (previous.getModified() == modified) {
+                    return new Result(filePath, size, true, previous, null);
+                }
+                hash = ConversionManifest.hash(filePath);
+                if (hash.equals(previous.getHash())) {
+                    return new Result(filePath, size, true, new ConversionManifest.Entry(
+                            path, size, modified, hash, VERSION, signature, previous.getOutputs()
+                    ), null);
+                }
+            }
+            if (hash == null) {
+                hash = ConversionManifest.hash(filePath);
+            }
 
-        String csv = dataLines.stream().map(Cli::convertToCSV).collect(Collectors.joining("\n"));
+            List<String> outputs = convertFile(inputDirPath, outputDirPath, filePath, output).stream()
+                    .map(outputPath -> toManifestPath(outputDirPath.relativize(outputPath)))
+                    .collect(Collectors.toList());
 
-        FileWriter fileWriter = new FileWriter(outputPath.toFile());
-        fileWriter.write(convertToCSV(new String[]{"x", "y", "timestamp"}) + "\n");
-        fileWriter.write(csv);
-        fileWriter.close();
+            return new Result(filePath, size, false, new ConversionManifest.Entry(
+                    path, size, modified, hash, VERSION, signature, outputs
+            ), null);
+        } catch (Exception e) {
+            return new Result(filePath, size, false, null, e);
+        }
     }
 
-    public static String convertToCSV(String[] data) {
-        return Stream.of(data)
-                .map(Cli::escapeSpecialCharacters)
-                .collect(Collectors.joining(","));
+    private static String toManifestPath(Path relativePath) {
+        return relativePath.toString().replace(File.separatorChar, '/');
     }
 
-    public static String escapeSpecialCharacters(String data) {
-        String escapedData = data.replaceAll("\\R", " ");
-        if (data.contains(",") || data.contains("\"") || data.contains("'")) {
-            data = data.replace("\"", "\"\"");
-            escapedData = "\"" + data + "\"";
+    /**
+     * Convert a file, streaming its pages into a single output or into one
+     * output per page. Inputs with a single page are written to
+     * {@code <name>.<ext>}, while each page of multi-page inputs is written
+     * to a file named after the page template.
+     *
+     * @return {@link List} paths of the outputs.
+     */
+    private static List<Path> convertFile(
+            Path inputDirPath, Path outputDirPath, Path filePath, Output output
+    ) throws Exception {
+
+        Path relInputPath = inputDirPath.relativize(filePath);
+        Path outputDir = outputDirPath.resolve(relInputPath).getParent();
+        String name = getFilenameWithoutExtension(relInputPath.getFileName().toString());
+
+        Files.createDirectories(outputDir);
+
+        UniversalHandwritingConverter converter = output.newConverter();
+
+        // write aside and move into place, so that concurrent conversions to
+        // the same output never leave a partial or interleaved file behind
+        List<Path> tmpPaths = new ArrayList<>();
+        try {
+            if (output.single) {
+                Path tmpPath = Files.createTempFile(outputDir, name, ".tmp");
+                tmpPaths.add(tmpPath);
+                try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(tmpPath))) {
+                    converter.writeAll(filePath.toFile(), os);
+                }
+                Path outputPath = outputDir.resolve(output.getFilename(name));
+                moveIntoPlace(tmpPath, outputPath);
+                return Collections.singletonList(outputPath);
+            }
+
+            int count = converter.writeEach(filePath.toFile(), pageNr -> {
+                Path tmpPath = Files.createTempFile(outputDir, name, ".tmp");
+                tmpPaths.add(tmpPath);
+                return new BufferedOutputStream(Files.newOutputStream(tmpPath));
+            });
+
+            List<Path> outputPaths = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Path outputPath = outputDir.resolve(
+                        count == 1 ? output.getFilename(name) : output.getPageFilename(name, i)
+                );
+                moveIntoPlace(tmpPaths.get(i), outputPath);
+                outputPaths.add(outputPath);
+            }
+            return outputPaths;
+        } finally {
+            for (Path tmpPath: tmpPaths) {
+                Files.deleteIfExists(tmpPath);
+            }
         }
-        return escapedData;
+    }
+
+    private static void moveIntoPlace(Path tmpPath, Path outputPath) throws IOException {
+        Files.createDirectories(outputPath.getParent());
+        Files.move(tmpPath, outputPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
     }
 }
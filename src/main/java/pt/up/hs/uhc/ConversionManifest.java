@@ -0,0 +1,353 @@
+package pt.up.hs.uhc;
+
+import com.github.cliftonlabs.json_simple.JsonArray;
+import com.github.cliftonlabs.json_simple.JsonObject;
+import com.github.cliftonlabs.json_simple.Jsoner;
+import pt.up.hs.uhc.utils.JsonPullParser;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Manifest of the files converted into an output directory, used by the
+ * CLI to skip inputs whose outputs are up to date.
+ *
+ * The manifest is kept as newline-delimited JSON in the output directory,
+ * one entry per input (path, size, modification time, content hash,
+ * converter version, output format and the paths of its outputs). Entries are appended
+ * as soon as each file is converted, so that an interrupted run does not
+ * lose the work done, and the file is compacted when the manifest is
+ * opened and closed. Later lines override earlier ones for the same path, and
+ * lines which cannot be parsed (e.g., the incomplete last line of an
+ * interrupted run) are skipped, keeping all others.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+class ConversionManifest implements Closeable {
+
+    static final String FILENAME = ".uhc-manifest.ndjson";
+
+    private static final int HASH_BUFFER_SIZE = 65536;
+
+    private static final Logger logger = Logger.getLogger(ConversionManifest.class.getName());
+
+    /**
+     * Entry of the manifest.
+     */
+    static class Entry {
+        private final String path;
+        private final long size;
+        private final long modified;
+        private final String hash;
+        private final String version;
+        private final String format;
+        private final List<String> outputs;
+
+        Entry(
+                String path, long size, long modified, String hash, String version, String format,
+                List<String> outputs
+        ) {
+            this.path = path;
+            this.size = size;
+            this.modified = modified;
+            this.hash = hash;
+            this.version = version;
+            this.format = format;
+            this.outputs = Collections.unmodifiableList(new ArrayList<>(outputs));
+        }
+
+        String getPath() {
+            return path;
+        }
+
+        long getSize() {
+            return size;
+        }
+
+        long getModified() {
+            return modified;
+        }
+
+        String getHash() {
+            return hash;
+        }
+
+        String getVersion() {
+            return version;
+        }
+
+        String getFormat() {
+            return format;
+        }
+
+        /**
+         * Get the outputs of the input (one per page, or a single one with
+         * all pages), relative to the output directory.
+         *
+         * @return {@link List} paths of the outputs.
+         */
+        List<String> getOutputs() {
+            return outputs;
+        }
+
+        private JsonObject toJson() {
+            JsonObject json = new JsonObject();
+            json.put("path", path);
+            json.put("size", size);
+            json.put("modified", modified);
+            json.put("hash", hash);
+            json.put("version", version);
+            json.put("format", format);
+            json.put("outputs", new JsonArray(outputs));
+            return json;
+        }
+
+        private static Entry fromJson(JsonObject json) {
+            return new Entry(
+                    (String) json.get("path"),
+                    ((BigDecimal) json.get("size")).longValue(),
+                    ((BigDecimal) json.get("modified")).longValue(),
+                    (String) json.get("hash"),
+                    (String) json.get("version"),
+                    (String) json.get("format"),
+                    ((JsonArray) json.get("outputs")).stream().map(String.class::cast).collect(Collectors.toList())
+            );
+        }
+    }
+
+    private final Path file;
+    private final Map<String, Entry> entries;
+    private final Writer journal;
+
+    // number of entries producing each output
+    private final Map<String, Integer> outputCounts = new HashMap<>();
+
+    private ConversionManifest(Path file, Map<String, Entry> entries) throws IOException {
+        this.file = file;
+        this.entries = entries;
+        for (Entry entry: entries.values()) {
+            countOutputs(entry, 1);
+        }
+
+        // start from a clean file, dropping any incomplete line left behind
+        compact();
+
+        this.journal = Files.newBufferedWriter(
+                file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND
+        );
+    }
+
+    /**
+     * Open the manifest of an output directory, creating it if it does not
+     * exist.
+     *
+     * @param outputDirPath {@link Path} output directory.
+     * @return {@link ConversionManifest} the manifest.
+     * @throws IOException if the manifest cannot be read or created.
+     */
+    static ConversionManifest open(Path outputDirPath) throws IOException {
+        Path file = outputDirPath.resolve(FILENAME);
+        return new ConversionManifest(file, load(file));
+    }
+
+    private static Map<String, Entry> load(Path file) throws IOException {
+
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        if (!Files.exists(file)) {
+            return entries;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int number = 0;
+            while ((line = reader.readLine()) != null) {
+                number++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                JsonObject json;
+                Entry entry;
+                try {
+                    json = parseLine(line);
+                    entry = Boolean.TRUE.equals(json.get("deleted")) ? null : Entry.fromJson(json);
+                } catch (IOException | RuntimeException e) {
+                    // e.g., incomplete last line of an interrupted run, skip only this line
+                    logger.warning(String.format("Skipping unparsable line %d of '%s': %s", number, file, e));
+                    continue;
+                }
+                if (entry == null) {
+                    entries.remove((String) json.get("path"));
+                } else {
+                    entries.put(entry.getPath(), entry);
+                }
+            }
+        }
+
+        return entries;
+    }
+
+    private static JsonObject parseLine(String line) throws IOException {
+        try (JsonPullParser parser = new JsonPullParser(new StringReader(line))) {
+            JsonObject json = (JsonObject) parser.readValue();
+            if (parser.peek() != JsonPullParser.Token.END_DOCUMENT || !(json.get("path") instanceof String)) {
+                throw new IOException("Invalid manifest entry.");
+            }
+            return json;
+        }
+    }
+
+    /**
+     * Get the entry of an input.
+     *
+     * @param path {@link String} path of the input, relative to the input
+     *             directory.
+     * @return {@link Entry} the entry, or {@code null} if none.
+     */
+    Entry get(String path) {
+        return entries.get(path);
+    }
+
+    /**
+     * Get the paths of all inputs in the manifest.
+     *
+     * @return {@link Set} paths of the inputs.
+     */
+    Set<String> getPaths() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    /**
+     * Check whether an output is produced by any input in the manifest.
+     *
+     * @param output {@link String} path of the output, relative to the
+     *               output directory.
+     * @return {@code true} if some input has this output, {@code false}
+     * otherwise.
+     */
+    boolean hasOutput(String output) {
+        return outputCounts.containsKey(output);
+    }
+
+    /**
+     * Add or replace the entry of an input, recording it immediately.
+     *
+     * @param entry {@link Entry} the entry.
+     * @throws IOException if the entry cannot be recorded.
+     */
+    void put(Entry entry) throws IOException {
+        countOutputs(entries.put(entry.getPath(), entry), -1);
+        countOutputs(entry, 1);
+        append(entry.toJson());
+    }
+
+    /**
+     * Remove the entry of an input, recording it immediately.
+     *
+     * @param path {@link String} path of the input.
+     * @throws IOException if the removal cannot be recorded.
+     */
+    void remove(String path) throws IOException {
+        Entry entry = entries.remove(path);
+        if (entry != null) {
+            countOutputs(entry, -1);
+            JsonObject json = new JsonObject();
+            json.put("path", path);
+            json.put("deleted", true);
+            append(json);
+        }
+    }
+
+    private void countOutputs(Entry entry, int delta) {
+        if (entry == null) {
+            return;
+        }
+        for (String output: entry.getOutputs()) {
+            outputCounts.merge(output, delta, (a, b) -> a + b == 0 ? null : a + b);
+        }
+    }
+
+    private void append(JsonObject json) throws IOException {
+        journal.write(Jsoner.serialize(json));
+        journal.write('\n');
+        journal.flush();
+    }
+
+    /**
+     * Compact the manifest, keeping a single line per input.
+     *
+     * @throws IOException if the manifest cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        journal.close();
+        compact();
+    }
+
+    private void compact() throws IOException {
+        Path tmpFile = Files.createTempFile(file.getParent(), FILENAME, ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(tmpFile, StandardCharsets.UTF_8)) {
+                for (Entry entry: entries.values()) {
+                    writer.write(Jsoner.serialize(entry.toJson()));
+                    writer.write('\n');
+                }
+            }
+            Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmpFile);
+        }
+    }
+
+    /**
+     * Compute the hash (SHA-256) of the contents of a file.
+     *
+     * @param file {@link Path} the file.
+     * @return {@link String} hexadecimal hash.
+     * @throws IOException if the file cannot be read.
+     */
+    static String hash(Path file) throws IOException {
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        byte[] buffer = new byte[HASH_BUFFER_SIZE];
+        try (InputStream is = Files.newInputStream(file)) {
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (byte b: digest.digest()) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+}
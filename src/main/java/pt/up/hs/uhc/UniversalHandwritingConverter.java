@@ -1,5 +1,9 @@
 package pt.up.hs.uhc;
 
+import pt.up.hs.uhc.base.PageSource;
+import pt.up.hs.uhc.binary.UhcBinaryReader;
+import pt.up.hs.uhc.binary.UhcBinaryWriter;
+import pt.up.hs.uhc.csv.CsvWriter;
 import pt.up.hs.uhc.base.PageWriter;
 import pt.up.hs.uhc.exceptions.UniversalHandwritingConverterException;
 import pt.up.hs.uhc.exceptions.UnknownFormatException;
@@ -15,10 +19,13 @@ import pt.up.hs.uhc.models.Page;
 import pt.up.hs.uhc.models.Format;
 import pt.up.hs.uhc.models.Rect;
 import pt.up.hs.uhc.neonotes.NeoNotesReader;
+import pt.up.hs.uhc.raster.RasterWriter;
 import pt.up.hs.uhc.svg.SvgWriter;
-import pt.up.hs.uhc.utils.FilenameUtils;
+import pt.up.hs.uhc.utils.FormatDetector;
+import pt.up.hs.uhc.utils.JaxbUtils;
 import pt.up.hs.uhc.utils.PageUtils;
 
+import javax.xml.bind.JAXBException;
 import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -30,18 +37,32 @@ import java.util.List;
  */
 public class UniversalHandwritingConverter {
 
+    /**
+     * Provides the output stream to which each page is written when
+     * streaming pages (see {@link #writeEach(String, InputStream, OutputStreamProvider)}).
+     */
+    @FunctionalInterface
+    public interface OutputStreamProvider {
+        OutputStream open(int pageNr) throws IOException;
+    }
+
     // readers
     private final HandSpyReader handSpyReader = new HandSpyReader();
     private final HandSpyLegacyReader handSpyLegacyReader = new HandSpyLegacyReader();
     private final InkMLReader inkMLReader = new InkMLReader();
     private final LsPDFReader lsPDFReader = new LsPDFReader();
     private final NeoNotesReader neoNotesReader = new NeoNotesReader();
+    private final UhcBinaryReader uhcBinaryReader = new UhcBinaryReader();
 
     // writers
     private final HandSpyWriter handSpyWriter = new HandSpyWriter();
     private final HandSpyLegacyWriter handSpyLegacyWriter = new HandSpyLegacyWriter();
     private final InkMLWriter inkMLWriter = new InkMLWriter();
     private final SvgWriter svgWriter = new SvgWriter();
+    private final UhcBinaryWriter uhcBinaryWriter = new UhcBinaryWriter();
+    private final CsvWriter csvWriter = new CsvWriter();
+    private final RasterWriter pngWriter = new RasterWriter();
+    private final RasterWriter jpegWriter = new RasterWriter().imageType(RasterWriter.ImageType.JPEG);
 
     // format
     private Format inFormat = null;
@@ -60,6 +81,24 @@ public class UniversalHandwritingConverter {
         this.outFormat = outFormat;
     }
 
+    /**
+     * Prepare the (expensive) JAXB contexts used by the XML-based readers
+     * and writers, so that the first conversion does not pay for them. Meant
+     * to be called once at startup.
+     */
+    public static void warmUp() {
+        try {
+            JaxbUtils.warmUp(
+                    org.w3._2003.inkml.ObjectFactory.class,
+                    org.w3._2003.inkml.InkType.class,
+                    protocol.ObjectFactory.class,
+                    protocol.Protocol.class
+            );
+        } catch (JAXBException e) {
+            throw new UniversalHandwritingConverterException("Could not prepare JAXB contexts.", e);
+        }
+    }
+
     public UniversalHandwritingConverter inputFormat(Format inFormat) {
         this.inFormat = inFormat;
         return this;
@@ -70,6 +109,45 @@ public class UniversalHandwritingConverter {
         return this;
     }
 
+    /**
+     * Set the columns written when the output format is {@link Format#CSV}.
+     *
+     * @param columns {@link CsvWriter.Column}s to write, in order.
+     * @return {@link UniversalHandwritingConverter} this converter.
+     */
+    public UniversalHandwritingConverter csvColumns(CsvWriter.Column... columns) {
+        csvWriter.columns(columns);
+        return this;
+    }
+
+    /**
+     * Set the simplification tolerances of the levels of detail written
+     * when the output format is {@link Format#SVG}.
+     *
+     * @param tolerances maximum shape errors, in page units.
+     * @return {@link UniversalHandwritingConverter} this converter.
+     * @see SvgWriter#levelsOfDetail(double...)
+     */
+    public UniversalHandwritingConverter svgLevelsOfDetail(double... tolerances) {
+        svgWriter.levelsOfDetail(tolerances);
+        return this;
+    }
+
+    /**
+     * Set the maximum size of the images written when the output format is
+     * {@link Format#PNG} or {@link Format#JPEG}.
+     *
+     * @param maxWidth  maximum width, in pixels.
+     * @param maxHeight maximum height, in pixels.
+     * @return {@link UniversalHandwritingConverter} this converter.
+     * @see RasterWriter#size(int, int)
+     */
+    public UniversalHandwritingConverter rasterSize(int maxWidth, int maxHeight) {
+        pngWriter.size(maxWidth, maxHeight);
+        jpegWriter.size(maxWidth, maxHeight);
+        return this;
+    }
+
     public UniversalHandwritingConverter file(File file) {
         try {
             return file(file.getAbsolutePath(), new FileInputStream(file));
@@ -94,37 +172,234 @@ public class UniversalHandwritingConverter {
 
     public UniversalHandwritingConverter write(int pageNr, OutputStream os) {
 
+        try {
+            writePage(pageNr, os, getWriter());
+        } catch (UniversalHandwritingConverterException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new UniversalHandwritingConverterException("Could not write file.", e);
+        }
+
+        return this;
+    }
+
+    /**
+     * Open the pages of a file as a {@link PageSource}, pulling them one at a
+     * time. Pages read this way are not kept by the converter.
+     *
+     * @param file {@link File} the file to read.
+     * @return {@link PageSource} source of pages of the file.
+     */
+    public PageSource openPages(File file) {
+        try {
+            return openPages(file.getAbsolutePath(), new FileInputStream(file));
+        } catch (FileNotFoundException e) {
+            throw new UniversalHandwritingConverterException("File not found.");
+        }
+    }
+
+    /**
+     * Open the pages of a file as a {@link PageSource}, pulling them one at a
+     * time. Pages read this way are not kept by the converter.
+     *
+     * @param filename {@link String} name of the file to read.
+     * @param is       {@link InputStream} contents of the file.
+     * @return {@link PageSource} source of pages of the file.
+     */
+    public PageSource openPages(String filename, InputStream is) {
+
+        if (filename == null || is == null) {
+            throw new UniversalHandwritingConverterException("File not specified.");
+        }
+
+        Format format = inFormat;
+        if (format == null) {
+            FormatDetector.Detection detection = detectFormat(filename, is);
+            format = detection.getFormat();
+            filename = detection.getFilename();
+            is = detection.getInputStream();
+        }
+
+        try {
+            switch (format) {
+                case NEONOTES_ARCHIVE:
+                    return neoNotesReader.openArchive(filename, is);
+                case LIVESCRIBE_PDF:
+                    return lsPDFReader.open(is);
+                case HANDSPY_ARCHIVE:
+                    return handSpyReader.openArchive(filename, is);
+                case HANDSPY_LEGACY_ARCHIVE:
+                    return handSpyLegacyReader.openArchive(filename, is);
+                case HANDSPY_NDJSON:
+                    return handSpyReader.openLines(is);
+                case UHC_BINARY:
+                    return uhcBinaryReader.open(is);
+                default:
+                    List<Page> pages = new ArrayList<>();
+                    read(format, filename, is, pages);
+                    return PageSource.of(pages);
+            }
+        } catch (UniversalHandwritingConverterException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new UniversalHandwritingConverterException("Could not read file.", e);
+        }
+    }
+
+    /**
+     * Convert each page of a file as soon as it is read, writing it to the
+     * stream provided for it, without keeping the pages in memory. Streams
+     * are closed after the page is written.
+     *
+     * @param file     {@link File} the file to read.
+     * @param provider {@link OutputStreamProvider} provider of the output
+     *                 stream of each page.
+     * @return number of pages written.
+     */
+    public int writeEach(File file, OutputStreamProvider provider) {
+        try {
+            return writeEach(file.getAbsolutePath(), new FileInputStream(file), provider);
+        } catch (FileNotFoundException e) {
+            throw new UniversalHandwritingConverterException("File not found.");
+        }
+    }
+
+    /**
+     * Convert each page of a file as soon as it is read, writing it to the
+     * stream provided for it, without keeping the pages in memory. Streams
+     * are closed after the page is written.
+     *
+     * @param filename {@link String} name of the file to read.
+     * @param is       {@link InputStream} contents of the file.
+     * @param provider {@link OutputStreamProvider} provider of the output
+     *                 stream of each page.
+     * @return number of pages written.
+     */
+    public int writeEach(String filename, InputStream is, OutputStreamProvider provider) {
+
+        PageWriter writer = getWriter();
+
+        int pageNr = 0;
+        try (PageSource source = openPages(filename, is)) {
+            while (source.hasNext()) {
+                Page page = source.next();
+                try (OutputStream os = provider.open(pageNr)) {
+                    writer.writeSingle(page, os);
+                }
+                pageNr++;
+            }
+        } catch (UniversalHandwritingConverterException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new UniversalHandwritingConverterException("Could not write file.", e);
+        }
+
+        return pageNr;
+    }
+
+    /**
+     * Convert all pages of a file into newline-delimited HandSpy JSON
+     * (NDJSON), writing each page as soon as it is read, without keeping
+     * the pages in memory. The output stream is not closed.
+     *
+     * @param file {@link File} the file to read.
+     * @param os   {@link OutputStream} output stream.
+     * @return number of pages written.
+     */
+    public int writeLines(File file, OutputStream os) {
+        try {
+            return writeLines(file.getAbsolutePath(), new FileInputStream(file), os);
+        } catch (FileNotFoundException e) {
+            throw new UniversalHandwritingConverterException("File not found.");
+        }
+    }
+
+    /**
+     * Convert all pages of a file into newline-delimited HandSpy JSON
+     * (NDJSON), writing each page as soon as it is read, without keeping
+     * the pages in memory. The output stream is not closed.
+     *
+     * @param filename {@link String} name of the file to read.
+     * @param is       {@link InputStream} contents of the file.
+     * @param os       {@link OutputStream} output stream.
+     * @return number of pages written.
+     */
+    public int writeLines(String filename, InputStream is, OutputStream os) {
+        try (PageSource source = openPages(filename, is)) {
+            return handSpyWriter.writeLines(source, os);
+        } catch (UniversalHandwritingConverterException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new UniversalHandwritingConverterException("Could not write file.", e);
+        }
+    }
+
+    /**
+     * Convert all pages of a file into a single output, writing each page as
+     * soon as it is read, without keeping the pages in memory. Only formats
+     * which can hold several pages in a file are supported
+     * ({@link Format#HANDSPY_NDJSON}, {@link Format#CSV} and
+     * {@link Format#UHC_BINARY}). The output stream is not closed.
+     *
+     * @param file {@link File} the file to read.
+     * @param os   {@link OutputStream} output stream.
+     * @return number of pages written.
+     */
+    public int writeAll(File file, OutputStream os) {
+        try {
+            return writeAll(file.getAbsolutePath(), new FileInputStream(file), os);
+        } catch (FileNotFoundException e) {
+            throw new UniversalHandwritingConverterException("File not found.");
+        }
+    }
+
+    /**
+     * Convert all pages of a file into a single output, writing each page as
+     * soon as it is read, without keeping the pages in memory. Only formats
+     * which can hold several pages in a file are supported
+     * ({@link Format#HANDSPY_NDJSON}, {@link Format#CSV} and
+     * {@link Format#UHC_BINARY}). The output stream is not closed.
+     *
+     * @param filename {@link String} name of the file to read.
+     * @param is       {@link InputStream} contents of the file.
+     * @param os       {@link OutputStream} output stream.
+     * @return number of pages written.
+     */
+    public int writeAll(String filename, InputStream is, OutputStream os) {
+
         if (outFormat == null) {
             outFormat = Format.HANDSPY;
         }
+        if (!isMultiPageFormat(outFormat)) {
+            throw new UnsupportedFormatException();
+        }
 
-        try {
+        try (PageSource source = openPages(filename, is)) {
             switch (outFormat) {
-                case NEONOTES_ARCHIVE:
-                case NEONOTES:
-                    throw new UnsupportedFormatException();
-                case HANDSPY_LEGACY:
-                    writePage(pageNr, os, handSpyLegacyWriter);
-                    break;
-                case INKML:
-                    writePage(pageNr, os, inkMLWriter);
-                    break;
-                case HANDSPY:
-                    writePage(pageNr, os, handSpyWriter);
-                    break;
-                case SVG:
-                    writePage(pageNr, os, svgWriter);
-                    break;
+                case HANDSPY_NDJSON:
+                    return handSpyWriter.writeLines(source, os);
+                case CSV:
+                    return csvWriter.writeAll(source, os);
                 default:
-                    throw new UnknownFormatException();
+                    return uhcBinaryWriter.writeAll(source, os);
             }
         } catch (UniversalHandwritingConverterException e) {
             throw e;
         } catch (Exception e) {
             throw new UniversalHandwritingConverterException("Could not write file.", e);
         }
+    }
 
-        return this;
+    /**
+     * Check whether a format can hold several pages in a single output (see
+     * {@link #writeAll(String, InputStream, OutputStream)}).
+     *
+     * @param format {@link Format} the format.
+     * @return {@code true} if the format can hold several pages,
+     * {@code false} otherwise.
+     */
+    public static boolean isMultiPageFormat(Format format) {
+        return format == Format.HANDSPY_NDJSON || format == Format.CSV || format == Format.UHC_BINARY;
     }
 
     public UniversalHandwritingConverter center() {
@@ -188,27 +463,12 @@ public class UniversalHandwritingConverter {
         return pages;
     }
 
-    private Format autoDetectFormat(String filename) {
-
-        String ext = FilenameUtils.getFileExtension(filename);
-
-        Format format;
-        if (ext.matches("(?i)^(neonotes)(\\.zip)?$")) {
-            format = Format.NEONOTES_ARCHIVE;
-        } else if (ext.matches("(?i)^(data)$")) {
-            format = Format.NEONOTES;
-        } else if (ext.matches("(?i)^(xml)$")) {
-            format = Format.HANDSPY_LEGACY;
-        } else if (ext.matches("(?i)^(ink|inkml)$")) {
-            format = Format.INKML;
-        } else if (ext.matches("(?i)^(pdf)$")) {
-            format = Format.LIVESCRIBE_PDF;
-        } else if (ext.matches("(?i)^(json)$")) {
-            format = Format.HANDSPY;
-        } else {
-            throw new UnsupportedFormatException();
+    private FormatDetector.Detection detectFormat(String filename, InputStream is) {
+        try {
+            return FormatDetector.detect(filename, is);
+        } catch (IOException e) {
+            throw new UniversalHandwritingConverterException("Could not read file.", e);
         }
-        return format;
     }
 
     private void read(String filename, InputStream is) {
@@ -217,36 +477,16 @@ public class UniversalHandwritingConverter {
             throw new UniversalHandwritingConverterException("File not specified.");
         }
 
-        Format format;
-        if (inFormat == null) {
-            format = autoDetectFormat(filename);
-        } else {
-            format = inFormat;
+        Format format = inFormat;
+        if (format == null) {
+            FormatDetector.Detection detection = detectFormat(filename, is);
+            format = detection.getFormat();
+            filename = detection.getFilename();
+            is = detection.getInputStream();
         }
 
         try {
-            switch (format) {
-                case NEONOTES_ARCHIVE:
-                    pages.addAll(neoNotesReader.readArchive(filename, is));
-                    break;
-                case NEONOTES:
-                    pages.add(neoNotesReader.readSingle(is));
-                    break;
-                case HANDSPY_LEGACY:
-                    pages.add(handSpyLegacyReader.readSingle(is));
-                    break;
-                case INKML:
-                    pages.add(inkMLReader.readSingle(is));
-                    break;
-                case LIVESCRIBE_PDF:
-                    pages.addAll(lsPDFReader.read(is));
-                    break;
-                case HANDSPY:
-                    pages.add(handSpyReader.readSingle(is));
-                    break;
-                default:
-                    throw new UnknownFormatException();
-            }
+            read(format, filename, is, pages);
         } catch (UniversalHandwritingConverterException e) {
             throw e;
         } catch (Exception e) {
@@ -254,6 +494,78 @@ public class UniversalHandwritingConverter {
         }
     }
 
+    private void read(Format format, String filename, InputStream is, List<Page> pages) throws Exception {
+        switch (format) {
+            case NEONOTES_ARCHIVE:
+                pages.addAll(neoNotesReader.readArchive(filename, is));
+                break;
+            case NEONOTES:
+                pages.add(neoNotesReader.readSingle(is));
+                break;
+            case HANDSPY_LEGACY:
+                pages.add(handSpyLegacyReader.readSingle(is));
+                break;
+            case INKML:
+                pages.add(inkMLReader.readSingle(is));
+                break;
+            case LIVESCRIBE_PDF:
+                pages.addAll(lsPDFReader.read(is));
+                break;
+            case HANDSPY:
+                pages.add(handSpyReader.readSingle(is));
+                break;
+            case HANDSPY_ARCHIVE:
+                pages.addAll(handSpyReader.readArchive(filename, is));
+                break;
+            case HANDSPY_LEGACY_ARCHIVE:
+                pages.addAll(handSpyLegacyReader.readArchive(filename, is));
+                break;
+            case HANDSPY_NDJSON:
+                pages.addAll(handSpyReader.readLines(is));
+                break;
+            case UHC_BINARY:
+                pages.addAll(uhcBinaryReader.read(is));
+                break;
+            default:
+                throw new UnknownFormatException();
+        }
+    }
+
+    private PageWriter getWriter() {
+
+        if (outFormat == null) {
+            outFormat = Format.HANDSPY;
+        }
+
+        switch (outFormat) {
+            case NEONOTES_ARCHIVE:
+            case NEONOTES:
+            case HANDSPY_ARCHIVE:
+            case HANDSPY_LEGACY_ARCHIVE:
+                throw new UnsupportedFormatException();
+            case HANDSPY_LEGACY:
+                return handSpyLegacyWriter;
+            case INKML:
+                return inkMLWriter;
+            case HANDSPY:
+                return handSpyWriter;
+            case HANDSPY_NDJSON:
+                return handSpyWriter::writeLine;
+            case SVG:
+                return svgWriter;
+            case UHC_BINARY:
+                return uhcBinaryWriter;
+            case CSV:
+                return csvWriter;
+            case PNG:
+                return pngWriter;
+            case JPEG:
+                return jpegWriter;
+            default:
+                throw new UnknownFormatException();
+        }
+    }
+
     private void writePage(int pageNr, OutputStream os, PageWriter writer) throws Exception {
         if (pages.isEmpty() || pageNr < 0 || pageNr >= pages.size()) {
             throw new UniversalHandwritingConverterException("No such page.");
@@ -0,0 +1,79 @@
+package pt.up.hs.uhc.base;
+
+import pt.up.hs.uhc.exceptions.UniversalHandwritingConverterException;
+import pt.up.hs.uhc.models.Page;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Base {@link PageSource} that reads ahead one page at a time and closes
+ * the underlying input when exhausted or on failure.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+public abstract class AbstractPageSource implements PageSource {
+
+    private Page next = null;
+    private boolean done = false;
+    private boolean closed = false;
+
+    /**
+     * Read the next page from the underlying input.
+     *
+     * @return {@link Page} next page or {@code null} if there are no more
+     * pages.
+     * @throws Exception if an exception occurs while reading data.
+     */
+    protected abstract Page readNext() throws Exception;
+
+    /**
+     * Close the underlying input.
+     *
+     * @throws Exception if an exception occurs while closing the input.
+     */
+    protected abstract void closeSource() throws Exception;
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !done) {
+            try {
+                next = readNext();
+            } catch (UniversalHandwritingConverterException e) {
+                close();
+                throw e;
+            } catch (Exception e) {
+                close();
+                throw new UniversalHandwritingConverterException("Could not read page.", e);
+            }
+            if (next == null) {
+                close();
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public Page next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Page page = next;
+        next = null;
+        return page;
+    }
+
+    @Override
+    public void close() {
+        done = true;
+        next = null;
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            closeSource();
+        } catch (Exception e) {
+            throw new UniversalHandwritingConverterException("Could not close page source.", e);
+        }
+    }
+}
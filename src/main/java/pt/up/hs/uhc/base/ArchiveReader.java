@@ -57,4 +57,43 @@ public interface ArchiveReader {
      * @throws Exception if an exception occurs while reading data.
      */
     List<Page> readArchive(TarArchiveInputStream tais) throws Exception;
+
+    /**
+     * Opens an archive of handwriting data as a {@link PageSource}, provided
+     * an {@link InputStream} and the file name/path. Pages are read one at a
+     * time, as they are requested.
+     *
+     * @param filename {@link String} file name/path to read.
+     * @param is       {@link InputStream} file input stream.
+     * @return {@link PageSource} source of the pages in the archive.
+     * @throws Exception if an exception occurs while opening the archive.
+     */
+    PageSource openArchive(String filename, InputStream is) throws Exception;
+
+    /**
+     * Opens an archive of handwriting data as a {@link PageSource}, provided
+     * an {@link File}.
+     *
+     * @param file {@link File} file to read.
+     * @return {@link PageSource} source of the pages in the archive.
+     * @throws Exception if an exception occurs while opening the archive.
+     */
+    PageSource openArchive(File file) throws Exception;
+
+    /**
+     * Opens a zip archive of handwriting data as a {@link PageSource}.
+     *
+     * @param zis {@link ZipInputStream} to an archive of handwriting data.
+     * @return {@link PageSource} source of the pages in the archive.
+     */
+    PageSource openArchive(ZipInputStream zis);
+
+    /**
+     * Opens a tar archive of handwriting data as a {@link PageSource}.
+     *
+     * @param tais {@link TarArchiveInputStream} to an archive of handwriting
+     *             data.
+     * @return {@link PageSource} source of the pages in the archive.
+     */
+    PageSource openArchive(TarArchiveInputStream tais);
 }
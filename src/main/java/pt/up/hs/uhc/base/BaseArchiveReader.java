@@ -1,34 +1,49 @@
 package pt.up.hs.uhc.base;
 
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import pt.up.hs.uhc.exceptions.UniversalHandwritingConverterException;
 import pt.up.hs.uhc.models.Page;
 import pt.up.hs.uhc.utils.FilenameUtils;
+import pt.up.hs.uhc.utils.StreamUtils;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
 import java.util.List;
+import java.util.stream.Collectors;
 import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 
 /**
  * Base {@link ArchiveReader} to infer archive format from extension.
  *
+ * Random access to zip archives is provided through their central
+ * directory, for readers that specify which entries are pages
+ * ({@link #isPageEntry(String)}) and how to decode them
+ * ({@link #readPageEntry(byte[])}). The same two methods are enough to read
+ * zip and tar archives sequentially.
+ *
  * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
  */
-public abstract class BaseArchiveReader implements ArchiveReader {
+public abstract class BaseArchiveReader implements ArchiveReader, RandomAccessArchiveReader {
 
     @Override
     public List<Page> readArchive(String filename, InputStream is) throws Exception {
 
         String ext = FilenameUtils.getFileExtension(filename);
 
-        if (ext.matches("(?i)(tar\\.gz)$")) {
+        if (ext.matches("(?i)^(.*\\.)?tar\\.gz$")) {
             GZIPInputStream gzis = new GZIPInputStream(is);
             return readArchive(new TarArchiveInputStream(gzis));
         }
 
-        if (ext.matches("(?i)(tar)$")) {
+        if (ext.matches("(?i)^(.*\\.)?tar$")) {
             return readArchive(new TarArchiveInputStream(is));
         }
 
@@ -39,4 +54,170 @@ public abstract class BaseArchiveReader implements ArchiveReader {
     public List<Page> readArchive(File file) throws Exception {
         return readArchive(file.getName(), new FileInputStream(file));
     }
+
+    @Override
+    public PageSource openArchive(String filename, InputStream is) throws Exception {
+
+        String ext = FilenameUtils.getFileExtension(filename);
+
+        if (ext.matches("(?i)^(.*\\.)?tar\\.gz$")) {
+            GZIPInputStream gzis = new GZIPInputStream(is);
+            return openArchive(new TarArchiveInputStream(gzis));
+        }
+
+        if (ext.matches("(?i)^(.*\\.)?tar$")) {
+            return openArchive(new TarArchiveInputStream(is));
+        }
+
+        return openArchive(new ZipInputStream(is));
+    }
+
+    @Override
+    public PageSource openArchive(File file) throws Exception {
+        return openArchive(file.getName(), new FileInputStream(file));
+    }
+
+    @Override
+    public List<Page> readArchive(ZipInputStream zis) throws Exception {
+        return readAll(openArchive(zis));
+    }
+
+    @Override
+    public List<Page> readArchive(TarArchiveInputStream tais) throws Exception {
+        return readAll(openArchive(tais));
+    }
+
+    @Override
+    public PageSource openArchive(ZipInputStream zis) {
+        return new AbstractPageSource() {
+
+            @Override
+            protected Page readNext() throws Exception {
+                ZipEntry zipEntry;
+                while ((zipEntry = zis.getNextEntry()) != null) {
+                    if (!zipEntry.isDirectory() && isPageEntry(zipEntry.getName())) {
+                        return readPageEntry(StreamUtils.readAllBytes(zis, zipEntry.getSize()));
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            protected void closeSource() throws Exception {
+                zis.close();
+            }
+        };
+    }
+
+    @Override
+    public PageSource openArchive(TarArchiveInputStream tais) {
+        return new AbstractPageSource() {
+
+            @Override
+            protected Page readNext() throws Exception {
+                TarArchiveEntry tarEntry;
+                while ((tarEntry = tais.getNextTarEntry()) != null) {
+                    if (tarEntry.isFile() && isPageEntry(tarEntry.getName())) {
+                        return readPageEntry(StreamUtils.readAllBytes(tais, tarEntry.getSize()));
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            protected void closeSource() throws Exception {
+                tais.close();
+            }
+        };
+    }
+
+    @Override
+    public List<String> listPages(Path archive) throws Exception {
+        try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+            return getPageEntries(zipFile).stream()
+                    .map(ZipEntry::getName)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    @Override
+    public Page readPage(Path archive, int index) throws Exception {
+        try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+            List<ZipEntry> entries = getPageEntries(zipFile);
+            if (index < 0 || index >= entries.size()) {
+                throw new UniversalHandwritingConverterException("No such page.");
+            }
+            return readPageEntry(zipFile, entries.get(index));
+        }
+    }
+
+    @Override
+    public Page readPage(Path archive, String name) throws Exception {
+        try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+            ZipEntry entry = zipFile.getEntry(name);
+            if (entry == null || entry.isDirectory() || !isPageEntry(entry.getName())) {
+                throw new UniversalHandwritingConverterException("No such page.");
+            }
+            return readPageEntry(zipFile, entry);
+        }
+    }
+
+    @Override
+    public List<Page> readPages(Path archive, int fromIndex, int toIndex) throws Exception {
+        try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+            List<ZipEntry> entries = getPageEntries(zipFile);
+            if (fromIndex < 0 || toIndex > entries.size() || fromIndex > toIndex) {
+                throw new UniversalHandwritingConverterException("No such page.");
+            }
+            List<Page> pages = new ArrayList<>(toIndex - fromIndex);
+            for (ZipEntry entry: entries.subList(fromIndex, toIndex)) {
+                pages.add(readPageEntry(zipFile, entry));
+            }
+            return pages;
+        }
+    }
+
+    /**
+     * Checks whether an archive entry contains a page.
+     *
+     * @param name {@link String} name of the entry.
+     * @return {@code true} if the entry contains a page, {@code false}
+     * otherwise.
+     */
+    protected abstract boolean isPageEntry(String name);
+
+    /**
+     * Reads a page from the contents of an archive entry.
+     *
+     * @param bytes {@code byte[]} contents of the entry.
+     * @return {@link Page} data from page.
+     * @throws Exception if an exception occurs while reading data.
+     */
+    protected abstract Page readPageEntry(byte[] bytes) throws Exception;
+
+    private List<Page> readAll(PageSource source) {
+        try (PageSource pages = source) {
+            List<Page> result = new ArrayList<>();
+            pages.forEachRemaining(result::add);
+            return result;
+        }
+    }
+
+    private List<ZipEntry> getPageEntries(ZipFile zipFile) {
+        List<ZipEntry> entries = new ArrayList<>();
+        Enumeration<? extends ZipEntry> enumeration = zipFile.entries();
+        while (enumeration.hasMoreElements()) {
+            ZipEntry entry = enumeration.nextElement();
+            if (!entry.isDirectory() && isPageEntry(entry.getName())) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    private Page readPageEntry(ZipFile zipFile, ZipEntry entry) throws Exception {
+        try (InputStream is = zipFile.getInputStream(entry)) {
+            return readPageEntry(StreamUtils.readAllBytes(is, entry.getSize()));
+        }
+    }
 }
@@ -32,4 +32,24 @@ public interface MultiPageReader {
      * @throws Exception if an exception occurs while reading data.
      */
     List<Page> read(InputStream is) throws Exception;
+
+    /**
+     * Opens a file with multiple pages of handwriting data as a
+     * {@link PageSource}, which reads pages as they are requested.
+     *
+     * @param file {@link File} file w/ handwriting data.
+     * @return {@link PageSource} source of the pages.
+     * @throws Exception if an exception occurs while opening the file.
+     */
+    PageSource open(File file) throws Exception;
+
+    /**
+     * Opens pages of handwriting data as a {@link PageSource}, provided an
+     * {@link InputStream} of its contents.
+     *
+     * @param is {@link InputStream} to a file with handwriting data.
+     * @return {@link PageSource} source of the pages.
+     * @throws Exception if an exception occurs while opening the stream.
+     */
+    PageSource open(InputStream is) throws Exception;
 }
@@ -0,0 +1,126 @@
+package pt.up.hs.uhc.base;
+
+import pt.up.hs.uhc.models.Page;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Decodes the raw contents of archive entries into {@link Page}s, either on
+ * the calling thread or on a bounded pool of worker threads. Pages are
+ * returned in the order their contents were submitted.
+ *
+ * When running in parallel, at most {@code 2 * threads} entries are kept
+ * in-flight, so that the thread inflating the archive blocks instead of
+ * buffering the whole archive in memory. A failed decode is reported by
+ * the next submission, so that the archive is not read to its end in vain.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+public class OrderedPageDecoder implements AutoCloseable {
+
+    /**
+     * Function that decodes the contents of an entry into a page.
+     */
+    @FunctionalInterface
+    public interface Decoder {
+        Page decode(byte[] bytes) throws Exception;
+    }
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    private final Decoder decoder;
+    private final ExecutorService executor;
+    private final Semaphore inFlight;
+
+    private final List<Future<Page>> futures = new ArrayList<>();
+    private final List<Page> pages = new ArrayList<>();
+
+    // first exception thrown by a worker thread
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+
+    public OrderedPageDecoder(Decoder decoder, int threads) {
+        this.decoder = decoder;
+        if (threads > 1) {
+            this.executor = Executors.newFixedThreadPool(threads, r -> {
+                Thread thread = new Thread(r, "uhc-page-decoder-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.inFlight = new Semaphore(2 * threads);
+        } else {
+            this.executor = null;
+            this.inFlight = null;
+        }
+    }
+
+    /**
+     * Submit the contents of an entry to decode.
+     *
+     * @param bytes {@code byte[]} contents of the entry.
+     * @throws Exception if decoding this or an earlier entry fails, or the
+     *                   calling thread is interrupted.
+     */
+    public void submit(byte[] bytes) throws Exception {
+        if (executor == null) {
+            pages.add(decoder.decode(bytes));
+            return;
+        }
+        inFlight.acquire();
+        Exception e = failure.get();
+        if (e != null) {
+            inFlight.release();
+            throw e;
+        }
+        try {
+            futures.add(executor.submit(() -> {
+                try {
+                    return decoder.decode(bytes);
+                } catch (Exception ex) {
+                    failure.compareAndSet(null, ex);
+                    throw ex;
+                } finally {
+                    inFlight.release();
+                }
+            }));
+        } catch (RejectedExecutionException ex) {
+            inFlight.release();
+            throw ex;
+        }
+    }
+
+    /**
+     * Wait for all submitted entries to be decoded.
+     *
+     * @return {@link List} pages in submission order.
+     * @throws Exception the exception thrown by the first failing decode.
+     */
+    public List<Page> finish() throws Exception {
+        if (executor != null) {
+            try {
+                for (Future<Page> future: futures) {
+                    pages.add(future.get());
+                }
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                throw e;
+            } finally {
+                futures.clear();
+            }
+        }
+        return pages;
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package pt.up.hs.uhc.base;
+
+import pt.up.hs.uhc.models.Page;
+
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A pull-based source of {@link Page}s, which reads pages one at a time
+ * from an underlying input. The underlying input is closed once all pages
+ * have been read, or when the source is closed.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+public interface PageSource extends Iterator<Page>, AutoCloseable {
+
+    /**
+     * Closes the underlying input. Pending pages are discarded.
+     */
+    @Override
+    void close();
+
+    /**
+     * Get a {@link Spliterator} over the remaining pages.
+     *
+     * @return {@link Spliterator} over the remaining pages.
+     */
+    default Spliterator<Page> spliterator() {
+        return Spliterators.spliteratorUnknownSize(
+                this, Spliterator.ORDERED | Spliterator.NONNULL);
+    }
+
+    /**
+     * Get a sequential {@link Stream} over the remaining pages. Closing the
+     * stream closes this source.
+     *
+     * @return {@link Stream} over the remaining pages.
+     */
+    default Stream<Page> stream() {
+        return StreamSupport.stream(spliterator(), false)
+                .onClose(this::close);
+    }
+
+    /**
+     * Create a source of pages already in memory.
+     *
+     * @param pages {@link Collection} the pages.
+     * @return {@link PageSource} source of the pages.
+     */
+    static PageSource of(Collection<Page> pages) {
+        Iterator<Page> iterator = pages.iterator();
+        return new AbstractPageSource() {
+
+            @Override
+            protected Page readNext() {
+                return iterator.hasNext() ? iterator.next() : null;
+            }
+
+            @Override
+            protected void closeSource() {
+            }
+        };
+    }
+}
@@ -0,0 +1,56 @@
+package pt.up.hs.uhc.base;
+
+import pt.up.hs.uhc.models.Page;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Interface implemented by readers of archives that can access pages
+ * directly, through the archive's index (e.g., the zip central directory),
+ * without inflating the remaining entries.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+public interface RandomAccessArchiveReader {
+
+    /**
+     * Lists the names of the page entries of an archive, in archive order.
+     *
+     * @param archive {@link Path} path to the archive.
+     * @return {@link List} names of the page entries.
+     * @throws Exception if an exception occurs while reading the archive.
+     */
+    List<String> listPages(Path archive) throws Exception;
+
+    /**
+     * Reads the page at a given index of an archive.
+     *
+     * @param archive {@link Path} path to the archive.
+     * @param index   index of the page (as in {@link #listPages(Path)}).
+     * @return {@link Page} data from page.
+     * @throws Exception if an exception occurs while reading data.
+     */
+    Page readPage(Path archive, int index) throws Exception;
+
+    /**
+     * Reads the page with a given entry name from an archive.
+     *
+     * @param archive {@link Path} path to the archive.
+     * @param name    {@link String} name of the page entry.
+     * @return {@link Page} data from page.
+     * @throws Exception if an exception occurs while reading data.
+     */
+    Page readPage(Path archive, String name) throws Exception;
+
+    /**
+     * Reads a range of pages from an archive.
+     *
+     * @param archive   {@link Path} path to the archive.
+     * @param fromIndex index of the first page (inclusive).
+     * @param toIndex   index of the last page (exclusive).
+     * @return {@link List} data from pages.
+     * @throws Exception if an exception occurs while reading data.
+     */
+    List<Page> readPages(Path archive, int fromIndex, int toIndex) throws Exception;
+}
@@ -0,0 +1,116 @@
+package pt.up.hs.uhc.binary;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffered input of the primitives of the UHC binary format (see
+ * {@link BinaryOutput}).
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+class BinaryInput {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final InputStream is;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int pos = 0;
+    private int limit = 0;
+
+    BinaryInput(InputStream is) {
+        this.is = is;
+    }
+
+    /**
+     * Read the next byte, if any.
+     *
+     * @return {@code int} the byte or {@code -1} at the end of the input.
+     * @throws IOException if the input cannot be read.
+     */
+    int read() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buffer[pos++] & 0xFF;
+    }
+
+    int readByte() throws IOException {
+        if (pos == limit && !fill()) {
+            throw new EOFException("Unexpected end of UHC binary data.");
+        }
+        return buffer[pos++] & 0xFF;
+    }
+
+    void readBytes(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (pos == limit && !fill()) {
+                throw new EOFException("Unexpected end of UHC binary data.");
+            }
+            int n = Math.min(limit - pos, bytes.length - offset);
+            System.arraycopy(buffer, pos, bytes, offset, n);
+            pos += n;
+            offset += n;
+        }
+    }
+
+    long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in UHC binary data.");
+    }
+
+    int readVarInt() throws IOException {
+        long value = readVarLong();
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new IOException("Invalid count in UHC binary data.");
+        }
+        return (int) value;
+    }
+
+    long readZigZag() throws IOException {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    long readLong() throws IOException {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | readByte();
+        }
+        return value;
+    }
+
+    double readDouble() throws IOException {
+        return Double.longBitsToDouble(readLong());
+    }
+
+    String readString() throws IOException {
+        byte[] bytes = new byte[readVarInt()];
+        readBytes(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    void close() throws IOException {
+        is.close();
+    }
+
+    private boolean fill() throws IOException {
+        int read = is.read(buffer, 0, BUFFER_SIZE);
+        if (read <= 0) {
+            return false;
+        }
+        pos = 0;
+        limit = read;
+        return true;
+    }
+}
@@ -0,0 +1,111 @@
+package pt.up.hs.uhc.binary;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffered output of the primitives of the UHC binary format (varints,
+ * zig-zag varints, fixed-size numbers and strings), keeping track of the
+ * number of bytes written.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+class BinaryOutput {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final OutputStream os;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int count = 0;
+    private long flushed = 0;
+
+    BinaryOutput(OutputStream os) {
+        this.os = os;
+    }
+
+    /**
+     * Get the number of bytes written so far.
+     *
+     * @return {@code long} the number of bytes written.
+     */
+    long position() {
+        return flushed + count;
+    }
+
+    void writeByte(int b) throws IOException {
+        if (count == BUFFER_SIZE) {
+            flushBuffer();
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    void writeBytes(byte[] bytes) throws IOException {
+        if (bytes.length > BUFFER_SIZE - count) {
+            flushBuffer();
+            if (bytes.length > BUFFER_SIZE) {
+                os.write(bytes);
+                flushed += bytes.length;
+                return;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, count, bytes.length);
+        count += bytes.length;
+    }
+
+    /**
+     * Write an unsigned variable-length integer (7 bits per byte, least
+     * significant group first).
+     *
+     * @param value {@code long} the value, taken as unsigned.
+     * @throws IOException if the value cannot be written.
+     */
+    void writeVarLong(long value) throws IOException {
+        if (BUFFER_SIZE - count < 10) {
+            flushBuffer();
+        }
+        while ((value & ~0x7FL) != 0) {
+            buffer[count++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[count++] = (byte) value;
+    }
+
+    /**
+     * Write a signed variable-length integer, zig-zag encoded so that small
+     * negative values take few bytes too.
+     *
+     * @param value {@code long} the value.
+     * @throws IOException if the value cannot be written.
+     */
+    void writeZigZag(long value) throws IOException {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    void writeLong(long value) throws IOException {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            writeByte((int) (value >>> shift));
+        }
+    }
+
+    void writeDouble(double value) throws IOException {
+        writeLong(Double.doubleToLongBits(value));
+    }
+
+    void writeString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length);
+        writeBytes(bytes);
+    }
+
+    void flush() throws IOException {
+        flushBuffer();
+        os.flush();
+    }
+
+    private void flushBuffer() throws IOException {
+        os.write(buffer, 0, count);
+        flushed += count;
+        count = 0;
+    }
+}
@@ -0,0 +1,64 @@
+package pt.up.hs.uhc.binary;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Constants of the UHC binary format.
+ *
+ * A file starts with a header ({@link #MAGIC}, {@link #VERSION} and the
+ * number of decimal places of coordinates and pressures), followed by
+ * {@link #PAGE} records, and ends with an {@link #INDEX} record with the
+ * offsets of the pages and a fixed-size footer (offset of the index and
+ * {@link #INDEX_MAGIC}), so that pages can be reached directly.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+public class Constants {
+
+    public static final byte[] MAGIC = "UHCB".getBytes(StandardCharsets.US_ASCII);
+    public static final byte[] INDEX_MAGIC = "UHCI".getBytes(StandardCharsets.US_ASCII);
+    public static final int VERSION = 1;
+
+    public static final int HEADER_SIZE = 6;
+    public static final int FOOTER_SIZE = 12;
+
+    // records
+    public static final byte PAGE = 'P';
+    public static final byte INDEX = 'I';
+
+    // present page dimensions
+    public static final int HAS_WIDTH = 1;
+    public static final int HAS_HEIGHT = 1 << 1;
+    public static final int HAS_MARGIN_LEFT = 1 << 2;
+    public static final int HAS_MARGIN_TOP = 1 << 3;
+    public static final int HAS_MARGIN_RIGHT = 1 << 4;
+    public static final int HAS_MARGIN_BOTTOM = 1 << 5;
+
+    // flags of page dimensions, in the order they are written
+    public static final int[] DIMENSION_FLAGS = {
+            HAS_WIDTH, HAS_HEIGHT, HAS_MARGIN_LEFT, HAS_MARGIN_TOP, HAS_MARGIN_RIGHT, HAS_MARGIN_BOTTOM
+    };
+
+    // stroke flags
+    public static final int HAS_START_TIME = 1;
+    public static final int HAS_END_TIME = 1 << 1;
+    public static final int MISSING_X = 1 << 2;
+    public static final int MISSING_Y = 1 << 3;
+    public static final int MISSING_PRESSURE = 1 << 4;
+    public static final int MISSING_TIMESTAMP = 1 << 5;
+    public static final int HAS_TYPES = 1 << 6;
+    public static final int HAS_DOT_METADATA = 1 << 7;
+
+    // metadata value types
+    public static final byte NULL = 0;
+    public static final byte STRING = 1;
+    public static final byte INTEGER = 2;
+    public static final byte LONG = 3;
+    public static final byte DOUBLE = 4;
+    public static final byte FLOAT = 5;
+    public static final byte BOOLEAN = 6;
+    public static final byte BIG_DECIMAL = 7;
+    public static final byte ENUM = 8;
+    public static final byte MAP = 9;
+    public static final byte LIST = 10;
+}
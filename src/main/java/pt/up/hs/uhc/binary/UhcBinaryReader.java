@@ -0,0 +1,382 @@
+package pt.up.hs.uhc.binary;
+
+import pt.up.hs.uhc.base.AbstractPageSource;
+import pt.up.hs.uhc.base.PageReader;
+import pt.up.hs.uhc.base.PageSource;
+import pt.up.hs.uhc.exceptions.UniversalHandwritingConverterException;
+import pt.up.hs.uhc.exceptions.UnsupportedFormatException;
+import pt.up.hs.uhc.models.CaptureError;
+import pt.up.hs.uhc.models.DotType;
+import pt.up.hs.uhc.models.Format;
+import pt.up.hs.uhc.models.LengthUnit;
+import pt.up.hs.uhc.models.Page;
+import pt.up.hs.uhc.models.Stroke;
+import pt.up.hs.uhc.models.TimeUnit;
+import pt.up.hs.uhc.utils.MetadataUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static pt.up.hs.uhc.binary.Constants.*;
+
+/**
+ * Reader of pages in the UHC binary format (see {@link UhcBinaryWriter}).
+ *
+ * Pages can be read sequentially from a stream, or directly by index from
+ * a file, through the page index at its end.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+public class UhcBinaryReader implements PageReader {
+
+    private static final DotType[] DOT_TYPES = DotType.values();
+
+    // enums whose constants may be decoded from metadata, by class name
+    private static final Map<String, Class<? extends Enum<?>>> ENUMS = new HashMap<>();
+    static {
+        List<Class<? extends Enum<?>>> enums = Arrays.asList(
+                CaptureError.class, DotType.class, Format.class, LengthUnit.class, TimeUnit.class
+        );
+        for (Class<? extends Enum<?>> enumClass: enums) {
+            ENUMS.put(enumClass.getName(), enumClass);
+        }
+    }
+
+    @Override
+    public Page readSingle(File file) throws Exception {
+        try (InputStream is = new FileInputStream(file)) {
+            return readSingle(is);
+        }
+    }
+
+    @Override
+    public Page readSingle(InputStream is) throws Exception {
+        BinaryInput in = new BinaryInput(is);
+        double scale = readHeader(in);
+        if (in.readByte() != PAGE) {
+            throw new UniversalHandwritingConverterException("No pages in UHC binary data.");
+        }
+        return readPage(in, scale);
+    }
+
+    /**
+     * Open the pages of a stream as a {@link PageSource}. Pages are read one
+     * at a time, as they are requested.
+     *
+     * @param is {@link InputStream} to the UHC binary data.
+     * @return {@link PageSource} source of the pages.
+     */
+    public PageSource open(InputStream is) {
+        BinaryInput in = new BinaryInput(is);
+        return new AbstractPageSource() {
+
+            private double scale = Double.NaN;
+
+            @Override
+            protected Page readNext() throws Exception {
+                if (Double.isNaN(scale)) {
+                    scale = readHeader(in);
+                }
+                int record = in.read();
+                if (record == -1 || record == INDEX) {
+                    return null;
+                }
+                if (record != PAGE) {
+                    throw new IOException("Unexpected record in UHC binary data.");
+                }
+                return readPage(in, scale);
+            }
+
+            @Override
+            protected void closeSource() throws Exception {
+                in.close();
+            }
+        };
+    }
+
+    /**
+     * Read all pages of a stream.
+     *
+     * @param is {@link InputStream} to the UHC binary data.
+     * @return {@link List} the pages.
+     */
+    public List<Page> read(InputStream is) {
+        List<Page> pages = new ArrayList<>();
+        try (PageSource source = open(is)) {
+            source.forEachRemaining(pages::add);
+        }
+        return pages;
+    }
+
+    /**
+     * Count the pages of a file, from its index.
+     *
+     * @param file {@link Path} the file.
+     * @return number of pages.
+     * @throws IOException if the file cannot be read.
+     */
+    public int countPages(Path file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r")) {
+            return readIndex(raf).length;
+        }
+    }
+
+    /**
+     * Read the page with the given index from a file, skipping directly to
+     * it through the index.
+     *
+     * @param file  {@link Path} the file.
+     * @param index index of the page.
+     * @return {@link Page} the page.
+     * @throws IOException if the file cannot be read.
+     */
+    public Page readPage(Path file, int index) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r")) {
+
+            long[] offsets = readIndex(raf);
+            if (index < 0 || index >= offsets.length) {
+                throw new UniversalHandwritingConverterException("No such page.");
+            }
+
+            raf.seek(0);
+            double scale = readHeader(new BinaryInput(Channels.newInputStream(raf.getChannel())));
+
+            raf.seek(offsets[index]);
+            BinaryInput in = new BinaryInput(Channels.newInputStream(raf.getChannel()));
+            if (in.readByte() != PAGE) {
+                throw new IOException("Invalid page index in UHC binary data.");
+            }
+            return readPage(in, scale);
+        }
+    }
+
+    private static long[] readIndex(RandomAccessFile raf) throws IOException {
+
+        if (raf.length() < HEADER_SIZE + FOOTER_SIZE) {
+            throw new UnsupportedFormatException();
+        }
+
+        raf.seek(raf.length() - FOOTER_SIZE);
+        long indexOffset = raf.readLong();
+        byte[] magic = new byte[INDEX_MAGIC.length];
+        raf.readFully(magic);
+        if (!Arrays.equals(magic, INDEX_MAGIC) || indexOffset < HEADER_SIZE || indexOffset >= raf.length()) {
+            throw new IOException("Invalid page index in UHC binary data.");
+        }
+
+        raf.seek(indexOffset);
+        BinaryInput in = new BinaryInput(Channels.newInputStream(raf.getChannel()));
+        if (in.readByte() != INDEX) {
+            throw new IOException("Invalid page index in UHC binary data.");
+        }
+        long[] offsets = new long[in.readVarInt()];
+        long offset = 0;
+        for (int i = 0; i < offsets.length; i++) {
+            offset += in.readVarLong();
+            offsets[i] = offset;
+        }
+        return offsets;
+    }
+
+    private static double readHeader(BinaryInput in) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        in.readBytes(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new UnsupportedFormatException();
+        }
+        int version = in.readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported UHC binary version " + version + ".");
+        }
+        return Math.pow(10, in.readByte());
+    }
+
+    private static Page readPage(BinaryInput in, double scale) throws IOException {
+
+        int flags = in.readByte();
+        Double[] dimensions = new Double[DIMENSION_FLAGS.length];
+        for (int i = 0; i < dimensions.length; i++) {
+            if ((flags & DIMENSION_FLAGS[i]) != 0) {
+                dimensions[i] = in.readDouble();
+            }
+        }
+
+        Page page = new Page(
+                dimensions[0], dimensions[1],
+                dimensions[2], dimensions[3],
+                dimensions[4], dimensions[5]
+        );
+        page.setMetadata(readMetadata(in));
+
+        int strokeCount = in.readVarInt();
+        for (int s = 0; s < strokeCount; s++) {
+            page.addStroke(readStroke(in, scale));
+        }
+
+        return page;
+    }
+
+    private static Stroke readStroke(BinaryInput in, double scale) throws IOException {
+
+        int flags = in.readByte();
+
+        long startTime = 0L;
+        Long endTime = null;
+        if ((flags & HAS_START_TIME) != 0) {
+            startTime = in.readZigZag();
+        }
+        if ((flags & HAS_END_TIME) != 0) {
+            endTime = startTime + in.readZigZag();
+        }
+
+        Map<String, Object> metadata = readMetadata(in);
+
+        int n = in.readVarInt();
+
+        double[] xs = readColumn(in, n, scale, (flags & MISSING_X) != 0);
+        double[] ys = readColumn(in, n, scale, (flags & MISSING_Y) != 0);
+        double[] pressures = readColumn(in, n, scale, (flags & MISSING_PRESSURE) != 0);
+
+        long[] timestamps = new long[n];
+        byte[] present = (flags & MISSING_TIMESTAMP) != 0 ? readBitmap(in, n) : null;
+        long previous = startTime;
+        for (int i = 0; i < n; i++) {
+            if (present != null && !isSet(present, i)) {
+                timestamps[i] = Stroke.NO_TIMESTAMP;
+            } else {
+                previous += in.readZigZag();
+                timestamps[i] = previous;
+            }
+        }
+
+        Stroke stroke = new Stroke(n)
+                .startTime((flags & HAS_START_TIME) != 0 ? startTime : null)
+                .endTime(endTime)
+                .metadata(metadata);
+
+        int packed = 0;
+        for (int i = 0; i < n; i++) {
+            DotType type = DotType.DOWN;
+            if ((flags & HAS_TYPES) != 0) {
+                if ((i & 3) == 0) {
+                    packed = in.readByte();
+                }
+                int code = (packed >>> ((i & 3) * 2)) & 3;
+                type = code == 0 ? null : DOT_TYPES[code - 1];
+            }
+            stroke.addDot(xs[i], ys[i], timestamps[i], type, pressures[i]);
+        }
+
+        if ((flags & HAS_DOT_METADATA) != 0) {
+            int count = in.readVarInt();
+            int index = 0;
+            for (int i = 0; i < count; i++) {
+                index += in.readVarInt();
+                if (index >= n) {
+                    throw new IOException("Invalid dot index in UHC binary data.");
+                }
+                stroke.setDot(index, stroke.getDot(index).metadata(readMetadata(in)));
+            }
+        }
+
+        return stroke;
+    }
+
+    private static double[] readColumn(BinaryInput in, int n, double scale, boolean missing) throws IOException {
+        double[] values = new double[n];
+        byte[] present = missing ? readBitmap(in, n) : null;
+        long previous = 0;
+        for (int i = 0; i < n; i++) {
+            if (present != null && !isSet(present, i)) {
+                values[i] = Double.NaN;
+            } else {
+                previous += in.readZigZag();
+                values[i] = previous / scale;
+            }
+        }
+        return values;
+    }
+
+    private static byte[] readBitmap(BinaryInput in, int n) throws IOException {
+        byte[] bitmap = new byte[(n + 7) / 8];
+        in.readBytes(bitmap);
+        return bitmap;
+    }
+
+    private static boolean isSet(byte[] bitmap, int i) {
+        return (bitmap[i >> 3] & (1 << (i & 7))) != 0;
+    }
+
+    private static Map<String, Object> readMetadata(BinaryInput in) throws IOException {
+        int size = in.readVarInt();
+        Map<String, Object> metadata = MetadataUtils.EMPTY;
+        for (int i = 0; i < size; i++) {
+            String key = in.readString();
+            metadata = MetadataUtils.put(metadata, key, readValue(in));
+        }
+        return metadata;
+    }
+
+    private static Object readValue(BinaryInput in) throws IOException {
+        int type = in.readByte();
+        switch (type) {
+            case NULL:
+                return null;
+            case STRING:
+                return in.readString();
+            case INTEGER:
+                return (int) in.readZigZag();
+            case LONG:
+                return in.readZigZag();
+            case DOUBLE:
+                return in.readDouble();
+            case FLOAT:
+                return (float) in.readDouble();
+            case BOOLEAN:
+                return in.readByte() != 0;
+            case BIG_DECIMAL:
+                return new BigDecimal(in.readString());
+            case ENUM:
+                return readEnum(in.readString(), in.readString());
+            case MAP:
+                return readMetadata(in);
+            case LIST:
+                int size = in.readVarInt();
+                List<Object> list = new ArrayList<>(Math.min(size, 1024));
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                return list;
+            default:
+                throw new IOException("Unknown metadata value type " + type + " in UHC binary data.");
+        }
+    }
+
+    /**
+     * Decode an enum constant, only if it belongs to one of the enums of the
+     * models (the class name comes from the data, so it must never be
+     * loaded as is). Other enums are decoded as their name.
+     */
+    private static Object readEnum(String className, String name) {
+        Class<? extends Enum<?>> enumClass = ENUMS.get(className);
+        if (enumClass != null) {
+            for (Enum<?> constant: enumClass.getEnumConstants()) {
+                if (constant.name().equals(name)) {
+                    return constant;
+                }
+            }
+        }
+        return name;
+    }
+}
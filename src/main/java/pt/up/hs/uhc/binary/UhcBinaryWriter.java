@@ -0,0 +1,318 @@
+package pt.up.hs.uhc.binary;
+
+import pt.up.hs.uhc.base.PageWriter;
+import pt.up.hs.uhc.exceptions.UniversalHandwritingConverterException;
+import pt.up.hs.uhc.models.DotType;
+import pt.up.hs.uhc.models.Page;
+import pt.up.hs.uhc.models.Stroke;
+import pt.up.hs.uhc.utils.MetadataUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.IntPredicate;
+import java.util.function.IntToDoubleFunction;
+
+import static pt.up.hs.uhc.binary.Constants.*;
+
+/**
+ * Writer of pages in the UHC binary format, a compact encoding of the
+ * {@link Page} model meant for interchange and caching.
+ *
+ * Coordinates and pressures are quantized to a fixed number of decimal
+ * places (by default, {@link pt.up.hs.uhc.base.Constants#WRITE_DOUBLE_PRECISION})
+ * and stored, column by column, as zig-zag varint deltas from the previous
+ * dot, as are timestamps. Missing values are kept in presence bitmaps, dot
+ * types are packed in two bits each, and metadata is stored with the type
+ * of each value. Page dimensions are stored as they are.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+public class UhcBinaryWriter implements PageWriter {
+
+    private static final int MAX_DECIMALS = 9;
+
+    private int decimals = pt.up.hs.uhc.base.Constants.WRITE_DOUBLE_PRECISION;
+
+    /**
+     * Set the number of decimal places kept for coordinates and pressures.
+     *
+     * @param decimals number of decimal places (0 to 9).
+     * @return {@link UhcBinaryWriter} this writer.
+     */
+    public UhcBinaryWriter decimals(int decimals) {
+        if (decimals < 0 || decimals > MAX_DECIMALS) {
+            throw new UniversalHandwritingConverterException("Decimal places must be between 0 and 9.");
+        }
+        this.decimals = decimals;
+        return this;
+    }
+
+    @Override
+    public void writeSingle(Page page, OutputStream os) throws Exception {
+        writeAll(Collections.singletonList(page).iterator(), os);
+    }
+
+    /**
+     * Write pages into a single file, as they are pulled from the iterator,
+     * followed by the index of the pages. The stream is flushed, but not
+     * closed.
+     *
+     * @param pages {@link Iterator} the pages (e.g., a
+     *              {@link pt.up.hs.uhc.base.PageSource}).
+     * @param os    {@link OutputStream} output stream.
+     * @return number of pages written.
+     * @throws IOException if the pages cannot be written.
+     */
+    public int writeAll(Iterator<Page> pages, OutputStream os) throws IOException {
+
+        BinaryOutput out = new BinaryOutput(os);
+        double scale = Math.pow(10, decimals);
+
+        // header
+        out.writeBytes(MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte(decimals);
+
+        long[] offsets = new long[16];
+        int count = 0;
+        while (pages.hasNext()) {
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            offsets[count++] = out.position();
+            writePage(out, pages.next(), scale);
+        }
+
+        // index
+        long indexOffset = out.position();
+        out.writeByte(INDEX);
+        out.writeVarLong(count);
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            out.writeVarLong(offsets[i] - previous);
+            previous = offsets[i];
+        }
+
+        // footer
+        out.writeLong(indexOffset);
+        out.writeBytes(INDEX_MAGIC);
+
+        out.flush();
+
+        return count;
+    }
+
+    private static void writePage(BinaryOutput out, Page page, double scale) throws IOException {
+
+        out.writeByte(PAGE);
+
+        Double[] dimensions = {
+                page.getWidth(), page.getHeight(),
+                page.getMarginLeft(), page.getMarginTop(),
+                page.getMarginRight(), page.getMarginBottom()
+        };
+        int flags = 0;
+        for (int i = 0; i < dimensions.length; i++) {
+            if (dimensions[i] != null) {
+                flags |= DIMENSION_FLAGS[i];
+            }
+        }
+        out.writeByte(flags);
+        for (Double dimension: dimensions) {
+            if (dimension != null) {
+                out.writeDouble(dimension);
+            }
+        }
+
+        writeMetadata(out, page.hasMetadata() ? page.getMetadata() : MetadataUtils.EMPTY);
+
+        out.writeVarLong(page.getStrokes().size());
+        for (Stroke stroke: page.getStrokes()) {
+            writeStroke(out, stroke, scale);
+        }
+    }
+
+    private static void writeStroke(BinaryOutput out, Stroke stroke, double scale) throws IOException {
+
+        int n = stroke.getDotCount();
+
+        int flags = 0;
+        if (stroke.getStartTime() != null) {
+            flags |= HAS_START_TIME;
+        }
+        if (stroke.getEndTime() != null) {
+            flags |= HAS_END_TIME;
+        }
+        int dotsWithMetadata = 0;
+        for (int i = 0; i < n; i++) {
+            if (Double.isNaN(stroke.getX(i))) {
+                flags |= MISSING_X;
+            }
+            if (Double.isNaN(stroke.getY(i))) {
+                flags |= MISSING_Y;
+            }
+            if (Double.isNaN(stroke.getPressure(i))) {
+                flags |= MISSING_PRESSURE;
+            }
+            if (stroke.getTimestamp(i) == Stroke.NO_TIMESTAMP) {
+                flags |= MISSING_TIMESTAMP;
+            }
+            if (stroke.getType(i) != DotType.DOWN) {
+                flags |= HAS_TYPES;
+            }
+            Map<String, Object> metadata = stroke.getDotMetadata(i);
+            if (metadata != null && !metadata.isEmpty()) {
+                flags |= HAS_DOT_METADATA;
+                dotsWithMetadata++;
+            }
+        }
+        out.writeByte(flags);
+
+        long startTime = 0L;
+        if (stroke.getStartTime() != null) {
+            startTime = stroke.getStartTime();
+            out.writeZigZag(startTime);
+        }
+        if (stroke.getEndTime() != null) {
+            out.writeZigZag(stroke.getEndTime() - startTime);
+        }
+
+        writeMetadata(out, stroke.hasMetadata() ? stroke.getMetadata() : MetadataUtils.EMPTY);
+
+        out.writeVarLong(n);
+
+        writeColumn(out, n, stroke::getX, scale, (flags & MISSING_X) != 0);
+        writeColumn(out, n, stroke::getY, scale, (flags & MISSING_Y) != 0);
+        writeColumn(out, n, stroke::getPressure, scale, (flags & MISSING_PRESSURE) != 0);
+
+        // timestamps, relative to the start of the stroke
+        if ((flags & MISSING_TIMESTAMP) != 0) {
+            writeBitmap(out, n, i -> stroke.getTimestamp(i) != Stroke.NO_TIMESTAMP);
+        }
+        long previous = startTime;
+        for (int i = 0; i < n; i++) {
+            long timestamp = stroke.getTimestamp(i);
+            if (timestamp != Stroke.NO_TIMESTAMP) {
+                out.writeZigZag(timestamp - previous);
+                previous = timestamp;
+            }
+        }
+
+        // types, two bits each (0 is no type)
+        if ((flags & HAS_TYPES) != 0) {
+            int packed = 0;
+            for (int i = 0; i < n; i++) {
+                DotType type = stroke.getType(i);
+                packed |= (type == null ? 0 : type.ordinal() + 1) << ((i & 3) * 2);
+                if ((i & 3) == 3 || i == n - 1) {
+                    out.writeByte(packed);
+                    packed = 0;
+                }
+            }
+        }
+
+        if ((flags & HAS_DOT_METADATA) != 0) {
+            out.writeVarLong(dotsWithMetadata);
+            int last = 0;
+            for (int i = 0; i < n; i++) {
+                Map<String, Object> metadata = stroke.getDotMetadata(i);
+                if (metadata != null && !metadata.isEmpty()) {
+                    out.writeVarLong(i - last);
+                    writeMetadata(out, metadata);
+                    last = i;
+                }
+            }
+        }
+    }
+
+    private static void writeColumn(
+            BinaryOutput out, int n, IntToDoubleFunction column, double scale, boolean missing
+    ) throws IOException {
+        if (missing) {
+            writeBitmap(out, n, i -> !Double.isNaN(column.applyAsDouble(i)));
+        }
+        long previous = 0;
+        for (int i = 0; i < n; i++) {
+            double value = column.applyAsDouble(i);
+            if (!Double.isNaN(value)) {
+                long quantized = Math.round(value * scale);
+                out.writeZigZag(quantized - previous);
+                previous = quantized;
+            }
+        }
+    }
+
+    private static void writeBitmap(BinaryOutput out, int n, IntPredicate present) throws IOException {
+        int bits = 0;
+        for (int i = 0; i < n; i++) {
+            if (present.test(i)) {
+                bits |= 1 << (i & 7);
+            }
+            if ((i & 7) == 7 || i == n - 1) {
+                out.writeByte(bits);
+                bits = 0;
+            }
+        }
+    }
+
+    private static void writeMetadata(BinaryOutput out, Map<?, ?> metadata) throws IOException {
+        if (metadata == null) {
+            out.writeVarLong(0);
+            return;
+        }
+        out.writeVarLong(metadata.size());
+        for (Map.Entry<?, ?> entry: metadata.entrySet()) {
+            out.writeString(String.valueOf(entry.getKey()));
+            writeValue(out, entry.getValue());
+        }
+    }
+
+    private static void writeValue(BinaryOutput out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            out.writeString((String) value);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            out.writeByte(INTEGER);
+            out.writeZigZag(((Number) value).intValue());
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeZigZag((Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte(FLOAT);
+            out.writeDouble((Float) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeByte((Boolean) value ? 1 : 0);
+        } else if (value instanceof BigDecimal) {
+            out.writeByte(BIG_DECIMAL);
+            out.writeString(value.toString());
+        } else if (value instanceof Enum) {
+            out.writeByte(ENUM);
+            out.writeString(((Enum<?>) value).getDeclaringClass().getName());
+            out.writeString(((Enum<?>) value).name());
+        } else if (value instanceof Map) {
+            out.writeByte(MAP);
+            writeMetadata(out, (Map<?, ?>) value);
+        } else if (value instanceof Collection) {
+            out.writeByte(LIST);
+            out.writeVarLong(((Collection<?>) value).size());
+            for (Object item: (Collection<?>) value) {
+                writeValue(out, item);
+            }
+        } else {
+            throw new UniversalHandwritingConverterException(
+                    "Metadata values of type " + value.getClass().getName() + " are not supported.");
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package pt.up.hs.uhc.csv;
+
+import pt.up.hs.uhc.base.Constants;
+import pt.up.hs.uhc.base.PageWriter;
+import pt.up.hs.uhc.models.DotType;
+import pt.up.hs.uhc.models.Page;
+import pt.up.hs.uhc.models.Stroke;
+import pt.up.hs.uhc.utils.NumberUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+/**
+ * Writer of dots as CSV, one row per dot.
+ *
+ * Rows are streamed through a buffer flushed to the output in chunks, and
+ * decimals are appended directly (see
+ * {@link NumberUtils#appendDecimal(StringBuilder, double, int)}), without
+ * building strings per value. Missing values (e.g., a dot without
+ * pressure) are left empty. Since all values are numbers or dot types, no
+ * field needs quoting.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+public class CsvWriter implements PageWriter {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Columns which can be written.
+     */
+    public enum Column {
+        X("x"),
+        Y("y"),
+        TIMESTAMP("timestamp"),
+        PRESSURE("pressure"),
+        TYPE("type"),
+        STROKE("stroke"),
+        PAGE("page");
+
+        private final String header;
+
+        Column(String header) {
+            this.header = header;
+        }
+
+        public String getHeader() {
+            return header;
+        }
+    }
+
+    private Column[] columns = { Column.X, Column.Y, Column.TIMESTAMP };
+    private int precision = Constants.WRITE_DOUBLE_PRECISION;
+    private char separator = ',';
+    private boolean header = true;
+
+    /**
+     * Set the columns to write, in order (default: x, y and timestamp).
+     *
+     * @param columns {@link Column}s to write.
+     * @return {@link CsvWriter} this writer.
+     */
+    public CsvWriter columns(Column... columns) {
+        if (columns.length == 0) {
+            throw new IllegalArgumentException("At least one column is required.");
+        }
+        this.columns = columns.clone();
+        return this;
+    }
+
+    /**
+     * Set the number of decimal places of coordinates and pressure (default:
+     * {@link Constants#WRITE_DOUBLE_PRECISION}).
+     *
+     * @param precision number of decimal places (0 to 8).
+     * @return {@link CsvWriter} this writer.
+     */
+    public CsvWriter precision(int precision) {
+        if (precision < 0 || precision > 8) {
+            throw new IllegalArgumentException("Precision must be between 0 and 8.");
+        }
+        this.precision = precision;
+        return this;
+    }
+
+    /**
+     * Set the separator of fields (default: {@code ','}).
+     *
+     * @param separator ASCII separator of fields.
+     * @return {@link CsvWriter} this writer.
+     */
+    public CsvWriter separator(char separator) {
+        if (separator > 127) {
+            throw new IllegalArgumentException("Separator must be an ASCII character.");
+        }
+        this.separator = separator;
+        return this;
+    }
+
+    public CsvWriter header(boolean header) {
+        this.header = header;
+        return this;
+    }
+
+    @Override
+    public void writeSingle(Page page, OutputStream os) throws Exception {
+        Emitter emitter = new Emitter(os);
+        if (header) {
+            emitter.header();
+        }
+        emitter.page(page, 0);
+        emitter.flush();
+        os.flush();
+    }
+
+    /**
+     * Write all pages as a single CSV, as they are pulled from the iterator,
+     * numbering them in order (see {@link Column#PAGE}). The stream is
+     * flushed, but not closed.
+     *
+     * @param pages {@link Iterator} the pages (e.g., a
+     *              {@link pt.up.hs.uhc.base.PageSource}).
+     * @param os    {@link OutputStream} output stream.
+     * @return number of pages written.
+     * @throws IOException if the pages cannot be written.
+     */
+    public int writeAll(Iterator<Page> pages, OutputStream os) throws IOException {
+        Emitter emitter = new Emitter(os);
+        if (header) {
+            emitter.header();
+        }
+        int count = 0;
+        while (pages.hasNext()) {
+            emitter.page(pages.next(), count++);
+        }
+        emitter.flush();
+        os.flush();
+        return count;
+    }
+
+    /**
+     * Emitter of the rows of pages into an {@link OutputStream}. Output is
+     * ASCII, so characters are copied straight into bytes.
+     */
+    private class Emitter {
+
+        private final OutputStream os;
+        private final StringBuilder sb = new StringBuilder(BUFFER_SIZE + 256);
+        private byte[] bytes = new byte[BUFFER_SIZE + 256];
+
+        private Emitter(OutputStream os) {
+            this.os = os;
+        }
+
+        private void header() {
+            for (int c = 0; c < columns.length; c++) {
+                if (c > 0) {
+                    sb.append(separator);
+                }
+                sb.append(columns[c].getHeader());
+            }
+            sb.append('\n');
+        }
+
+        private void page(Page page, int pageIndex) throws IOException {
+            int strokeIndex = 0;
+            for (Stroke stroke: page.getStrokes()) {
+                for (int i = 0; i < stroke.getDotCount(); i++) {
+                    row(stroke, i, strokeIndex, pageIndex);
+                    if (sb.length() >= BUFFER_SIZE) {
+                        flush();
+                    }
+                }
+                strokeIndex++;
+            }
+        }
+
+        private void row(Stroke stroke, int i, int strokeIndex, int pageIndex) {
+            for (int c = 0; c < columns.length; c++) {
+                if (c > 0) {
+                    sb.append(separator);
+                }
+                switch (columns[c]) {
+                    case X:
+                        number(stroke.getX(i));
+                        break;
+                    case Y:
+                        number(stroke.getY(i));
+                        break;
+                    case TIMESTAMP:
+                        long timestamp = stroke.getTimestamp(i);
+                        if (timestamp != Stroke.NO_TIMESTAMP) {
+                            sb.append(timestamp);
+                        }
+                        break;
+                    case PRESSURE:
+                        number(stroke.getPressure(i));
+                        break;
+                    case TYPE:
+                        DotType type = stroke.getType(i);
+                        if (type != null) {
+                            sb.append(type.name());
+                        }
+                        break;
+                    case STROKE:
+                        sb.append(strokeIndex);
+                        break;
+                    case PAGE:
+                        sb.append(pageIndex);
+                        break;
+                }
+            }
+            sb.append('\n');
+        }
+
+        private void number(double value) {
+            if (!Double.isNaN(value)) {
+                NumberUtils.appendDecimal(sb, value, precision);
+            }
+        }
+
+        private void flush() throws IOException {
+            int length = sb.length();
+            if (bytes.length < length) {
+                bytes = new byte[length];
+            }
+            for (int i = 0; i < length; i++) {
+                bytes[i] = (byte) sb.charAt(i);
+            }
+            os.write(bytes, 0, length);
+            sb.setLength(0);
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package pt.up.hs.uhc.generator;
+
+import pt.up.hs.uhc.binary.UhcBinaryWriter;
+import pt.up.hs.uhc.exceptions.UnsupportedFormatException;
+import pt.up.hs.uhc.handspy.HandSpyWriter;
+import pt.up.hs.uhc.handspy.legacy.HandSpyLegacyWriter;
+import pt.up.hs.uhc.inkml.InkMLWriter;
+import pt.up.hs.uhc.models.DotType;
+import pt.up.hs.uhc.models.Format;
+import pt.up.hs.uhc.models.Page;
+import pt.up.hs.uhc.models.Stroke;
+import pt.up.hs.uhc.svg.SvgWriter;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generator of synthetic handwriting, for load tests and benchmarks.
+ *
+ * Pages are filled with lines of "words", each word being a stroke that
+ * wanders left to right with a smooth random walk. Generation is
+ * deterministic: the same seed and settings always produce the same pages,
+ * and each page only depends on the seed and its index (so any page can be
+ * generated on its own).
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+public class CorpusGenerator {
+
+    public static final double PAGE_WIDTH = 210D;
+    public static final double PAGE_HEIGHT = 297D;
+
+    private static final double MARGIN = 20D;
+    private static final double LINE_HEIGHT = 8D;
+    private static final double STEP = 0.25D;
+    private static final long DOT_INTERVAL = 13L;
+    private static final long PEN_UP_INTERVAL = 250L;
+    private static final long START_TIME = 1576500142905L;
+
+    private long seed = 0L;
+    private int pages = 1;
+    private int strokes = 50;
+    private int dots = 100;
+    private int metadata = 0;
+
+    public CorpusGenerator() {
+    }
+
+    public CorpusGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    public CorpusGenerator seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public CorpusGenerator pages(int pages) {
+        this.pages = pages;
+        return this;
+    }
+
+    public CorpusGenerator strokes(int strokes) {
+        this.strokes = strokes;
+        return this;
+    }
+
+    public CorpusGenerator dots(int dots) {
+        this.dots = dots;
+        return this;
+    }
+
+    /**
+     * Set the metadata density, i.e., the number of extra metadata entries
+     * added to each page and stroke.
+     *
+     * @param metadata number of extra metadata entries.
+     * @return {@link CorpusGenerator} this generator.
+     */
+    public CorpusGenerator metadata(int metadata) {
+        this.metadata = metadata;
+        return this;
+    }
+
+    /**
+     * Generate all the pages.
+     *
+     * @return {@link List} generated pages.
+     */
+    public List<Page> generatePages() {
+        List<Page> result = new ArrayList<>(pages);
+        for (int i = 0; i < pages; i++) {
+            result.add(generatePage(i));
+        }
+        return result;
+    }
+
+    /**
+     * Generate the page with the given index.
+     *
+     * @param index index of the page.
+     * @return {@link Page} generated page.
+     */
+    public Page generatePage(int index) {
+
+        Random random = new Random(seed * 31L + index);
+
+        Page page = new Page(PAGE_WIDTH, PAGE_HEIGHT)
+                .addMetadataId(String.format("synthetic-%d-%d", seed, index))
+                .addMetadataPageNo(index);
+        for (int m = 0; m < metadata; m++) {
+            page.addMetadata("meta" + m, random.nextInt());
+        }
+
+        double x = MARGIN;
+        double y = MARGIN + LINE_HEIGHT;
+        long time = START_TIME + index * 3600000L;
+
+        for (int s = 0; s < strokes; s++) {
+
+            Stroke stroke = new Stroke(dots);
+            for (int m = 0; m < metadata; m++) {
+                stroke.addMetadata("meta" + m, random.nextInt());
+            }
+
+            stroke.setStartTime(time);
+
+            double angle = random.nextGaussian() * 0.5D;
+            double wx = x;
+            double wy = y - random.nextDouble() * LINE_HEIGHT / 2;
+            for (int d = 0; d < dots; d++) {
+
+                angle += random.nextGaussian() * 0.6D;
+                wx += STEP * (0.5D + Math.abs(Math.cos(angle)));
+                wy += STEP * Math.sin(angle);
+
+                // keep the pen within its line and the content area
+                wy = Math.max(y - LINE_HEIGHT + 1D, Math.min(y, wy));
+                wx = Math.min(PAGE_WIDTH - MARGIN, wx);
+
+                DotType type = d == 0 ? DotType.DOWN : (d == dots - 1 ? DotType.UP : DotType.MOVE);
+                double pressure = 0.3D + 0.6D * random.nextDouble();
+                stroke.addDot(wx, wy, time, type, pressure);
+
+                time += DOT_INTERVAL;
+            }
+
+            stroke.setEndTime(dots > 0 ? time - DOT_INTERVAL : time);
+            page.addStroke(stroke);
+
+            time += PEN_UP_INTERVAL + random.nextInt((int) PEN_UP_INTERVAL);
+
+            // next word or line
+            x = wx + 2D + random.nextDouble() * 3D;
+            if (x > PAGE_WIDTH - MARGIN - 20D) {
+                x = MARGIN;
+                y += LINE_HEIGHT;
+                if (y > PAGE_HEIGHT - MARGIN) {
+                    y = MARGIN + LINE_HEIGHT;
+                }
+            }
+        }
+
+        return page;
+    }
+
+    /**
+     * Write a page in a given format. Neo Notes pages are written as the
+     * contents of a "page.data" file.
+     *
+     * @param page   {@link Page} the page.
+     * @param index  index of the page (used by some formats).
+     * @param format {@link Format} the format.
+     * @param os     {@link OutputStream} output stream.
+     * @throws Exception if the page cannot be written.
+     */
+    public void write(Page page, int index, Format format, OutputStream os) throws Exception {
+        switch (format) {
+            case NEONOTES:
+                os.write(NeoNotesEncoder.encode(page, index));
+                break;
+            case HANDSPY:
+                new HandSpyWriter().writeSingle(page, os);
+                break;
+            case HANDSPY_LEGACY:
+                new HandSpyLegacyWriter().writeSingle(page, os);
+                break;
+            case INKML:
+                new InkMLWriter().writeSingle(page, os);
+                break;
+            case SVG:
+                new SvgWriter().writeSingle(page, os);
+                break;
+            case UHC_BINARY:
+                new UhcBinaryWriter().writeSingle(page, os);
+                break;
+            default:
+                throw new UnsupportedFormatException();
+        }
+    }
+
+    /**
+     * Write all the pages as a Neo Notes archive.
+     *
+     * @param os {@link OutputStream} output stream.
+     * @throws IOException if the archive cannot be written.
+     */
+    public void writeNeoNotesArchive(OutputStream os) throws IOException {
+        NeoNotesEncoder.encodeArchive(generatePages(), os);
+    }
+
+    /**
+     * Write all the pages as Livescribe InkML (as embedded in Livescribe
+     * PDFs), one trace group per page.
+     *
+     * @param os {@link OutputStream} output stream.
+     * @throws IOException if the document cannot be written.
+     */
+    public void writeLivescribeInkML(OutputStream os) throws IOException {
+        LsInkMLEncoder.encode(generatePages(), os);
+    }
+
+    /**
+     * Write the corpus into a directory: each page in every single-page
+     * format ({@code page-N.data}, {@code page-N.json}, {@code page-N.xml},
+     * {@code page-N.inkml} and {@code page-N.uhcb}), plus all pages as a
+     * Neo Notes archive ({@code corpus.neonotes.zip}) and as Livescribe
+     * InkML ({@code corpus.ls.inkml}).
+     *
+     * @param dir {@link Path} output directory.
+     * @throws Exception if the corpus cannot be written.
+     */
+    public void writeFiles(Path dir) throws Exception {
+
+        Files.createDirectories(dir);
+
+        Format[] formats = { Format.NEONOTES, Format.HANDSPY, Format.HANDSPY_LEGACY, Format.INKML, Format.UHC_BINARY };
+        String[] extensions = { "data", "json", "xml", "inkml", "uhcb" };
+
+        for (int i = 0; i < pages; i++) {
+            Page page = generatePage(i);
+            for (int f = 0; f < formats.length; f++) {
+                Path file = dir.resolve(String.format("page-%d.%s", i, extensions[f]));
+                try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(file))) {
+                    write(page, i, formats[f], os);
+                }
+            }
+        }
+
+        try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(dir.resolve("corpus.neonotes.zip")))) {
+            writeNeoNotesArchive(os);
+        }
+
+        try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(dir.resolve("corpus.ls.inkml")))) {
+            writeLivescribeInkML(os);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package pt.up.hs.uhc.generator;
+
+import pt.up.hs.uhc.models.LengthUnit;
+import pt.up.hs.uhc.models.Page;
+import pt.up.hs.uhc.models.Stroke;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Encoder of pages as the InkML embedded in Livescribe PDFs (as read by
+ * {@link pt.up.hs.uhc.lspdf.LsInkMLReader}), used to produce synthetic
+ * Livescribe InkML. Coordinates are quantized to (delta-encoded) integer
+ * Anoto units and dots are assumed to be sampled at {@link #SAMPLE_RATE} Hz.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+class LsInkMLEncoder {
+
+    static final int SAMPLE_RATE = 75;
+
+    private static final double ANOTO = LengthUnit.ANOTO.getMmRate();
+
+    /**
+     * Encode pages as a Livescribe InkML document, one trace group per page.
+     *
+     * @param pages {@link List} the pages.
+     * @param os    {@link OutputStream} output stream.
+     * @throws IOException if the document cannot be written.
+     */
+    static void encode(List<Page> pages, OutputStream os) throws IOException {
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.ISO_8859_1));
+
+        writer.write("<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?>");
+        writer.write("<ink xmlns=\"http://www.w3.org/2003/InkML\">");
+        writer.write("<inkSource manufacturer=\"Livescribe\" model=\"3\" serialNo=\"0000000000000\" xml:id=\"Synthetic\">");
+        writer.write("<sampleRate uniform=\"true\" value=\"" + SAMPLE_RATE + "\"/>");
+        writer.write("<traceFormat>");
+        writer.write("<channel name=\"X\" type=\"integer\" units=\"anoto\"/>");
+        writer.write("<channel name=\"Y\" type=\"integer\" units=\"anoto\"/>");
+        writer.write("</traceFormat>");
+        writer.write("</inkSource>");
+
+        for (int p = 0; p < pages.size(); p++) {
+            Page page = pages.get(p);
+            List<Stroke> strokes = page.getStrokes();
+
+            long width = Math.round(page.getWidth() / ANOTO);
+            long height = Math.round(page.getHeight() / ANOTO);
+            long baseTime = strokes.isEmpty() ? 0L : strokes.get(0).getStartTime();
+
+            writer.write("<traceGroup xml:id=\"" + (1000000000000000L + p) + "\">");
+            writer.write("<activeArea cropBounds=\"{(0, 0), (" + width + ", " + height + ")}\"" +
+                    " mediaSize=\"(" + width + ", " + height + ")\"" +
+                    " pageIndex=\"" + p + "\" units=\"anoto\"/>");
+            writer.write("<timestamp time=\"" + baseTime + "\" xml:id=\"ts" + p + "\"/>");
+
+            for (Stroke stroke: strokes) {
+                writer.write("<trace contextRef=\"#ts" + p + "\" timeOffset=\"" + (stroke.getStartTime() - baseTime) + "\">");
+                long lastX = 0;
+                long lastY = 0;
+                for (int i = 0; i < stroke.getDotCount(); i++) {
+                    long x = Math.round(stroke.getX(i) / ANOTO);
+                    long y = Math.round(stroke.getY(i) / ANOTO);
+                    if (i > 0) {
+                        writer.write(", ");
+                    }
+                    writer.write(Long.toString(x - lastX));
+                    writer.write(' ');
+                    writer.write(Long.toString(y - lastY));
+                    lastX = x;
+                    lastY = y;
+                }
+                writer.write("</trace>");
+            }
+
+            writer.write("</traceGroup>");
+        }
+
+        writer.write("</ink>");
+        writer.flush();
+    }
+}
@@ -0,0 +1,117 @@
+package pt.up.hs.uhc.generator;
+
+import pt.up.hs.uhc.models.Page;
+import pt.up.hs.uhc.models.Stroke;
+import pt.up.hs.uhc.neonotes.Constants;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Encoder of pages in the Neo Notes binary format (the inverse of
+ * {@link pt.up.hs.uhc.neonotes.NeoNotesReader}), used to produce synthetic
+ * Neo Notes files. Coordinates are quantized to float NCode units and time
+ * differences between dots are clamped to one byte, as in the format.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+class NeoNotesEncoder {
+
+    // note type with a known paper size (see NCodePaperSize)
+    static final int NOTE_TYPE = 3;
+
+    private static final byte[] ID = "neo".getBytes(StandardCharsets.US_ASCII);
+    private static final int VERSION = 5;
+
+    private static final int HEADER_SIZE = 3 + 6 * 4 + 2 * 8 + 1;
+    private static final int STROKE_HEADER_SIZE = 1 + 4 + 1 + 4 + 8 + 1;
+    private static final int DOT_SIZE = 3 * 4 + 1;
+
+    /**
+     * Encode a page as the contents of a "page.data" file.
+     *
+     * @param page   {@link Page} the page.
+     * @param pageNo number of the page.
+     * @return {@code byte[]} encoded page.
+     */
+    static byte[] encode(Page page, int pageNo) {
+
+        List<Stroke> strokes = page.getStrokes();
+
+        byte[] guid = String.format("synthetic-%08d", pageNo).getBytes(StandardCharsets.US_ASCII);
+
+        int size = HEADER_SIZE + 4 + guid.length;
+        for (Stroke stroke: strokes) {
+            size += STROKE_HEADER_SIZE + stroke.getDotCount() * DOT_SIZE;
+        }
+
+        ByteBuffer data = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+
+        long createdTime = strokes.isEmpty() ? 0L : strokes.get(0).getStartTime();
+        long modifiedTime = strokes.isEmpty() ? 0L : strokes.get(strokes.size() - 1).getEndTime();
+
+        // header
+        data.put(ID);
+        data.putInt(VERSION);
+        data.putInt(NOTE_TYPE);
+        data.putInt(pageNo);
+        data.putFloat((float) (page.getWidth() / Constants.NCODE_COORDINATES_TO_MM_FACTOR));
+        data.putFloat((float) (page.getHeight() / Constants.NCODE_COORDINATES_TO_MM_FACTOR));
+        data.putLong(createdTime);
+        data.putLong(modifiedTime);
+        data.put((byte) 0);
+        data.putInt(strokes.size());
+
+        // strokes
+        for (Stroke stroke: strokes) {
+            data.put((byte) 0);
+            data.putInt(0xFF191919);
+            data.put((byte) 0);
+            data.putInt(stroke.getDotCount());
+            data.putLong(stroke.getStartTime());
+
+            long time = stroke.getStartTime();
+            for (int i = 0; i < stroke.getDotCount(); i++) {
+                data.putFloat((float) (stroke.getX(i) / Constants.NCODE_COORDINATES_TO_MM_FACTOR));
+                data.putFloat((float) (stroke.getY(i) / Constants.NCODE_COORDINATES_TO_MM_FACTOR));
+                double pressure = stroke.getPressure(i);
+                data.putFloat(Double.isNaN(pressure) ? 0F : (float) pressure);
+                long timeDiff = Math.max(0L, Math.min(0xFF, stroke.getTimestamp(i) - time));
+                data.put((byte) timeDiff);
+                time += timeDiff;
+            }
+
+            // no extra data
+            data.put((byte) 0);
+        }
+
+        // GUID
+        data.putInt(guid.length);
+        data.put(guid);
+
+        return data.array();
+    }
+
+    /**
+     * Encode pages as a Neo Notes archive (zip).
+     *
+     * @param pages {@link List} the pages.
+     * @param os    {@link OutputStream} output stream.
+     * @throws IOException if the archive cannot be written.
+     */
+    static void encodeArchive(List<Page> pages, OutputStream os) throws IOException {
+        ZipOutputStream zos = new ZipOutputStream(os);
+        for (int i = 0; i < pages.size(); i++) {
+            zos.putNextEntry(new ZipEntry(String.format("Data/%04d.page_store/page.data", i)));
+            zos.write(encode(pages.get(i), i));
+            zos.closeEntry();
+        }
+        zos.finish();
+    }
+}
@@ -1,12 +1,9 @@
 package pt.up.hs.uhc.handspy;
 
-import com.github.cliftonlabs.json_simple.JsonArray;
-import com.github.cliftonlabs.json_simple.JsonObject;
-import com.github.cliftonlabs.json_simple.Jsoner;
-import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import pt.up.hs.uhc.base.AbstractPageSource;
 import pt.up.hs.uhc.base.BaseArchiveReader;
 import pt.up.hs.uhc.base.PageReader;
-import pt.up.hs.uhc.exceptions.UnsupportedFormatException;
+import pt.up.hs.uhc.base.PageSource;
 import pt.up.hs.uhc.handspy.keys.DotKeys;
 import pt.up.hs.uhc.handspy.keys.PageKeys;
 import pt.up.hs.uhc.handspy.keys.StrokeKeys;
@@ -14,85 +11,263 @@ import pt.up.hs.uhc.models.Dot;
 import pt.up.hs.uhc.models.DotType;
 import pt.up.hs.uhc.models.Page;
 import pt.up.hs.uhc.models.Stroke;
+import pt.up.hs.uhc.utils.JsonPullParser;
+import pt.up.hs.uhc.utils.MetadataUtils;
+import pt.up.hs.uhc.utils.NumberUtils;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.zip.ZipInputStream;
+import java.util.Map;
 
 /**
  * Reader for HandSpy JSON pages.
  *
+ * Pages are read with a {@link JsonPullParser}, filling the model as tokens
+ * arrive, instead of deserializing the whole document into a tree of JSON
+ * objects first. Metadata is still read as json-simple values (numbers as
+ * {@link java.math.BigDecimal}).
+ *
+ * Besides single pages, zip and tar archives of ".json" pages and
+ * newline-delimited JSON (one page per line) can be read.
+ *
  * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
  */
 public class HandSpyReader extends BaseArchiveReader implements PageReader {
 
+    private static final DotType[] DOT_TYPES = DotType.values();
+
     @Override
     public Page readSingle(File file) throws Exception {
-        return readSingle(new FileInputStream(file));
+        try (InputStream is = new FileInputStream(file)) {
+            return readSingle(is);
+        }
     }
 
     @Override
     public Page readSingle(InputStream is) throws Exception {
+        JsonPullParser parser = new JsonPullParser(new InputStreamReader(is));
+        return readPage(parser);
+    }
 
-        InputStreamReader isr = new InputStreamReader(is);
-
-        JsonObject parser = (JsonObject) Jsoner.deserialize(isr);
+    /**
+     * Open newline-delimited HandSpy JSON (NDJSON), where each line holds a
+     * page, as a {@link PageSource}. Pages are read one at a time, as they
+     * are requested.
+     *
+     * @param is {@link InputStream} to the NDJSON pages.
+     * @return {@link PageSource} source of the pages.
+     */
+    public PageSource openLines(InputStream is) {
+        JsonPullParser parser = new JsonPullParser(new InputStreamReader(is));
+        return new AbstractPageSource() {
 
-        Page page = new Page()
-                .width(parser.getDoubleOrDefault(PageKeys.WIDTH))
-                .height(parser.getDoubleOrDefault(PageKeys.HEIGHT))
-                .metadata(parser.getMapOrDefault(PageKeys.METADATA));
+            @Override
+            protected Page readNext() throws Exception {
+                if (parser.peek() == JsonPullParser.Token.END_DOCUMENT) {
+                    return null;
+                }
+                return readPage(parser);
+            }
 
-        JsonArray strokesJson = parser
-                .getCollectionOrDefault(PageKeys.STROKES);
-        strokesJson.forEach(strokeJson ->
-                        page.addStroke(
-                                readStrokeJson((JsonObject) strokeJson)
-                        ));
+            @Override
+            protected void closeSource() throws Exception {
+                parser.close();
+            }
+        };
+    }
 
-        return page;
+    /**
+     * Read all pages of newline-delimited HandSpy JSON (NDJSON), where each
+     * line holds a page.
+     *
+     * @param is {@link InputStream} to the NDJSON pages.
+     * @return {@link List} the pages.
+     */
+    public List<Page> readLines(InputStream is) {
+        List<Page> pages = new ArrayList<>();
+        try (PageSource source = openLines(is)) {
+            source.forEachRemaining(pages::add);
+        }
+        return pages;
     }
 
     @Override
-    public List<Page> readArchive(ZipInputStream zis) {
-        throw new UnsupportedFormatException();
+    protected boolean isPageEntry(String name) {
+        return name.toLowerCase().endsWith(".json");
     }
 
     @Override
-    public List<Page> readArchive(TarArchiveInputStream tais) {
-        throw new UnsupportedFormatException();
+    protected Page readPageEntry(byte[] bytes) throws Exception {
+        return readSingle(new ByteArrayInputStream(bytes));
     }
 
-    private Stroke readStrokeJson(JsonObject strokeJson) {
+    /**
+     * Read a page from the tokens of its JSON object, straight into the
+     * model (dots go directly into the columns of the strokes).
+     *
+     * @param parser {@link JsonPullParser} the parser.
+     * @return {@link Page} the page.
+     * @throws IOException if the page cannot be read.
+     */
+    private Page readPage(JsonPullParser parser) throws IOException {
+
+        Page page = new Page()
+                .width(0D)
+                .height(0D);
+
+        parser.beginObject();
+        while (parser.hasNext()) {
+            String name = parser.nextName();
+            if (PageKeys.WIDTH.getKey().equals(name)) {
+                page.setWidth(readDouble(parser));
+            } else if (PageKeys.HEIGHT.getKey().equals(name)) {
+                page.setHeight(readDouble(parser));
+            } else if (PageKeys.METADATA.getKey().equals(name)) {
+                page.setMetadata(readMetadata(parser));
+            } else if (PageKeys.STROKES.getKey().equals(name)) {
+                if (parser.peek() == JsonPullParser.Token.NULL) {
+                    parser.nextNull();
+                    continue;
+                }
+                parser.beginArray();
+                while (parser.hasNext()) {
+                    page.addStroke(readStroke(parser));
+                }
+                parser.endArray();
+            } else {
+                parser.skipValue();
+            }
+        }
+        parser.endObject();
+
+        return page;
+    }
+
+    private Stroke readStroke(JsonPullParser parser) throws IOException {
 
         Stroke stroke = new Stroke()
-                .startTime(strokeJson.getLongOrDefault(StrokeKeys.START_TIME))
-                .endTime(strokeJson.getLongOrDefault(StrokeKeys.END_TIME))
-                .metadata(strokeJson.getMapOrDefault(StrokeKeys.METADATA));
+                .startTime(0L)
+                .endTime(0L);
 
-        JsonArray dotsJson = strokeJson
-                .getCollectionOrDefault(StrokeKeys.DOTS);
-        dotsJson.forEach(dotJson ->
-                        stroke.addDot(
-                                readDotJson((JsonObject) dotJson)
-                        ));
+        parser.beginObject();
+        while (parser.hasNext()) {
+            String name = parser.nextName();
+            if (StrokeKeys.START_TIME.getKey().equals(name)) {
+                stroke.setStartTime(readLong(parser));
+            } else if (StrokeKeys.END_TIME.getKey().equals(name)) {
+                stroke.setEndTime(readLong(parser));
+            } else if (StrokeKeys.METADATA.getKey().equals(name)) {
+                stroke.setMetadata(readMetadata(parser));
+            } else if (StrokeKeys.DOTS.getKey().equals(name)) {
+                if (parser.peek() == JsonPullParser.Token.NULL) {
+                    parser.nextNull();
+                    continue;
+                }
+                parser.beginArray();
+                while (parser.hasNext()) {
+                    readDot(parser, stroke);
+                }
+                parser.endArray();
+            } else {
+                parser.skipValue();
+            }
+        }
+        parser.endObject();
 
         return stroke;
     }
 
-    private Dot readDotJson(JsonObject dotJson) {
-
-        return new Dot()
-                .x(dotJson.getDoubleOrDefault(DotKeys.X))
-                .y(dotJson.getDoubleOrDefault(DotKeys.Y))
-                .timestamp(dotJson.getLongOrDefault(DotKeys.TIMESTAMP))
-                .pressure(dotJson.getDoubleOrDefault(DotKeys.PRESSURE))
-                .type(DotType.valueOf(
-                        dotJson.getStringOrDefault(DotKeys.TYPE).toUpperCase()
-                ))
-                .metadata(dotJson.getMapOrDefault(DotKeys.METADATA));
+    private void readDot(JsonPullParser parser, Stroke stroke) throws IOException {
+
+        // absent values take the defaults of the keys, null values are missing
+        double x = 0D;
+        double y = 0D;
+        double pressure = 0D;
+        long timestamp = 0L;
+        DotType type = DotType.DOWN;
+        Map<String, Object> metadata = null;
+
+        parser.beginObject();
+        while (parser.hasNext()) {
+            String name = parser.nextName();
+            if (DotKeys.X.getKey().equals(name)) {
+                x = NumberUtils.nullToNaN(readDouble(parser));
+            } else if (DotKeys.Y.getKey().equals(name)) {
+                y = NumberUtils.nullToNaN(readDouble(parser));
+            } else if (DotKeys.PRESSURE.getKey().equals(name)) {
+                pressure = NumberUtils.nullToNaN(readDouble(parser));
+            } else if (DotKeys.TIMESTAMP.getKey().equals(name)) {
+                Long value = readLong(parser);
+                timestamp = value == null ? Stroke.NO_TIMESTAMP : value;
+            } else if (DotKeys.TYPE.getKey().equals(name)) {
+                type = readDotType(parser);
+            } else if (DotKeys.METADATA.getKey().equals(name)) {
+                metadata = readMetadata(parser);
+            } else {
+                parser.skipValue();
+            }
+        }
+        parser.endObject();
+
+        if (metadata != null && !metadata.isEmpty()) {
+            stroke.addDot(new Dot()
+                    .x(NumberUtils.nanToNull(x))
+                    .y(NumberUtils.nanToNull(y))
+                    .timestamp(timestamp == Stroke.NO_TIMESTAMP ? null : timestamp)
+                    .pressure(NumberUtils.nanToNull(pressure))
+                    .type(type)
+                    .metadata(metadata));
+            return;
+        }
+
+        stroke.addDot(x, y, timestamp, type, pressure);
+    }
+
+    private static Double readDouble(JsonPullParser parser) throws IOException {
+        if (parser.peek() == JsonPullParser.Token.NULL) {
+            parser.nextNull();
+            return null;
+        }
+        return parser.nextDouble();
+    }
+
+    private static Long readLong(JsonPullParser parser) throws IOException {
+        if (parser.peek() == JsonPullParser.Token.NULL) {
+            parser.nextNull();
+            return null;
+        }
+        return parser.nextLong();
+    }
+
+    private static DotType readDotType(JsonPullParser parser) throws IOException {
+        if (parser.peek() == JsonPullParser.Token.NULL) {
+            parser.nextNull();
+            return null;
+        }
+        String name = parser.nextString();
+        for (DotType type: DOT_TYPES) {
+            if (type.name().equalsIgnoreCase(name)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("No dot type " + name + ".");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> readMetadata(JsonPullParser parser) throws IOException {
+        Object value = parser.readValue();
+        if (value == null) {
+            return MetadataUtils.EMPTY;
+        }
+        if (!(value instanceof Map)) {
+            throw new IOException("Expected metadata object but was " + value + ".");
+        }
+        return (Map<String, Object>) value;
     }
 }
@@ -1,107 +1,277 @@
 package pt.up.hs.uhc.handspy;
 
-import com.github.cliftonlabs.json_simple.JsonArray;
-import com.github.cliftonlabs.json_simple.JsonObject;
 import com.github.cliftonlabs.json_simple.Jsoner;
 import pt.up.hs.uhc.base.Constants;
 import pt.up.hs.uhc.base.PageWriter;
 import pt.up.hs.uhc.handspy.keys.DotKeys;
 import pt.up.hs.uhc.handspy.keys.PageKeys;
 import pt.up.hs.uhc.handspy.keys.StrokeKeys;
-import pt.up.hs.uhc.models.Dot;
 import pt.up.hs.uhc.models.DotType;
 import pt.up.hs.uhc.models.Page;
 import pt.up.hs.uhc.models.Stroke;
 import pt.up.hs.uhc.utils.JsonUtils;
 import pt.up.hs.uhc.utils.NumberUtils;
 
+import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.util.Iterator;
+import java.util.Map;
 
 /**
  * Writer of HandSpy JSON pages.
  *
+ * JSON is emitted directly while iterating the page, through a buffer that
+ * is flushed to the stream in chunks, rather than building a tree of JSON
+ * objects first. Doubles are written exactly (in their shortest form which
+ * reads back as the same value), unless a precision is set to round them.
+ *
  * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
  */
 public class HandSpyWriter implements PageWriter {
 
-    @Override
-    public void writeSingle(Page page, OutputStream os) throws Exception {
-
-        JsonObject pageJson = new JsonObject();
+    private static final int BUFFER_SIZE = 8192;
 
-        // add page info
-        pageJson.put(PageKeys.WIDTH, page.getWidth());
-        pageJson.put(PageKeys.HEIGHT, page.getHeight());
+    // number of decimal places of doubles, or -1 to write them exactly
+    private int precision = -1;
 
-        if (!page.getMetadata().isEmpty()) {
-            pageJson.put(PageKeys.METADATA, JsonUtils.fromMap(page.getMetadata()));
+    /**
+     * Round doubles to a number of decimal places, e.g.,
+     * {@link Constants#WRITE_DOUBLE_PRECISION}, for smaller output (default:
+     * {@code -1}, doubles are written exactly).
+     *
+     * @param precision number of decimal places (0 to 8), or {@code -1}.
+     * @return {@link HandSpyWriter} this writer.
+     */
+    public HandSpyWriter precision(int precision) {
+        if (precision < -1 || precision > 8) {
+            throw new IllegalArgumentException("Precision must be between 0 and 8, or -1.");
         }
+        this.precision = precision;
+        return this;
+    }
 
-        // add strokes' info
-        JsonArray strokesJson = new JsonArray();
-        page.getStrokes()
-                .forEach(stroke -> strokesJson.add(buildStrokeJson(stroke)));
-        pageJson.put(PageKeys.STROKES, strokesJson);
-
-        // write JSON to stream
+    @Override
+    public void writeSingle(Page page, OutputStream os) throws Exception {
         Writer writer = new OutputStreamWriter(os);
-        Jsoner.serialize(pageJson, writer);
+        Emitter emitter = new Emitter(writer, precision);
+        emitter.page(page);
+        emitter.flush();
         writer.close();
     }
 
     /**
-     * Build JSON Object from stroke.
+     * Write a page as a line of newline-delimited HandSpy JSON (NDJSON).
+     * The stream is not closed, so that lines can be appended to it.
      *
-     * @param stroke {@link Stroke} the stroke.
-     * @return {@link JsonObject} json object of the stroke.
+     * @param page {@link Page} the page.
+     * @param os   {@link OutputStream} output stream.
+     * @throws IOException if the page cannot be written.
      */
-    private JsonObject buildStrokeJson(Stroke stroke) {
+    public void writeLine(Page page, OutputStream os) throws IOException {
+        Writer writer = new OutputStreamWriter(os);
+        Emitter emitter = new Emitter(writer, precision);
+        emitter.line(page);
+        emitter.flush();
+        writer.flush();
+    }
 
-        JsonObject strokeJson = new JsonObject();
+    /**
+     * Write pages as newline-delimited HandSpy JSON (NDJSON), one page per
+     * line, as they are pulled from the iterator. The stream is not closed,
+     * so that lines can be appended to it.
+     *
+     * @param pages {@link Iterator} the pages (e.g., a
+     *              {@link pt.up.hs.uhc.base.PageSource}).
+     * @param os    {@link OutputStream} output stream.
+     * @return number of pages written.
+     * @throws IOException if the pages cannot be written.
+     */
+    public int writeLines(Iterator<Page> pages, OutputStream os) throws IOException {
+        Writer writer = new OutputStreamWriter(os);
+        Emitter emitter = new Emitter(writer, precision);
+        int count = 0;
+        while (pages.hasNext()) {
+            emitter.line(pages.next());
+            count++;
+        }
+        emitter.flush();
+        writer.flush();
+        return count;
+    }
 
-        // add stroke info
-        strokeJson.put(StrokeKeys.START_TIME, stroke.getStartTime());
-        strokeJson.put(StrokeKeys.END_TIME, stroke.getEndTime());
+    /**
+     * Emitter of the JSON of pages into a {@link Writer}. Keys are written in
+     * the same order as json-simple used to serialize them, so that output
+     * does not change for pages without extra decimal places.
+     */
+    private static class Emitter {
+
+        private final Writer writer;
+        private final int precision;
+        private final StringBuilder sb = new StringBuilder(BUFFER_SIZE + 256);
+        private char[] chars = new char[BUFFER_SIZE + 256];
 
-        if (!stroke.getMetadata().isEmpty()) {
-            strokeJson.put(StrokeKeys.METADATA, JsonUtils.fromMap(stroke.getMetadata()));
+        private Emitter(Writer writer, int precision) {
+            this.writer = writer;
+            this.precision = precision;
         }
 
-        // add dots' info
-        JsonArray strokesJson = new JsonArray();
-        stroke.getDots()
-                .forEach(dot -> strokesJson.add(buildDotJson(dot)));
-        strokeJson.put(StrokeKeys.DOTS, strokesJson);
+        private void line(Page page) throws IOException {
+            page(page);
+            sb.append('\n');
+            if (sb.length() >= BUFFER_SIZE) {
+                flush();
+            }
+        }
 
-        return strokeJson;
-    }
+        private void page(Page page) throws IOException {
 
-    /**
-     * Build JSON Object from dot.
-     *
-     * @param dot {@link Dot} the dot.
-     * @return {@link JsonObject} json object of the dot.
-     */
-    private JsonObject buildDotJson(Dot dot) {
+            sb.append('{');
+
+            if (page.hasMetadata()) {
+                name(PageKeys.METADATA.getKey());
+                metadata(page.getMetadata());
+                sb.append(',');
+            }
+
+            name(PageKeys.STROKES.getKey());
+            sb.append('[');
+            boolean first = true;
+            for (Stroke stroke: page.getStrokes()) {
+                if (!first) {
+                    sb.append(',');
+                }
+                stroke(stroke);
+                first = false;
+            }
+            sb.append("],");
+
+            name(PageKeys.WIDTH.getKey());
+            number(page.getWidth());
+            sb.append(',');
+            name(PageKeys.HEIGHT.getKey());
+            number(page.getHeight());
+            sb.append('}');
+        }
+
+        private void stroke(Stroke stroke) throws IOException {
+
+            sb.append('{');
+
+            if (stroke.hasMetadata()) {
+                name(StrokeKeys.METADATA.getKey());
+                metadata(stroke.getMetadata());
+                sb.append(',');
+            }
+
+            name(StrokeKeys.DOTS.getKey());
+            sb.append('[');
+            for (int i = 0; i < stroke.getDotCount(); i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                dot(stroke, i);
+                if (sb.length() >= BUFFER_SIZE) {
+                    flush();
+                }
+            }
+            sb.append("],");
+
+            name(StrokeKeys.START_TIME.getKey());
+            number(stroke.getStartTime());
+            sb.append(',');
+            name(StrokeKeys.END_TIME.getKey());
+            number(stroke.getEndTime());
+            sb.append('}');
+        }
 
-        JsonObject jsonObject = new JsonObject();
+        private void dot(Stroke stroke, int i) {
 
-        jsonObject.put(DotKeys.X, dot.getX());
-        jsonObject.put(DotKeys.Y, dot.getY());
-        jsonObject.put(DotKeys.TIMESTAMP, dot.getTimestamp());
+            sb.append('{');
 
-        if (!dot.getType().equals(DotType.DOWN)) {
-            jsonObject.put(DotKeys.TYPE, dot.getType().name());
+            Map<String, Object> metadata = stroke.getDotMetadata(i);
+            if (metadata != null && !metadata.isEmpty()) {
+                name(DotKeys.METADATA.getKey());
+                metadata(metadata);
+                sb.append(',');
+            }
+
+            name(DotKeys.X.getKey());
+            number(stroke.getX(i));
+            sb.append(',');
+            name(DotKeys.Y.getKey());
+            number(stroke.getY(i));
+            sb.append(',');
+            name(DotKeys.PRESSURE.getKey());
+            number(stroke.getPressure(i));
+            sb.append(',');
+
+            DotType type = stroke.getType(i);
+            if (!DotType.DOWN.equals(type)) {
+                name(DotKeys.TYPE.getKey());
+                if (type == null) {
+                    sb.append("null");
+                } else {
+                    sb.append('"').append(type.name()).append('"');
+                }
+                sb.append(',');
+            }
+
+            long timestamp = stroke.getTimestamp(i);
+            name(DotKeys.TIMESTAMP.getKey());
+            if (timestamp == Stroke.NO_TIMESTAMP) {
+                sb.append("null");
+            } else {
+                sb.append(timestamp);
+            }
+
+            sb.append('}');
+        }
+
+        private void name(String name) {
+            sb.append('"').append(name).append("\":");
         }
 
-        jsonObject.put(DotKeys.PRESSURE, dot.getPressure());
+        private void metadata(Map<String, Object> metadata) {
+            sb.append(Jsoner.serialize(JsonUtils.fromMap(metadata)));
+        }
+
+        private void number(double value) {
+            if (Double.isNaN(value)) {
+                sb.append("null");
+            } else if (precision < 0) {
+                sb.append(value);
+            } else {
+                NumberUtils.appendDecimal(sb, value, precision);
+            }
+        }
 
-        if (!dot.getMetadata().isEmpty()) {
-            jsonObject.put(DotKeys.METADATA, JsonUtils.fromMap(dot.getMetadata()));
+        private void number(Double value) {
+            if (value == null) {
+                sb.append("null");
+                return;
+            }
+            number(value.doubleValue());
         }
 
-        return jsonObject;
+        private void number(Long value) {
+            if (value == null) {
+                sb.append("null");
+                return;
+            }
+            sb.append(value.longValue());
+        }
+
+        private void flush() throws IOException {
+            int length = sb.length();
+            if (chars.length < length) {
+                chars = new char[length];
+            }
+            sb.getChars(0, length, chars, 0);
+            writer.write(chars, 0, length);
+            sb.setLength(0);
+        }
     }
 }
@@ -1,23 +1,21 @@
 package pt.up.hs.uhc.handspy.legacy;
 
-import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import protocol.*;
 import pt.up.hs.uhc.base.BaseArchiveReader;
 import pt.up.hs.uhc.base.PageReader;
-import pt.up.hs.uhc.exceptions.UnsupportedFormatException;
 import pt.up.hs.uhc.models.Dot;
 import pt.up.hs.uhc.models.Page;
 import pt.up.hs.uhc.models.Stroke;
+import pt.up.hs.uhc.utils.JaxbUtils;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
 import javax.xml.bind.Unmarshaller;
 import javax.xml.transform.stream.StreamSource;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
 import java.util.*;
-import java.util.zip.ZipInputStream;
 
 /**
  * Reader for HandSpy legacy format.
@@ -37,10 +35,8 @@ public class HandSpyLegacyReader extends BaseArchiveReader implements PageReader
         // unmarshal to input stream
         Protocol protocol;
         try{
-            // creating the JAXB context
-            JAXBContext jaxbContext = JAXBContext.newInstance(ObjectFactory.class);
-            // creating the unmarshaller object
-            Unmarshaller unmarshalObj = jaxbContext.createUnmarshaller();
+            // getting the unmarshaller of this thread (shared JAXB context)
+            Unmarshaller unmarshalObj = JaxbUtils.getUnmarshaller(ObjectFactory.class);
             // calling the unmarshal method
             JAXBElement<Protocol> protocolElement = unmarshalObj
                     .unmarshal(new StreamSource(is), Protocol.class);
@@ -61,21 +57,13 @@ public class HandSpyLegacyReader extends BaseArchiveReader implements PageReader
         for (protocol.Strokes protocolStrokes: protocol.getStrokes()) {
             Stroke stroke = readStroke(protocolStrokes);
             page.addStroke(stroke);
-            double maxX = stroke.getDots().parallelStream()
-                    .map(Dot::getX)
-                    .filter(Objects::nonNull)
-                    .max(Comparator.naturalOrder())
-                    .orElse(0D);
-            double maxY = stroke.getDots().parallelStream()
-                    .map(Dot::getY)
-                    .filter(Objects::nonNull)
-                    .max(Comparator.naturalOrder())
-                    .orElse(0D);
-            if (maxX > pageMaxX) {
-                pageMaxX = maxX;
-            }
-            if (maxY > pageMaxY) {
-                pageMaxY = maxY;
+            for (int i = 0; i < stroke.getDotCount(); i++) {
+                if (stroke.getX(i) > pageMaxX) {
+                    pageMaxX = stroke.getX(i);
+                }
+                if (stroke.getY(i) > pageMaxY) {
+                    pageMaxY = stroke.getY(i);
+                }
             }
         }
 
@@ -83,13 +71,13 @@ public class HandSpyLegacyReader extends BaseArchiveReader implements PageReader
     }
 
     @Override
-    public List<Page> readArchive(ZipInputStream zis) {
-        throw new UnsupportedFormatException();
+    protected boolean isPageEntry(String name) {
+        return name.toLowerCase().endsWith(".xml");
     }
 
     @Override
-    public List<Page> readArchive(TarArchiveInputStream tais) {
-        throw new UnsupportedFormatException();
+    protected Page readPageEntry(byte[] bytes) throws Exception {
+        return readSingle(new ByteArrayInputStream(bytes));
     }
 
     private Map<String, Object> readProtocolHeader(Header header) {
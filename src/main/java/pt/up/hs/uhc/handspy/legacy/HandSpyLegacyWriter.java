@@ -5,8 +5,8 @@ import pt.up.hs.uhc.base.PageWriter;
 import pt.up.hs.uhc.models.Dot;
 import pt.up.hs.uhc.models.Page;
 import pt.up.hs.uhc.models.Stroke;
+import pt.up.hs.uhc.utils.JaxbUtils;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
 import javax.xml.bind.Marshaller;
 import javax.xml.namespace.QName;
@@ -53,12 +53,9 @@ public class HandSpyLegacyWriter implements PageWriter {
 
         // marshal to output stream
         try{
-            // creating the JAXB context
-            JAXBContext jaxbContext = JAXBContext.newInstance(Protocol.class);
-            // creating the marshaller object
-            Marshaller marshallObj = jaxbContext.createMarshaller();
-            // setting the property to show xml format output
-            marshallObj.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+            // getting the marshaller of this thread (shared JAXB context,
+            // formatted output)
+            Marshaller marshallObj = JaxbUtils.getMarshaller(Protocol.class);
             // calling the marshall method
             QName qName = new QName("protocol", "protocol");
             JAXBElement<Protocol> root = new JAXBElement<>(qName, Protocol.class, protocol);
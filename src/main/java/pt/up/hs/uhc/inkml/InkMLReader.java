@@ -9,8 +9,8 @@ import pt.up.hs.uhc.models.Dot;
 import pt.up.hs.uhc.models.DotType;
 import pt.up.hs.uhc.models.Page;
 import pt.up.hs.uhc.models.Stroke;
+import pt.up.hs.uhc.utils.JaxbUtils;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
 import javax.xml.bind.Unmarshaller;
 import javax.xml.transform.stream.StreamSource;
@@ -36,10 +36,8 @@ public class InkMLReader implements PageReader {
         // unmarshal to input stream
         InkType ink;
         try{
-            // creating the JAXB context
-            JAXBContext jaxbContext = JAXBContext.newInstance(ObjectFactory.class);
-            // creating the unmarshaller object
-            Unmarshaller unmarshalObj = jaxbContext.createUnmarshaller();
+            // getting the unmarshaller of this thread (shared JAXB context)
+            Unmarshaller unmarshalObj = JaxbUtils.getUnmarshaller(ObjectFactory.class);
             // calling the unmarshal method
             JAXBElement<InkType> inkElement = unmarshalObj
                     .unmarshal(new StreamSource(is), InkType.class);
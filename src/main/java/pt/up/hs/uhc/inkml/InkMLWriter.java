@@ -6,8 +6,8 @@ import pt.up.hs.uhc.models.Dot;
 import pt.up.hs.uhc.models.DotType;
 import pt.up.hs.uhc.models.Page;
 import pt.up.hs.uhc.models.Stroke;
+import pt.up.hs.uhc.utils.JaxbUtils;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
 import javax.xml.bind.Marshaller;
 import javax.xml.namespace.QName;
@@ -86,12 +86,9 @@ public class InkMLWriter implements PageWriter {
 
         // marshal to output stream
         try{
-            // creating the JAXB context
-            JAXBContext jaxbContext = JAXBContext.newInstance(InkType.class);
-            // creating the marshaller object
-            Marshaller marshallObj = jaxbContext.createMarshaller();
-            // setting the property to show xml format output
-            marshallObj.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+            // getting the marshaller of this thread (shared JAXB context,
+            // formatted output)
+            Marshaller marshallObj = JaxbUtils.getMarshaller(InkType.class);
             // calling the marshall method
             QName qName = new QName("http://www.w3.org/2003/InkML", "ink");
             JAXBElement<InkType> root = new JAXBElement<>(qName, InkType.class, ink);
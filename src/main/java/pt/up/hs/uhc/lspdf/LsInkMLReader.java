@@ -1,14 +1,16 @@
 package pt.up.hs.uhc.lspdf;
 
-import org.w3c.dom.*;
-import org.xml.sax.SAXException;
+import pt.up.hs.uhc.base.AbstractPageSource;
 import pt.up.hs.uhc.base.MultiPageReader;
+import pt.up.hs.uhc.base.PageSource;
+import pt.up.hs.uhc.exceptions.UnknownUnitException;
 import pt.up.hs.uhc.models.*;
 import pt.up.hs.uhc.utils.PageUtils;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -18,8 +20,19 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Reader for the InkML embedded in Livescribe PDFs.
+ *
+ * The document is read with a streaming (StAX) parser and each page is
+ * built as soon as its {@code traceGroup} closes, so memory stays
+ * proportional to a single page rather than to the whole document.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
 public class LsInkMLReader implements MultiPageReader {
 
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXMLInputFactory();
+
     @Override
     public List<Page> read(File file) throws Exception {
         return read(Files.newInputStream(file.toPath()));
@@ -30,124 +43,214 @@ public class LsInkMLReader implements MultiPageReader {
         return parse(is);
     }
 
-    public static List<Page> parse(InputStream is) throws ParserConfigurationException, IOException, SAXException {
-
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        DocumentBuilder docBuilder = factory.newDocumentBuilder();
-        Document doc = docBuilder.parse(is);
-
-        doc.getDocumentElement().normalize();
+    @Override
+    public PageSource open(File file) throws Exception {
+        return open(Files.newInputStream(file.toPath()));
+    }
 
-        Node inkSourceNode = doc.getElementsByTagName("inkSource").item(0);
+    @Override
+    public PageSource open(InputStream is) throws Exception {
 
-        String id = inkSourceNode.getAttributes().getNamedItem("xml:id").getNodeValue();
-        String manufacturer = inkSourceNode.getAttributes().getNamedItem("manufacturer").getNodeValue();
-        String model = inkSourceNode.getAttributes().getNamedItem("model").getNodeValue();
-        String serialNo = inkSourceNode.getAttributes().getNamedItem("serialNo").getNodeValue();
+        Parser parser = new Parser(is);
 
-        Node inkSourceSampleRateNode = ((Element) inkSourceNode).getElementsByTagName("sampleRate").item(0);
+        return new AbstractPageSource() {
 
-        boolean uniform = Boolean.parseBoolean(((Element) inkSourceSampleRateNode).getAttribute("uniform"));
-        int value = Integer.parseInt(((Element) inkSourceSampleRateNode).getAttribute("value"));
-        double rate = 1000D / (double) value;
+            @Override
+            protected Page readNext() throws Exception {
+                return parser.nextPage();
+            }
 
-        Node inkSourceTraceFormatNode = ((Element) inkSourceNode).getElementsByTagName("traceFormat").item(0);
-        NodeList inkSourceTraceFormatChannelNodes = ((Element) inkSourceTraceFormatNode)
-                .getElementsByTagName("channel");
+            @Override
+            protected void closeSource() throws Exception {
+                parser.close();
+            }
+        };
+    }
 
-        List<Channel> channels = new ArrayList<>();
-        for (int i = 0; i < inkSourceTraceFormatChannelNodes.getLength(); i++) {
-            Node inkSourceTraceFormatChannelNode = inkSourceTraceFormatChannelNodes.item(i);
+    public static List<Page> parse(InputStream is) throws XMLStreamException, IOException {
 
-            Channel channel = new Channel();
-            channel.type = inkSourceTraceFormatChannelNode.getAttributes().getNamedItem("name").getNodeValue();
-            channel.unit = inkSourceTraceFormatChannelNode.getAttributes().getNamedItem("units").getNodeValue();
+        List<Page> pages = new ArrayList<>();
 
-            channels.add(channel);
+        Parser parser = new Parser(is);
+        try {
+            Page page;
+            while ((page = parser.nextPage()) != null) {
+                pages.add(page);
+            }
+        } finally {
+            parser.close();
         }
 
-        return extractPages(doc, id, serialNo, manufacturer, model, rate, channels);
+        return pages;
     }
 
-    private static List<Page> extractPages(
-            Document doc,
-            String penId, String penSerialNo, String penManufacturer, String penModel,
-            double rate, List<Channel> channels
-    ) {
+    private static XMLInputFactory createXMLInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        return factory;
+    }
 
-        List<Page> pages = new ArrayList<>();
+    /**
+     * Pull parser over a Livescribe InkML document, yielding a page per
+     * {@code traceGroup}. The {@code inkSource} (pen and trace format) is
+     * read when found, before the trace groups.
+     */
+    static class Parser {
 
-        NodeList traceGroupNodes = doc.getElementsByTagName("traceGroup");
-        for (int i = 0; i < traceGroupNodes.getLength(); i++) {
+        private final InputStream is;
+        private final XMLStreamReader reader;
 
-            Element traceGroup = (Element) traceGroupNodes.item(i);
+        private InkSource inkSource = new InkSource();
 
-            pages.add(extractPage(
-                    traceGroup,
-                    penId, penSerialNo, penManufacturer, penModel,
-                    rate, channels
-            ));
-        }
+        // reused across traces
+        private final StringBuilder traceText = new StringBuilder();
+        private final TraceScanner scanner = new TraceScanner();
 
-        return pages;
-    }
-
-    private static Page extractPage(
-            Element traceGroup,
-            String penId, String penSerialNo, String penManufacturer, String penModel,
-            double rate, List<Channel> channels
-    ) {
-        Page page = new Page()
-                .addMetadataId(traceGroup.getAttributes().getNamedItem("xml:id").getNodeValue())
-                .addMetadataPenId(penId)
-                .addMetadataPenSerialNo(penSerialNo)
-                .addMetadataPenManufacturer(penManufacturer)
-                .addMetadataPenModel(penModel);
-
-        Element traceGroupActiveArea = (Element) traceGroup.getElementsByTagName("activeArea").item(0);
-        if (traceGroupActiveArea != null) {
-            NamedNodeMap traceGroupActiveAreaAttrs = traceGroupActiveArea.getAttributes();
-            Point size = extractDimensionPair(traceGroupActiveAreaAttrs.getNamedItem("mediaSize").getNodeValue());
-            Point[] cropBounds = extractCropBounds(traceGroupActiveAreaAttrs.getNamedItem("cropBounds").getNodeValue());
-            int pageIndex = Integer.parseInt(traceGroupActiveAreaAttrs.getNamedItem("pageIndex").getNodeValue());
-            LengthUnit unit = LengthUnit.from(traceGroupActiveAreaAttrs.getNamedItem("units").getNodeValue().toUpperCase());
+        Parser(InputStream is) throws XMLStreamException {
+            this.is = is;
+            this.reader = XML_INPUT_FACTORY.createXMLStreamReader(is);
+        }
 
-            page
-                    .addMetadataPageNo(pageIndex)
-                    .width(size.x * unit.getMmRate())
-                    .height(size.y * unit.getMmRate());
+        Page nextPage() throws XMLStreamException {
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                switch (reader.getLocalName()) {
+                    case "inkSource":
+                        inkSource = readInkSource();
+                        break;
+                    case "traceGroup":
+                        return readPage();
+                    default:
+                        break;
+                }
+            }
+            return null;
         }
 
-        Map<String, Timestamp> timestamps = new HashMap<>();
+        void close() throws XMLStreamException, IOException {
+            try {
+                reader.close();
+            } finally {
+                is.close();
+            }
+        }
 
-        NodeList traceGroupTimeStampNodes = traceGroup.getElementsByTagName("timestamp");
-        for (int j = 0; j < traceGroupTimeStampNodes.getLength(); j++) {
-            Element traceGroupTimeStamp = (Element) traceGroupTimeStampNodes.item(j);
+        private InkSource readInkSource() throws XMLStreamException {
+
+            InkSource inkSource = new InkSource();
+            inkSource.id = getAttribute("id");
+            inkSource.manufacturer = getAttribute("manufacturer");
+            inkSource.model = getAttribute("model");
+            inkSource.serialNo = getAttribute("serialNo");
+            inkSource.channels = new ArrayList<>();
+
+            int depth = 1;
+            while (depth > 0) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                    switch (reader.getLocalName()) {
+                        case "sampleRate":
+                            int value = Integer.parseInt(getAttribute("value"));
+                            inkSource.rate = 1000D / (double) value;
+                            break;
+                        case "channel":
+                            Channel channel = new Channel();
+                            channel.type = getAttribute("name");
+                            channel.unit = getAttribute("units");
+                            channel.resolve();
+                            inkSource.channels.add(channel);
+                            break;
+                        default:
+                            break;
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                }
+            }
 
-            String id = traceGroupTimeStamp.getAttribute("xml:id");
+            return inkSource;
+        }
 
-            Timestamp timestamp = new Timestamp();
-            if (traceGroupTimeStamp.hasAttribute("time")) {
-                timestamp.time = Long.parseLong(traceGroupTimeStamp.getAttribute("time"));
-            }
-            if (traceGroupTimeStamp.hasAttribute("timeOffset")) {
-                timestamp.offset = Long.parseLong(traceGroupTimeStamp.getAttribute("timeOffset"));
+        private Page readPage() throws XMLStreamException {
+
+            Page page = new Page()
+                    .addMetadataId(getAttribute("id"))
+                    .addMetadataPenId(inkSource.id)
+                    .addMetadataPenSerialNo(inkSource.serialNo)
+                    .addMetadataPenManufacturer(inkSource.manufacturer)
+                    .addMetadataPenModel(inkSource.model);
+
+            Map<String, Timestamp> timestamps = new HashMap<>();
+
+            int depth = 1;
+            while (depth > 0) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                } else if (event == XMLStreamConstants.START_ELEMENT) {
+                    switch (reader.getLocalName()) {
+                        case "activeArea":
+                            readActiveArea(page);
+                            depth++;
+                            break;
+                        case "timestamp":
+                            String id = getAttribute("id");
+                            Timestamp timestamp = new Timestamp();
+                            String time = getAttribute("time");
+                            if (time != null) {
+                                timestamp.time = Long.parseLong(time);
+                            }
+                            String offset = getAttribute("timeOffset");
+                            if (offset != null) {
+                                timestamp.offset = Long.parseLong(offset);
+                            }
+                            timestamp.ref = getAttribute("timestampRef");
+                            timestamps.put(id, timestamp);
+                            depth++;
+                            break;
+                        case "trace":
+                            // consumes the whole element
+                            page.addStroke(readStroke(timestamps));
+                            break;
+                        default:
+                            depth++;
+                            break;
+                    }
+                }
             }
-            if (traceGroupTimeStamp.hasAttribute("timestampRef")) {
-                timestamp.ref = traceGroupTimeStamp.getAttribute("timestampRef");
+
+            if (PageUtils.hasOverlappingStrokes(page)) {
+                page.addMetadataCaptureError(CaptureError.STROKE_OVERLAP);
             }
 
-            timestamps.put(id, timestamp);
+            return page;
         }
 
-        NodeList traceGroupTraceNodes = traceGroup.getElementsByTagName("trace");
-        for (int j = 0; j < traceGroupTraceNodes.getLength(); j++) {
-            Element traceGroupTrace = (Element) traceGroupTraceNodes.item(j);
+        private void readActiveArea(Page page) {
+            Point size = extractDimensionPair(getAttribute("mediaSize"));
+            Point[] cropBounds = extractCropBounds(getAttribute("cropBounds"));
+            int pageIndex = Integer.parseInt(getAttribute("pageIndex"));
+            LengthUnit unit = LengthUnit.from(getAttribute("units").toUpperCase());
 
-            String contextRef = traceGroupTrace.getAttribute("contextRef");
-            long timeOffset = Long.parseLong(traceGroupTrace.getAttribute("timeOffset"));
-            timeOffset =
-                    Long.parseLong(traceGroupTrace.getAttribute("timeOffset")) +
+            page
+                    .addMetadataPageNo(pageIndex)
+                    .width(size.x * unit.getMmRate())
+                    .height(size.y * unit.getMmRate());
+        }
+
+        private Stroke readStroke(Map<String, Timestamp> timestamps) throws XMLStreamException {
+
+            double rate = inkSource.rate;
+            List<Channel> channels = inkSource.channels;
+
+            String contextRef = getAttribute("contextRef");
+            long timeOffset =
+                    Long.parseLong(getAttribute("timeOffset")) +
                     calculateBaseTime(timestamps, contextRef);
 
             Stroke stroke = new Stroke()
@@ -158,53 +261,95 @@ public class LsInkMLReader implements MultiPageReader {
 
             long endTime = timeOffset;
 
-            String traceGroupTracePointsStr = traceGroupTrace.getTextContent();
-            String[] traceGroupPoints = traceGroupTracePointsStr.split(", ");
-            for (int k = 0; k < traceGroupPoints.length; k++) {
-                String[] traceGroupPointValues = traceGroupPoints[k].split(" ");
+            readText(traceText);
+            scanner.reset(traceText);
+
+            int nChannels = channels.size();
+            for (int k = 0; scanner.nextPoint(); k++) {
 
                 long time = timeOffset + Math.round(rate * k);
                 double x = 0D;
                 double y = 0D;
-                double pressure = -1D;
-
-                for (int k2 = 0; k2 < traceGroupPointValues.length; k2++) {
-                    Channel channel = channels.get(k2);
-                    if (channel.type.equalsIgnoreCase("X")) {
-                        x = Double.parseDouble(traceGroupPointValues[k2]) * LengthUnit.from(channel.unit).getMmRate();
-                    } else if (channel.type.equalsIgnoreCase("Y")) {
-                        y = Double.parseDouble(traceGroupPointValues[k2]) * LengthUnit.from(channel.unit).getMmRate();
-                    } else if (channel.type.equalsIgnoreCase("T")) {
-                        time = Math.round(Long.parseLong(traceGroupPointValues[k2]) * TimeUnit.from(channel.unit).getMsRate());
-                    } else if (channel.type.equalsIgnoreCase("F")) {
-                        pressure = Double.parseDouble(traceGroupPointValues[k2]);
+                double pressure = Double.NaN;
+
+                for (int c = 0; scanner.hasValue(); c++) {
+                    double value = scanner.nextValue();
+                    if (c >= nChannels) {
+                        continue;
+                    }
+                    Channel channel = channels.get(c);
+                    switch (channel.kind) {
+                        case Channel.X:
+                            x = value * channel.factor;
+                            break;
+                        case Channel.Y:
+                            y = value * channel.factor;
+                            break;
+                        case Channel.T:
+                            time = Math.round(value * channel.factor);
+                            break;
+                        case Channel.F:
+                            if (value >= 0) {
+                                pressure = value;
+                            }
+                            break;
+                        default:
+                            break;
                     }
                 }
 
                 originX += x;
                 originY += y;
 
-                Dot dot = new Dot()
-                        .x(originX)
-                        .y(originY)
-                        .timestamp(time);
-                if (pressure >= 0) {
-                    dot.pressure(pressure);
-                }
-
-                stroke.addDot(dot);
+                stroke.addDot(originX, originY, time, DotType.DOWN, pressure);
 
                 endTime = time;
             }
 
-            page.addStroke(stroke.endTime(endTime));
+            return stroke.endTime(endTime);
         }
 
-        if (PageUtils.hasOverlappingStrokes(page)) {
-            page.addMetadataCaptureError(CaptureError.STROKE_OVERLAP);
+        /**
+         * Read the text of the current element into a buffer, which is
+         * cleared first. The parser is left at the end of the element.
+         *
+         * @param buffer {@link StringBuilder} buffer to fill.
+         * @throws XMLStreamException if the element has child elements.
+         */
+        private void readText(StringBuilder buffer) throws XMLStreamException {
+            buffer.setLength(0);
+            int event;
+            while ((event = reader.next()) != XMLStreamConstants.END_ELEMENT) {
+                switch (event) {
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                    case XMLStreamConstants.SPACE:
+                        buffer.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                        break;
+                    case XMLStreamConstants.START_ELEMENT:
+                        throw new XMLStreamException("Unexpected element in trace.", reader.getLocation());
+                    default:
+                        break;
+                }
+            }
         }
 
-        return page;
+        /**
+         * Get the value of an attribute of the current element by local name
+         * (e.g., {@code id} for {@code xml:id}).
+         *
+         * @param localName {@link String} local name of the attribute.
+         * @return {@link String} value of the attribute or {@code null} if
+         * it is absent.
+         */
+        private String getAttribute(String localName) {
+            for (int i = 0, n = reader.getAttributeCount(); i < n; i++) {
+                if (localName.equals(reader.getAttributeLocalName(i))) {
+                    return reader.getAttributeValue(i);
+                }
+            }
+            return null;
+        }
     }
 
     private static long calculateBaseTime(Map<String, Timestamp> timestamps, String contextRef) {
@@ -243,9 +388,46 @@ public class LsInkMLReader implements MultiPageReader {
         return point;
     }
 
+    static class InkSource {
+        String id;
+        String manufacturer;
+        String model;
+        String serialNo;
+        double rate;
+        List<Channel> channels;
+    }
+
     static class Channel {
+        static final char X = 'X';
+        static final char Y = 'Y';
+        static final char T = 'T';
+        static final char F = 'F';
+
         String type;
         String unit;
+
+        // resolved once per trace format
+        char kind;
+        double factor = 1D;
+
+        void resolve() {
+            kind = type != null && type.length() == 1 ? Character.toUpperCase(type.charAt(0)) : 0;
+            switch (kind) {
+                case X:
+                case Y:
+                    factor = LengthUnit.from(unit).getMmRate();
+                    break;
+                case T:
+                    TimeUnit timeUnit = TimeUnit.from(unit);
+                    if (timeUnit == null) {
+                        throw new UnknownUnitException(unit);
+                    }
+                    factor = timeUnit.getMsRate();
+                    break;
+                default:
+                    break;
+            }
+        }
     }
 
     static class Timestamp {
@@ -4,6 +4,7 @@ import org.apache.pdfbox.cos.*;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDDocumentCatalog;
 import pt.up.hs.uhc.base.MultiPageReader;
+import pt.up.hs.uhc.base.PageSource;
 import pt.up.hs.uhc.exceptions.UnknownFormatException;
 import pt.up.hs.uhc.models.Page;
 import pt.up.hs.uhc.utils.StreamUtils;
@@ -28,6 +29,20 @@ public class LsPDFReader implements MultiPageReader {
         return new LsInkMLReader().read(extractInkML(is));
     }
 
+    @Override
+    public PageSource open(File file) throws Exception {
+        return open(new FileInputStream(file));
+    }
+
+    @Override
+    public PageSource open(InputStream is) throws Exception {
+        try {
+            return new LsInkMLReader().open(extractInkML(is));
+        } finally {
+            is.close();
+        }
+    }
+
     /**
      * Extract the InkML from the PDF input stream.
      *
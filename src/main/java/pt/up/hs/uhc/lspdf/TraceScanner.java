@@ -0,0 +1,77 @@
+package pt.up.hs.uhc.lspdf;
+
+import pt.up.hs.uhc.utils.NumberUtils;
+
+/**
+ * Scanner of the points of an InkML trace (e.g., {@code "993 579, 0 2, -1 0"}),
+ * reading values straight from the characters of the trace, without
+ * splitting it into strings.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+class TraceScanner {
+
+    private CharSequence text = "";
+    private int pos = 0;
+    private int end = 0;
+
+    /**
+     * Start scanning a new trace.
+     *
+     * @param text {@link CharSequence} text of the trace.
+     */
+    void reset(CharSequence text) {
+        this.text = text;
+        this.pos = 0;
+        this.end = text.length();
+    }
+
+    /**
+     * Move to the next point of the trace.
+     *
+     * @return {@code true} if there is another point, {@code false}
+     * otherwise.
+     */
+    boolean nextPoint() {
+        skipWhitespace();
+        if (pos < end && text.charAt(pos) == ',') {
+            pos++;
+            skipWhitespace();
+        }
+        return pos < end;
+    }
+
+    /**
+     * Check whether the current point has more values.
+     *
+     * @return {@code true} if the current point has more values,
+     * {@code false} otherwise.
+     */
+    boolean hasValue() {
+        skipWhitespace();
+        return pos < end && text.charAt(pos) != ',';
+    }
+
+    /**
+     * Read the next value of the current point.
+     *
+     * @return {@code double} the value.
+     */
+    double nextValue() {
+        int start = pos;
+        while (pos < end && !isDelimiter(text.charAt(pos))) {
+            pos++;
+        }
+        return NumberUtils.parseDouble(text, start, pos);
+    }
+
+    private void skipWhitespace() {
+        while (pos < end && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private static boolean isDelimiter(char c) {
+        return c == ',' || Character.isWhitespace(c);
+    }
+}
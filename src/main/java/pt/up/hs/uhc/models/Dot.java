@@ -1,7 +1,8 @@
 package pt.up.hs.uhc.models;
 
+import pt.up.hs.uhc.utils.MetadataUtils;
+
 import java.io.Serializable;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 
@@ -22,14 +23,14 @@ public class Dot implements Serializable, Cloneable {
     private Map<String, Object> metadata;
 
     public Dot() {
-        this.metadata = new HashMap<>();
+        this.metadata = MetadataUtils.EMPTY;
     }
 
     public Dot(Double x, Double y, Long timestamp) {
         this.x = x;
         this.y = y;
         this.timestamp = timestamp;
-        this.metadata = new HashMap<>();
+        this.metadata = MetadataUtils.EMPTY;
     }
 
     public Dot(Double x, Double y, Long timestamp, Double pressure) {
@@ -37,7 +38,7 @@ public class Dot implements Serializable, Cloneable {
         this.y = y;
         this.timestamp = timestamp;
         this.pressure = pressure;
-        this.metadata = new HashMap<>();
+        this.metadata = MetadataUtils.EMPTY;
     }
 
     public Dot(Double x, Double y, Long timestamp, DotType type, Double pressure) {
@@ -46,7 +47,7 @@ public class Dot implements Serializable, Cloneable {
         this.timestamp = timestamp;
         this.type = type;
         this.pressure = pressure;
-        this.metadata = new HashMap<>();
+        this.metadata = MetadataUtils.EMPTY;
     }
 
     public Dot(Double x, Double y, Long timestamp, DotType type, Double pressure, Map<String, Object> metadata) {
@@ -123,10 +124,26 @@ public class Dot implements Serializable, Cloneable {
         return this;
     }
 
+    /**
+     * Get the metadata map, which can be changed directly. The (shared,
+     * empty) initial map is replaced by a mutable one when first requested,
+     * so this method may allocate and change the dot: it is not safe to call
+     * concurrently on the same dot before it has metadata. Prefer
+     * {@link #hasMetadata()} to check whether there is metadata.
+     *
+     * @return {@link Map} the metadata map.
+     */
     public Map<String, Object> getMetadata() {
+        if (metadata == null || metadata == MetadataUtils.EMPTY) {
+            metadata = MetadataUtils.mutable(metadata);
+        }
         return metadata;
     }
 
+    public boolean hasMetadata() {
+        return metadata != null && !metadata.isEmpty();
+    }
+
     public void setMetadata(Map<String, Object> metadata) {
         this.metadata = metadata;
     }
@@ -137,12 +154,12 @@ public class Dot implements Serializable, Cloneable {
     }
 
     public Dot addMetadata(String key, Object value) {
-        this.metadata.put(key, value);
+        this.metadata = MetadataUtils.put(this.metadata, key, value);
         return this;
     }
 
     public Object getMetadata(String key) {
-        return this.metadata.get(key);
+        return MetadataUtils.get(this.metadata, key);
     }
 
     @Override
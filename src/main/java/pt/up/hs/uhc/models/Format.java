@@ -12,5 +12,12 @@ public enum Format {
     INKML,
     HANDSPY_LEGACY,
     HANDSPY,
-    SVG
+    HANDSPY_ARCHIVE,
+    HANDSPY_LEGACY_ARCHIVE,
+    HANDSPY_NDJSON,
+    SVG,
+    UHC_BINARY,
+    CSV,
+    PNG,
+    JPEG
 }
@@ -1,6 +1,7 @@
 package pt.up.hs.uhc.models;
 
 import pt.up.hs.uhc.handspy.keys.PageMetadataKeys;
+import pt.up.hs.uhc.utils.MetadataUtils;
 
 import java.io.Serializable;
 import java.util.*;
@@ -23,14 +24,14 @@ public class Page implements Serializable, Cloneable {
     private List<Stroke> strokes;
 
     public Page() {
-        this.metadata = new HashMap<>();
+        this.metadata = MetadataUtils.EMPTY;
         this.strokes = new ArrayList<>();
     }
 
     public Page(double width, double height) {
         this.width = width;
         this.height = height;
-        this.metadata = new HashMap<>();
+        this.metadata = MetadataUtils.EMPTY;
         this.strokes = new ArrayList<>();
     }
 
@@ -41,7 +42,7 @@ public class Page implements Serializable, Cloneable {
         this.marginTop = marginTop;
         this.marginRight = marginRight;
         this.marginBottom = marginBottom;
-        this.metadata = new HashMap<>();
+        this.metadata = MetadataUtils.EMPTY;
         this.strokes = new ArrayList<>();
     }
 
@@ -123,10 +124,26 @@ public class Page implements Serializable, Cloneable {
         return this;
     }
 
+    /**
+     * Get the metadata map, which can be changed directly. The (shared,
+     * empty) initial map is replaced by a mutable one when first requested,
+     * so this method may allocate and change the page: it is not safe to call
+     * concurrently on the same page before it has metadata. Prefer
+     * {@link #hasMetadata()} to check whether there is metadata.
+     *
+     * @return {@link Map} the metadata map.
+     */
     public Map<String, Object> getMetadata() {
+        if (metadata == null || metadata == MetadataUtils.EMPTY) {
+            metadata = MetadataUtils.mutable(metadata);
+        }
         return metadata;
     }
 
+    public boolean hasMetadata() {
+        return metadata != null && !metadata.isEmpty();
+    }
+
     public void setMetadata(Map<String, Object> metadata) {
         this.metadata = metadata;
     }
@@ -137,52 +154,52 @@ public class Page implements Serializable, Cloneable {
     }
 
     public Page addMetadata(String key, Object value) {
-        this.metadata.put(key, value);
+        this.metadata = MetadataUtils.put(this.metadata, key, value);
         return this;
     }
 
     public Page addMetadataId(String id) {
-        this.metadata.put(PageMetadataKeys.ID.getKey(), id);
+        this.metadata = MetadataUtils.put(this.metadata, PageMetadataKeys.ID.getKey(), id);
         return this;
     }
 
     public Page addMetadataVersion(String version) {
-        this.metadata.put(PageMetadataKeys.VERSION.getKey(), version);
+        this.metadata = MetadataUtils.put(this.metadata, PageMetadataKeys.VERSION.getKey(), version);
         return this;
     }
 
     public Page addMetadataPaperType(String paperType) {
-        this.metadata.put(PageMetadataKeys.PAPER_TYPE.getKey(), paperType);
+        this.metadata = MetadataUtils.put(this.metadata, PageMetadataKeys.PAPER_TYPE.getKey(), paperType);
         return this;
     }
 
     public Page addMetadataPenId(String penId) {
-        this.metadata.put(PageMetadataKeys.PEN_ID.getKey(), penId);
+        this.metadata = MetadataUtils.put(this.metadata, PageMetadataKeys.PEN_ID.getKey(), penId);
         return this;
     }
 
     public Page addMetadataPenSerialNo(String penSerialNo) {
-        this.metadata.put(PageMetadataKeys.PEN_SERIAL_NUMBER.getKey(), penSerialNo);
+        this.metadata = MetadataUtils.put(this.metadata, PageMetadataKeys.PEN_SERIAL_NUMBER.getKey(), penSerialNo);
         return this;
     }
 
     public Page addMetadataPenManufacturer(String penManufacturer) {
-        this.metadata.put(PageMetadataKeys.PEN_MANUFACTURER.getKey(), penManufacturer);
+        this.metadata = MetadataUtils.put(this.metadata, PageMetadataKeys.PEN_MANUFACTURER.getKey(), penManufacturer);
         return this;
     }
 
     public Page addMetadataPenModel(String penModel) {
-        this.metadata.put(PageMetadataKeys.PEN_MODEL.getKey(), penModel);
+        this.metadata = MetadataUtils.put(this.metadata, PageMetadataKeys.PEN_MODEL.getKey(), penModel);
         return this;
     }
 
     public Page addMetadataPageNo(Integer pageNo) {
-        this.metadata.put(PageMetadataKeys.PAGE_NUMBER.getKey(), pageNo);
+        this.metadata = MetadataUtils.put(this.metadata, PageMetadataKeys.PAGE_NUMBER.getKey(), pageNo);
         return this;
     }
 
     public Page addMetadataCaptureError(CaptureError captureError) {
-        this.metadata.put(PageMetadataKeys.CAPTURE_ERROR.getKey(), captureError);
+        this.metadata = MetadataUtils.put(this.metadata, PageMetadataKeys.CAPTURE_ERROR.getKey(), captureError);
         return this;
     }
 
@@ -205,7 +222,7 @@ public class Page implements Serializable, Cloneable {
     }
 
     public Object getMetadata(String key) {
-        return this.metadata.get(key);
+        return MetadataUtils.get(this.metadata, key);
     }
 
     @Override
@@ -1,37 +1,67 @@
 package pt.up.hs.uhc.models;
 
+import pt.up.hs.uhc.utils.MetadataUtils;
+import pt.up.hs.uhc.utils.NumberUtils;
+
 import java.io.Serializable;
 import java.util.*;
 
 /**
  * A collection of {@link Dot}s.
  *
+ * Dots are stored column-wise in primitive arrays (x, y, pressure, timestamp
+ * and type), so that large strokes do not cost one object per sample.
+ * {@link Dot} instances are only materialized on demand (e.g., through
+ * {@link #getDots()} or {@link #getDot(int)}). Missing values are kept as
+ * {@link Double#NaN} for decimal columns and {@link #NO_TIMESTAMP} for
+ * timestamps.
+ *
  * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
  */
 public class Stroke implements Serializable, Cloneable {
 
+    public static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final byte NO_TYPE = -1;
+    private static final DotType[] DOT_TYPES = DotType.values();
+
     private Long startTime;
     private Long endTime;
-    private List<Dot> dots;
     private Map<String, Object> metadata;
 
+    // dot columns
+    private int size = 0;
+    private double[] xs;
+    private double[] ys;
+    private double[] pressures;
+    private long[] timestamps;
+    private byte[] types;
+    private Map<String, Object>[] dotMetadata;
+
     public Stroke() {
-        this.dots = new ArrayList<>();
-        this.metadata = new HashMap<>();
+        this.metadata = MetadataUtils.EMPTY;
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    public Stroke(int capacity) {
+        this.metadata = MetadataUtils.EMPTY;
+        allocate(capacity);
     }
 
     public Stroke(Long startTime, Long endTime) {
         this.startTime = startTime;
         this.endTime = endTime;
-        this.dots = new ArrayList<>();
-        this.metadata = new HashMap<>();
+        this.metadata = MetadataUtils.EMPTY;
+        allocate(DEFAULT_CAPACITY);
     }
 
     public Stroke(Long startTime, Long endTime, Map<String, Object> metadata, List<Dot> dots) {
         this.startTime = startTime;
         this.endTime = endTime;
         this.metadata = metadata;
-        this.dots = dots;
+        allocate(dots.size());
+        dots.forEach(this::addDot);
     }
 
     public Long getStartTime() {
@@ -60,28 +90,178 @@ public class Stroke implements Serializable, Cloneable {
         return this;
     }
 
+    /**
+     * Get a list view of the dots of this stroke. Each {@link Dot} is
+     * materialized from the columns when accessed, hence changes to a
+     * returned dot are not written back. Changing dots through
+     * {@code getDots().get(i)} is deprecated; use {@link List#set(int, Object)},
+     * {@link #setDot(int, Dot)} or the column setters (e.g.,
+     * {@link #setX(int, double)}) instead. Structural changes to the list
+     * (add, set, remove) are applied to the stroke.
+     *
+     * @return {@link List} view of the dots.
+     */
     public List<Dot> getDots() {
-        return dots;
+        return new DotList();
     }
 
     public void setDots(List<Dot> dots) {
-        this.dots = dots;
+        clearDots();
+        ensureCapacity(dots.size());
+        dots.forEach(this::addDot);
     }
 
     public Stroke dots(List<Dot> dots) {
-        this.dots = dots;
+        setDots(dots);
         return this;
     }
 
     public Stroke addDot(Dot dot) {
-        this.dots.add(dot);
+        insertDot(size, dot);
+        return this;
+    }
+
+    public Stroke addDot(double x, double y, long timestamp, DotType type, double pressure) {
+        ensureCapacity(size + 1);
+        xs[size] = x;
+        ys[size] = y;
+        timestamps[size] = timestamp;
+        types[size] = type == null ? NO_TYPE : (byte) type.ordinal();
+        pressures[size] = pressure;
+        size++;
         return this;
     }
 
+    /**
+     * Materialize the dot at the given index.
+     *
+     * @param index index of the dot.
+     * @return {@link Dot} a new dot with the values at {@code index}.
+     */
+    public Dot getDot(int index) {
+        checkIndex(index);
+        Map<String, Object> meta = dotMetadata != null ? dotMetadata[index] : null;
+        return new Dot(
+                NumberUtils.nanToNull(xs[index]),
+                NumberUtils.nanToNull(ys[index]),
+                timestamps[index] == NO_TIMESTAMP ? null : timestamps[index],
+                types[index] == NO_TYPE ? null : DOT_TYPES[types[index]],
+                NumberUtils.nanToNull(pressures[index]),
+                meta != null ? meta : MetadataUtils.EMPTY
+        );
+    }
+
+    public void setDot(int index, Dot dot) {
+        checkIndex(index);
+        writeDot(index, dot);
+    }
+
+    public int getDotCount() {
+        return size;
+    }
+
+    public double getX(int index) {
+        checkIndex(index);
+        return xs[index];
+    }
+
+    public void setX(int index, double x) {
+        checkIndex(index);
+        xs[index] = x;
+    }
+
+    public double getY(int index) {
+        checkIndex(index);
+        return ys[index];
+    }
+
+    public void setY(int index, double y) {
+        checkIndex(index);
+        ys[index] = y;
+    }
+
+    public double getPressure(int index) {
+        checkIndex(index);
+        return pressures[index];
+    }
+
+    public void setPressure(int index, double pressure) {
+        checkIndex(index);
+        pressures[index] = pressure;
+    }
+
+    public long getTimestamp(int index) {
+        checkIndex(index);
+        return timestamps[index];
+    }
+
+    public void setTimestamp(int index, long timestamp) {
+        checkIndex(index);
+        timestamps[index] = timestamp;
+    }
+
+    public DotType getType(int index) {
+        checkIndex(index);
+        return types[index] == NO_TYPE ? null : DOT_TYPES[types[index]];
+    }
+
+    public void setType(int index, DotType type) {
+        checkIndex(index);
+        types[index] = type == null ? NO_TYPE : (byte) type.ordinal();
+    }
+
+    /**
+     * Get the metadata of the dot at the given index.
+     *
+     * @param index index of the dot.
+     * @return {@link Map} metadata of the dot, or {@code null} if it has none.
+     */
+    public Map<String, Object> getDotMetadata(int index) {
+        checkIndex(index);
+        return dotMetadata != null ? dotMetadata[index] : null;
+    }
+
+    /**
+     * Ensure the dot columns can hold at least {@code capacity} dots without
+     * being reallocated.
+     *
+     * @param capacity minimum capacity.
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity <= xs.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, xs.length + (xs.length >> 1) + 1);
+        xs = Arrays.copyOf(xs, newCapacity);
+        ys = Arrays.copyOf(ys, newCapacity);
+        pressures = Arrays.copyOf(pressures, newCapacity);
+        timestamps = Arrays.copyOf(timestamps, newCapacity);
+        types = Arrays.copyOf(types, newCapacity);
+        if (dotMetadata != null) {
+            dotMetadata = Arrays.copyOf(dotMetadata, newCapacity);
+        }
+    }
+
+    /**
+     * Get the metadata map, which can be changed directly. The (shared,
+     * empty) initial map is replaced by a mutable one when first requested,
+     * so this method may allocate and change the stroke: it is not safe to call
+     * concurrently on the same stroke before it has metadata. Prefer
+     * {@link #hasMetadata()} to check whether there is metadata.
+     *
+     * @return {@link Map} the metadata map.
+     */
     public Map<String, Object> getMetadata() {
+        if (metadata == null || metadata == MetadataUtils.EMPTY) {
+            metadata = MetadataUtils.mutable(metadata);
+        }
         return metadata;
     }
 
+    public boolean hasMetadata() {
+        return metadata != null && !metadata.isEmpty();
+    }
+
     public void setMetadata(Map<String, Object> metadata) {
         this.metadata = metadata;
     }
@@ -92,12 +272,12 @@ public class Stroke implements Serializable, Cloneable {
     }
 
     public Stroke addMetadata(String key, Object value) {
-        this.metadata.put(key, value);
+        this.metadata = MetadataUtils.put(this.metadata, key, value);
         return this;
     }
 
     public Object getMetadata(String key) {
-        return this.metadata.get(key);
+        return MetadataUtils.get(this.metadata, key);
     }
 
     @Override
@@ -105,15 +285,36 @@ public class Stroke implements Serializable, Cloneable {
         if (this == o) return true;
         if (!(o instanceof Stroke)) return false;
         Stroke stroke = (Stroke) o;
-        return Objects.equals(startTime, stroke.startTime) &&
-                Objects.equals(endTime, stroke.endTime) &&
-                Objects.equals(dots, stroke.dots) &&
-                Objects.equals(metadata, stroke.metadata);
+        if (!Objects.equals(startTime, stroke.startTime) ||
+                !Objects.equals(endTime, stroke.endTime) ||
+                size != stroke.size ||
+                !Objects.equals(metadata, stroke.metadata)) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (Double.doubleToLongBits(xs[i]) != Double.doubleToLongBits(stroke.xs[i]) ||
+                    Double.doubleToLongBits(ys[i]) != Double.doubleToLongBits(stroke.ys[i]) ||
+                    Double.doubleToLongBits(pressures[i]) != Double.doubleToLongBits(stroke.pressures[i]) ||
+                    timestamps[i] != stroke.timestamps[i] ||
+                    types[i] != stroke.types[i] ||
+                    !dotMetadataEquals(getDotMetadata(i), stroke.getDotMetadata(i))) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(startTime, endTime, dots, metadata);
+        int result = Objects.hash(startTime, endTime, metadata);
+        for (int i = 0; i < size; i++) {
+            result = 31 * result + Double.hashCode(xs[i]);
+            result = 31 * result + Double.hashCode(ys[i]);
+            result = 31 * result + Long.hashCode(timestamps[i]);
+            result = 31 * result + types[i];
+            result = 31 * result + Double.hashCode(pressures[i]);
+        }
+        return result;
     }
 
     @Override
@@ -122,12 +323,144 @@ public class Stroke implements Serializable, Cloneable {
                 "startTime=" + startTime +
                 ", endTime=" + endTime +
                 ", metadata=" + metadata +
-                ", dots=" + dots +
+                ", dots=" + getDots() +
                 '}';
     }
 
     @Override
     public Stroke clone() throws CloneNotSupportedException {
-        return (Stroke) super.clone();
+        Stroke stroke = (Stroke) super.clone();
+        stroke.xs = xs.clone();
+        stroke.ys = ys.clone();
+        stroke.pressures = pressures.clone();
+        stroke.timestamps = timestamps.clone();
+        stroke.types = types.clone();
+        if (dotMetadata != null) {
+            stroke.dotMetadata = dotMetadata.clone();
+        }
+        return stroke;
+    }
+
+    private void allocate(int capacity) {
+        xs = new double[capacity];
+        ys = new double[capacity];
+        pressures = new double[capacity];
+        timestamps = new long[capacity];
+        types = new byte[capacity];
+    }
+
+    private void clearDots() {
+        size = 0;
+        dotMetadata = null;
+    }
+
+    private void writeDot(int index, Dot dot) {
+        xs[index] = NumberUtils.nullToNaN(dot.getX());
+        ys[index] = NumberUtils.nullToNaN(dot.getY());
+        pressures[index] = NumberUtils.nullToNaN(dot.getPressure());
+        timestamps[index] = dot.getTimestamp() == null ? NO_TIMESTAMP : dot.getTimestamp();
+        types[index] = dot.getType() == null ? NO_TYPE : (byte) dot.getType().ordinal();
+
+        if (dot.hasMetadata()) {
+            if (dotMetadata == null) {
+                dotMetadata = newMetadataArray(xs.length);
+            }
+            dotMetadata[index] = dot.getMetadata();
+        } else if (dotMetadata != null) {
+            dotMetadata[index] = null;
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Map<String, Object>[] newMetadataArray(int length) {
+        return (Map<String, Object>[]) new Map[length];
+    }
+
+    private void insertDot(int index, Dot dot) {
+        ensureCapacity(size + 1);
+        shift(index, index + 1, size - index);
+        size++;
+        writeDot(index, dot);
+    }
+
+    private void removeDot(int index) {
+        shift(index + 1, index, size - index - 1);
+        size--;
+        if (dotMetadata != null) {
+            dotMetadata[size] = null;
+        }
+    }
+
+    private void shift(int from, int to, int length) {
+        if (length <= 0) {
+            return;
+        }
+        System.arraycopy(xs, from, xs, to, length);
+        System.arraycopy(ys, from, ys, to, length);
+        System.arraycopy(pressures, from, pressures, to, length);
+        System.arraycopy(timestamps, from, timestamps, to, length);
+        System.arraycopy(types, from, types, to, length);
+        if (dotMetadata != null) {
+            System.arraycopy(dotMetadata, from, dotMetadata, to, length);
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private static boolean dotMetadataEquals(Map<String, Object> m1, Map<String, Object> m2) {
+        if (m1 == null || m1.isEmpty()) {
+            return m2 == null || m2.isEmpty();
+        }
+        return m1.equals(m2);
+    }
+
+    /**
+     * List view over the dot columns of the enclosing stroke.
+     */
+    private class DotList extends AbstractList<Dot> implements RandomAccess {
+
+        @Override
+        public Dot get(int index) {
+            return getDot(index);
+        }
+
+        @Override
+        public Dot set(int index, Dot dot) {
+            Dot previous = getDot(index);
+            writeDot(index, dot);
+            return previous;
+        }
+
+        @Override
+        public void add(int index, Dot dot) {
+            if (index < 0 || index > size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            insertDot(index, dot);
+            modCount++;
+        }
+
+        @Override
+        public Dot remove(int index) {
+            Dot previous = getDot(index);
+            removeDot(index);
+            modCount++;
+            return previous;
+        }
+
+        @Override
+        public void clear() {
+            clearDots();
+            modCount++;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
     }
 }
@@ -3,17 +3,22 @@ package pt.up.hs.uhc.neonotes;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import pt.up.hs.uhc.base.BaseArchiveReader;
+import pt.up.hs.uhc.base.OrderedPageDecoder;
 import pt.up.hs.uhc.base.PageReader;
 import pt.up.hs.uhc.models.CaptureError;
-import pt.up.hs.uhc.models.Dot;
+import pt.up.hs.uhc.models.DotType;
 import pt.up.hs.uhc.models.Page;
 import pt.up.hs.uhc.models.Stroke;
 import pt.up.hs.uhc.utils.PageUtils;
+import pt.up.hs.uhc.utils.StreamUtils;
 
 import java.io.*;
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.util.ArrayList;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
@@ -37,29 +42,74 @@ public class NeoNotesReader extends BaseArchiveReader implements PageReader {
     private static final int DOT_SIZE = 3 * NUMBER_SIZE + BYTE_SIZE;
 
     // reader props
-    private static final int BUFFER_SIZE = 4096;
+    private int threads = 1;
+
+    /**
+     * Set the number of threads used to decode the pages of an archive.
+     * Entries are always inflated on the calling thread, while page
+     * decoding is handed to a bounded pool of {@code threads} workers if
+     * {@code threads > 1}. Pages are returned in archive order.
+     *
+     * @param threads number of decoding threads.
+     * @return {@link NeoNotesReader} this reader.
+     */
+    public NeoNotesReader threads(int threads) {
+        this.threads = threads;
+        return this;
+    }
 
     @Override
     public Page readSingle(File file) throws Exception {
-        return readSingle(new FileInputStream(file));
+        return readSingle(file.toPath());
     }
 
     @Override
     public Page readSingle(InputStream inputStream) throws IOException {
+        try (InputStream is = inputStream) {
+            return readSingle(ByteBuffer.wrap(StreamUtils.readAllBytes(is)));
+        }
+    }
+
+    /**
+     * Reads a page of Neo Notes data from a file, memory-mapping its
+     * contents.
+     *
+     * @param path {@link Path} path to the "page.data" file.
+     * @return {@link Page} data from page.
+     * @throws IOException if an exception occurs while reading data.
+     */
+    public Page readSingle(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return readSingle(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Reads a page of Neo Notes data from a buffer with the contents of a
+     * "page.data" file, starting at its current position. The position of
+     * the given buffer is not modified.
+     *
+     * @param buffer {@link ByteBuffer} buffer with page data.
+     * @return {@link Page} data from page.
+     * @throws IOException if the data is truncated.
+     */
+    public Page readSingle(ByteBuffer buffer) throws IOException {
+
+        ByteBuffer data = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
 
         Page page = new Page();
 
         // see https://github.com/NeoSmartpen/Documentations/blob/master/NeoNote_data_Eng_V1.0.pdf
-        try (BufferedInputStream bufferedStream = new BufferedInputStream(inputStream)) {
-            ByteBuffer headerBuffer = getByteBuffer(bufferedStream, HEADER_SIZE);
+        try {
+            ensureRemaining(data, HEADER_SIZE);
 
             // read header metadata
-            String id = getString(headerBuffer, ID_SIZE);
-            int version = headerBuffer.getInt();
-            int noteType = headerBuffer.getInt();
-            int pageNo = headerBuffer.getInt();
-            double w = headerBuffer.getFloat();
-            double h = headerBuffer.getFloat();
+            String id = getString(data, ID_SIZE);
+            int version = data.getInt();
+            int noteType = data.getInt();
+            int pageNo = data.getInt();
+            double w = data.getFloat();
+            double h = data.getFloat();
             NCodePaperSize size = NCodePaperSize.getPaperSizeFor(
                     noteType,
                     w * Constants.NCODE_COORDINATES_TO_MM_FACTOR,
@@ -77,26 +127,27 @@ public class NeoNotesReader extends BaseArchiveReader implements PageReader {
                     .marginTop(size.getMarginTop())
                     .marginRight(size.getMarginRight())
                     .marginBottom(size.getMarginBottom())
-                    .addMetadata("createdTime", headerBuffer.getLong())
-                    .addMetadata("modifiedTime", headerBuffer.getLong())
-                    .addMetadata("dirtyBit", headerBuffer.get() != 0);
+                    .addMetadata("createdTime", data.getLong())
+                    .addMetadata("modifiedTime", data.getLong())
+                    .addMetadata("dirtyBit", data.get() != 0);
 
-            int nStrokes = headerBuffer.getInt();
+            int nStrokes = data.getInt();
 
             // read strokes
             for (int c = 0; c < nStrokes; c++) {
-                int kind = getByteBuffer(bufferedStream, BYTE_SIZE).get();
+                int kind = data.get();
                 if (kind == 0) { // ignore voice memo
-                    page.addStroke(readStroke(bufferedStream));
+                    page.addStroke(readStroke(data));
                 }
             }
 
             // read GUID of page
-            int guidStringSize = getByteBuffer(bufferedStream, NUMBER_SIZE).getInt();
-            page.addMetadata("pageGuidString", getString(
-                    getByteBuffer(bufferedStream, guidStringSize),
-                    guidStringSize)
-            );
+            int guidStringSize = data.getInt();
+            ensureRemaining(data, guidStringSize);
+            page.addMetadata("pageGuidString", getString(data, guidStringSize));
+
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Unexpected end of Neo Notes page data.", e);
         }
 
         if (PageUtils.hasOverlappingStrokes(page)) {
@@ -114,120 +165,121 @@ public class NeoNotesReader extends BaseArchiveReader implements PageReader {
 
     @Override
     public List<Page> readArchive(ZipInputStream zis) throws Exception {
-        List<Page> pages = new ArrayList<>();
-        ZipEntry zipEntry;
-        while ((zipEntry = zis.getNextEntry()) != null) {
-            if (zipEntry.getName().endsWith(".data")) {
-                byte[] bytes = new byte[BUFFER_SIZE];
-                ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                int count;
-                while ((count = zis.read(bytes)) > 0) {
-                    baos.write(bytes, 0, count);
+        try (OrderedPageDecoder decoder = new OrderedPageDecoder(this::readPageEntry, threads)) {
+            ZipEntry zipEntry;
+            while ((zipEntry = zis.getNextEntry()) != null) {
+                if (isPageEntry(zipEntry.getName())) {
+                    decoder.submit(StreamUtils.readAllBytes(zis, zipEntry.getSize()));
                 }
-
-                pages.add(readSingle(new ByteArrayInputStream(baos.toByteArray())));
-
-                baos.close();
+                zis.closeEntry();
             }
-            zis.closeEntry();
+            return decoder.finish();
+        } finally {
+            zis.close();
         }
-        zis.close();
-        return pages;
     }
 
     @Override
     public List<Page> readArchive(TarArchiveInputStream tais) throws Exception {
-        List<Page> pages = new ArrayList<>();
-        TarArchiveEntry tarEntry;
-        while ((tarEntry = (TarArchiveEntry) tais.getNextEntry()) != null) {
-            if (tarEntry.getName().endsWith(".data")) {
-                byte[] bytes = new byte[BUFFER_SIZE];
-                ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                int count;
-                while ((count = tais.read(bytes)) > 0) {
-                    baos.write(bytes, 0, count);
+        try (OrderedPageDecoder decoder = new OrderedPageDecoder(this::readPageEntry, threads)) {
+            TarArchiveEntry tarEntry;
+            while ((tarEntry = (TarArchiveEntry) tais.getNextEntry()) != null) {
+                if (isPageEntry(tarEntry.getName())) {
+                    decoder.submit(StreamUtils.readAllBytes(tais, tarEntry.getSize()));
                 }
-
-                pages.add(readSingle(new ByteArrayInputStream(baos.toByteArray())));
-
-                baos.close();
             }
+            return decoder.finish();
+        } finally {
+            tais.close();
         }
-        tais.close();
-        return pages;
+    }
+
+    @Override
+    protected boolean isPageEntry(String name) {
+        return name.endsWith(".data");
+    }
+
+    @Override
+    protected Page readPageEntry(byte[] bytes) throws IOException {
+        return readSingle(bytes);
     }
 
     /**
-     * Read a stroke from the given {@link BufferedInputStream}.
+     * Reads a page of Neo Notes data from the contents of a "page.data" file.
      *
-     * @param bufferedStream {@link BufferedInputStream} stream with strokes.
-     * @return {@link Stroke} stroke read from input stream
-     * @throws IOException if an exception occurs while reading data.
+     * @param bytes {@code byte[]} contents of the page file.
+     * @return {@link Page} data from page.
+     * @throws IOException if the data is truncated.
      */
-    private Stroke readStroke(BufferedInputStream bufferedStream) throws IOException {
+    public Page readSingle(byte[] bytes) throws IOException {
+        return readSingle(ByteBuffer.wrap(bytes));
+    }
 
-        Stroke stroke = new Stroke();
+    /**
+     * Read a stroke from the given little-endian {@link ByteBuffer}, starting
+     * at its current position.
+     *
+     * @param data {@link ByteBuffer} buffer with strokes.
+     * @return {@link Stroke} stroke read from buffer
+     */
+    private Stroke readStroke(ByteBuffer data) {
 
         // read header metadata
-        ByteBuffer headerBuffer = getByteBuffer(bufferedStream, STROKE_HEADER_SIZE);
+        ensureRemaining(data, STROKE_HEADER_SIZE);
+        int color = data.getInt();
+        int thickness = data.get();
+        int nDots = data.getInt();
+        ensureRemaining(data, LONG_SIZE + (long) nDots * DOT_SIZE);
 
-        stroke
-                .addMetadata("color", headerBuffer.getInt())
-                .addMetadata("thickness", (int) headerBuffer.get());
-
-        int nDots = headerBuffer.getInt();
-
-        stroke.setStartTime(headerBuffer.getLong());
+        Stroke stroke = new Stroke(nDots)
+                .addMetadata("color", color)
+                .addMetadata("thickness", thickness)
+                .startTime(data.getLong());
 
         // read dots
         long time = stroke.getStartTime();
         for (int c = 0; c < nDots; c++) {
-            ByteBuffer dotBuffer = getByteBuffer(bufferedStream, DOT_SIZE);
-
-            double x = dotBuffer.getFloat();
-            double y = dotBuffer.getFloat();
+            double x = data.getFloat();
+            double y = data.getFloat();
+            double pressure = data.getFloat();
 
-            Dot dot = new Dot()
-                    .x(x * Constants.NCODE_COORDINATES_TO_MM_FACTOR)
-                    .y(y * Constants.NCODE_COORDINATES_TO_MM_FACTOR)
-                    .pressure((double) dotBuffer.getFloat());
-
-            int timeDiff = 0xFF & dotBuffer.get();
+            int timeDiff = 0xFF & data.get();
 
             time += timeDiff;
 
-            stroke.addDot(dot.timestamp(time));
+            stroke.addDot(
+                    x * Constants.NCODE_COORDINATES_TO_MM_FACTOR,
+                    y * Constants.NCODE_COORDINATES_TO_MM_FACTOR,
+                    time,
+                    DotType.DOWN,
+                    pressure
+            );
         }
 
         stroke.endTime(time);
 
-        int extraDataLength = 0xFF & getByteBuffer(bufferedStream, BYTE_SIZE).get();
-        getByteBuffer(bufferedStream, extraDataLength);
+        // skip extra data
+        ensureRemaining(data, 1);
+        int extraDataLength = 0xFF & data.get();
+        ensureRemaining(data, extraDataLength);
+        data.position(data.position() + extraDataLength);
 
         return stroke;
     }
 
-
     /**
-     * Create from buffered input stream a byte buffer with requested size for
-     * reading values.
+     * Ensure the buffer still has, at least, the requested number of bytes.
      *
-     * @param bufferedStream {@link BufferedInputStream} Input stream to read
-     *                       from.
-     * @param size           Size in bytes to read.
-     * @return {@link ByteBuffer} buffer with {@code size} bytes read from
-     * input stream.
-     * @throws IOException if an error occurs while reading the input stream.
+     * @param buffer {@link ByteBuffer} buffer to check
+     * @param size   {@code long} number of bytes required
+     * @throws BufferUnderflowException if there are not enough bytes left
      */
-    private ByteBuffer getByteBuffer(BufferedInputStream bufferedStream, int size) throws IOException {
-        byte[] backBuffer = new byte[size];
-        bufferedStream.read(backBuffer);
-        ByteBuffer headerBuffer = ByteBuffer.wrap(backBuffer);
-        headerBuffer.order(ByteOrder.LITTLE_ENDIAN);
-        return headerBuffer;
+    private void ensureRemaining(ByteBuffer buffer, long size) {
+        if (size < 0 || buffer.remaining() < size) {
+            throw new BufferUnderflowException();
+        }
     }
 
-
     /**
      * Get from buffer a string with requested size
      *
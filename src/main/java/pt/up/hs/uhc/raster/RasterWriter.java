@@ -0,0 +1,171 @@
+package pt.up.hs.uhc.raster;
+
+import pt.up.hs.uhc.base.PageWriter;
+import pt.up.hs.uhc.exceptions.UnsupportedFormatException;
+import pt.up.hs.uhc.models.Page;
+import pt.up.hs.uhc.models.Stroke;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+/**
+ * Writer for raster images (PNG or JPEG), rendered with Java2D (which
+ * works in headless environments).
+ *
+ * The page (or, without dimensions, the area from the origin to its
+ * farthest dot) is scaled to fit the requested size, keeping its aspect
+ * ratio. Strokes are drawn in black over white (see {@link StrokePainter}).
+ * The image, graphics and encoder are reused across pages of the same
+ * size, so a writer should not be shared by threads.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+public class RasterWriter implements PageWriter {
+
+    /**
+     * Type of image.
+     */
+    public enum ImageType {
+        PNG("png"),
+        JPEG("jpeg");
+
+        private final String formatName;
+
+        ImageType(String formatName) {
+            this.formatName = formatName;
+        }
+
+        public String getFormatName() {
+            return formatName;
+        }
+    }
+
+    private ImageType imageType = ImageType.PNG;
+    private int maxWidth = 512;
+    private int maxHeight = 512;
+
+    // buffers reused across pages
+    private BufferedImage image;
+    private Graphics2D graphics;
+    private ImageWriter imageWriter;
+    private final StrokePainter painter = new StrokePainter();
+
+    /**
+     * Set the type of image (default: {@link ImageType#PNG}).
+     *
+     * @param imageType {@link ImageType} type of image.
+     * @return {@link RasterWriter} this writer.
+     */
+    public RasterWriter imageType(ImageType imageType) {
+        if (imageType != this.imageType) {
+            disposeImageWriter();
+        }
+        this.imageType = imageType;
+        return this;
+    }
+
+    /**
+     * Set the maximum size of images, in pixels (default: 512x512). Pages
+     * are scaled to fit both, keeping their aspect ratio. Either may be
+     * {@code 0}, to constrain only the other one.
+     *
+     * @param maxWidth  maximum width, in pixels.
+     * @param maxHeight maximum height, in pixels.
+     * @return {@link RasterWriter} this writer.
+     */
+    public RasterWriter size(int maxWidth, int maxHeight) {
+        if (maxWidth < 0 || maxHeight < 0 || (maxWidth == 0 && maxHeight == 0)) {
+            throw new IllegalArgumentException("Size must be positive.");
+        }
+        this.maxWidth = maxWidth;
+        this.maxHeight = maxHeight;
+        return this;
+    }
+
+    @Override
+    public void writeSingle(Page page, OutputStream os) throws Exception {
+        render(page);
+        try (ImageOutputStream ios = new MemoryCacheImageOutputStream(os)) {
+            ImageWriter writer = getImageWriter();
+            writer.setOutput(ios);
+            try {
+                writer.write(image);
+            } finally {
+                writer.setOutput(null);
+            }
+        }
+        os.flush();
+    }
+
+    /**
+     * Render a page into the reused image. The image is overwritten by the
+     * next page rendered or written, so copy it to keep it.
+     *
+     * @param page {@link Page} the page.
+     * @return {@link BufferedImage} the image with the page, owned by this
+     * writer.
+     */
+    public BufferedImage render(Page page) {
+
+        double[] pageSize = StrokePainter.getPageSize(page);
+        double pageWidth = pageSize[0];
+        double pageHeight = pageSize[1];
+
+        double scale = Math.min(
+                maxWidth > 0 ? maxWidth / pageWidth : Double.MAX_VALUE,
+                maxHeight > 0 ? maxHeight / pageHeight : Double.MAX_VALUE
+        );
+        int width = Math.max(1, (int) Math.round(pageWidth * scale));
+        int height = Math.max(1, (int) Math.round(pageHeight * scale));
+
+        prepare(width, height);
+
+        for (Stroke stroke: page.getStrokes()) {
+            painter.paint(graphics, stroke, scale, 0D, 0D);
+        }
+
+        return image;
+    }
+
+    private void prepare(int width, int height) {
+
+        if (image == null || image.getWidth() != width || image.getHeight() != height) {
+            if (graphics != null) {
+                graphics.dispose();
+            }
+            // ink is black, so gray levels are enough (and faster to encode)
+            image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+            graphics = image.createGraphics();
+            StrokePainter.setRenderingHints(graphics);
+        }
+
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, width, height);
+        graphics.setColor(Color.BLACK);
+    }
+
+    private ImageWriter getImageWriter() {
+        if (imageWriter == null) {
+            Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(imageType.getFormatName());
+            if (!writers.hasNext()) {
+                throw new UnsupportedFormatException();
+            }
+            imageWriter = writers.next();
+        }
+        return imageWriter;
+    }
+
+    private void disposeImageWriter() {
+        if (imageWriter != null) {
+            imageWriter.dispose();
+            imageWriter = null;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package pt.up.hs.uhc.raster;
+
+import pt.up.hs.uhc.models.Page;
+import pt.up.hs.uhc.models.Stroke;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Spatial index of the strokes of a page, to find those which may intersect
+ * an area without testing all of them.
+ *
+ * The area of the page is split into a uniform grid of cells (about as
+ * many as strokes), and each stroke is listed in the cells overlapped by
+ * its bounding box, enlarged by half of its width.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+class StrokeIndex {
+
+    private static final int MAX_CELLS_PER_SIDE = 128;
+
+    private final List<Stroke> strokes;
+
+    // bounding boxes of strokes (min x, min y, max x, max y), NaN if empty
+    private final double[] bounds;
+
+    private final int side;
+    private final double cellWidth;
+    private final double cellHeight;
+    private final int[][] cells;
+    private final int[] cellSizes;
+
+    StrokeIndex(Page page, double width, double height) {
+
+        this.strokes = page.getStrokes();
+
+        int count = strokes.size();
+        this.bounds = new double[count * 4];
+        this.side = Math.max(1, Math.min(MAX_CELLS_PER_SIDE, (int) Math.ceil(Math.sqrt(count))));
+        this.cellWidth = width / side;
+        this.cellHeight = height / side;
+        this.cells = new int[side * side][];
+        this.cellSizes = new int[side * side];
+
+        for (int s = 0; s < count; s++) {
+            computeBounds(s, strokes.get(s));
+            if (Double.isNaN(bounds[s * 4])) {
+                continue;
+            }
+            int column1 = column(bounds[s * 4]);
+            int row1 = row(bounds[s * 4 + 1]);
+            int column2 = column(bounds[s * 4 + 2]);
+            int row2 = row(bounds[s * 4 + 3]);
+            for (int row = row1; row <= row2; row++) {
+                for (int column = column1; column <= column2; column++) {
+                    add(row * side + column, s);
+                }
+            }
+        }
+    }
+
+    Stroke getStroke(int index) {
+        return strokes.get(index);
+    }
+
+    /**
+     * Find the strokes whose bounding boxes intersect an area.
+     *
+     * @param x1 left of the area.
+     * @param y1 top of the area.
+     * @param x2 right of the area.
+     * @param y2 bottom of the area.
+     * @return {@code int[]} indices of the strokes, in order.
+     */
+    int[] query(double x1, double y1, double x2, double y2) {
+
+        int column1 = column(x1);
+        int row1 = row(y1);
+        int column2 = column(x2);
+        int row2 = row(y2);
+
+        int total = 0;
+        for (int row = row1; row <= row2; row++) {
+            for (int column = column1; column <= column2; column++) {
+                total += cellSizes[row * side + column];
+            }
+        }
+
+        int[] candidates = new int[total];
+        int count = 0;
+        for (int row = row1; row <= row2; row++) {
+            for (int column = column1; column <= column2; column++) {
+                int cell = row * side + column;
+                if (cellSizes[cell] > 0) {
+                    System.arraycopy(cells[cell], 0, candidates, count, cellSizes[cell]);
+                    count += cellSizes[cell];
+                }
+            }
+        }
+        Arrays.sort(candidates);
+
+        // drop duplicates (strokes in several cells) and misses
+        int found = 0;
+        for (int k = 0; k < count; k++) {
+            int s = candidates[k];
+            if (found > 0 && candidates[found - 1] == s) {
+                continue;
+            }
+            if (bounds[s * 4] <= x2 && bounds[s * 4 + 2] >= x1
+                    && bounds[s * 4 + 1] <= y2 && bounds[s * 4 + 3] >= y1) {
+                candidates[found++] = s;
+            }
+        }
+        return Arrays.copyOf(candidates, found);
+    }
+
+    private void computeBounds(int s, Stroke stroke) {
+
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        double sumPressure = 0D;
+        int drawable = 0;
+        for (int i = 0; i < stroke.getDotCount(); i++) {
+            double x = stroke.getX(i);
+            double y = stroke.getY(i);
+            if (Double.isNaN(x) || Double.isNaN(y)) {
+                continue;
+            }
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+            double pressure = stroke.getPressure(i);
+            sumPressure += pressure > 0 ? pressure : StrokePainter.DEFAULT_PRESSURE;
+            drawable++;
+        }
+
+        if (drawable == 0) {
+            Arrays.fill(bounds, s * 4, s * 4 + 4, Double.NaN);
+            return;
+        }
+
+        double halfWidth = sumPressure / drawable / 2;
+        bounds[s * 4] = minX - halfWidth;
+        bounds[s * 4 + 1] = minY - halfWidth;
+        bounds[s * 4 + 2] = maxX + halfWidth;
+        bounds[s * 4 + 3] = maxY + halfWidth;
+    }
+
+    private void add(int cell, int s) {
+        if (cells[cell] == null) {
+            cells[cell] = new int[4];
+        } else if (cellSizes[cell] == cells[cell].length) {
+            cells[cell] = Arrays.copyOf(cells[cell], cells[cell].length * 2);
+        }
+        cells[cell][cellSizes[cell]++] = s;
+    }
+
+    private int column(double x) {
+        return clamp((int) Math.floor(x / cellWidth));
+    }
+
+    private int row(double y) {
+        return clamp((int) Math.floor(y / cellHeight));
+    }
+
+    private int clamp(int i) {
+        return Math.max(0, Math.min(side - 1, i));
+    }
+}
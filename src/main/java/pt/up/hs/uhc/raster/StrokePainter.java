@@ -0,0 +1,127 @@
+package pt.up.hs.uhc.raster;
+
+import pt.up.hs.uhc.models.Page;
+import pt.up.hs.uhc.models.Rect;
+import pt.up.hs.uhc.models.Stroke;
+import pt.up.hs.uhc.utils.PageUtils;
+import pt.up.hs.uhc.utils.SimplificationUtils;
+
+import java.awt.BasicStroke;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+
+/**
+ * Painter of strokes into Java2D graphics, as paths whose width is the
+ * average pressure of their dots (as in the SVG writer). Strokes are
+ * simplified beforehand to drop dots which would move them by less than a
+ * quarter of a pixel. Buffers are reused across strokes, so a painter
+ * should not be shared by threads.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+class StrokePainter {
+
+    // stroke width of dots without pressure
+    static final double DEFAULT_PRESSURE = 0.5D;
+
+    // thinner lines would be barely visible
+    static final float MIN_STROKE_WIDTH = 1F;
+
+    // maximum shape error of simplified strokes, in pixels
+    private static final double SIMPLIFICATION_TOLERANCE = 0.25D;
+
+    private final Path2D.Float path = new Path2D.Float();
+    private final Ellipse2D.Float dot = new Ellipse2D.Float();
+    private int[] indices = new int[256];
+
+    /**
+     * Get the size of the area of a page to paint: its dimensions or,
+     * without them, the area from the origin to its farthest dot.
+     *
+     * @param page {@link Page} the page.
+     * @return {@code double[]} width and height, both positive.
+     */
+    static double[] getPageSize(Page page) {
+
+        double width;
+        double height;
+        if (page.getWidth() != null && page.getHeight() != null) {
+            width = page.getWidth();
+            height = page.getHeight();
+        } else {
+            Rect rect = PageUtils.getBoundingRect(page);
+            width = page.getWidth() != null ? page.getWidth() : rect.getX2();
+            height = page.getHeight() != null ? page.getHeight() : rect.getY2();
+        }
+        if (!(width > 0) || !(height > 0)) {
+            return new double[] { 1D, 1D };
+        }
+        return new double[] { width, height };
+    }
+
+    /**
+     * Set the rendering hints used to paint strokes.
+     *
+     * @param graphics {@link Graphics2D} the graphics.
+     */
+    static void setRenderingHints(Graphics2D graphics) {
+        graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        graphics.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+        graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+    }
+
+    /**
+     * Paint a stroke, mapping page coordinates {@code (x, y)} into pixels
+     * {@code (x * scale - offsetX, y * scale - offsetY)}.
+     *
+     * @param graphics {@link Graphics2D} the graphics.
+     * @param stroke   {@link Stroke} the stroke.
+     * @param scale    pixels per page unit.
+     * @param offsetX  horizontal offset, in pixels.
+     * @param offsetY  vertical offset, in pixels.
+     */
+    void paint(Graphics2D graphics, Stroke stroke, double scale, double offsetX, double offsetY) {
+
+        int count = stroke.getDotCount();
+        if (indices.length < count) {
+            indices = new int[Math.max(count, indices.length * 2)];
+        }
+
+        double sumPressure = 0D;
+        int drawable = 0;
+        for (int i = 0; i < count; i++) {
+            if (!Double.isNaN(stroke.getX(i)) && !Double.isNaN(stroke.getY(i))) {
+                indices[drawable++] = i;
+                double pressure = stroke.getPressure(i);
+                sumPressure += pressure > 0 ? pressure : DEFAULT_PRESSURE;
+            }
+        }
+        if (drawable == 0) {
+            return;
+        }
+
+        float width = Math.max(MIN_STROKE_WIDTH, (float) (sumPressure / drawable * scale));
+
+        int kept = SimplificationUtils.simplify(stroke, indices, drawable, SIMPLIFICATION_TOLERANCE / scale);
+        if (kept == 1) {
+            dot.setFrame(
+                    stroke.getX(indices[0]) * scale - offsetX - width / 2,
+                    stroke.getY(indices[0]) * scale - offsetY - width / 2,
+                    width, width
+            );
+            graphics.fill(dot);
+            return;
+        }
+
+        path.reset();
+        path.moveTo(stroke.getX(indices[0]) * scale - offsetX, stroke.getY(indices[0]) * scale - offsetY);
+        for (int k = 1; k < kept; k++) {
+            path.lineTo(stroke.getX(indices[k]) * scale - offsetX, stroke.getY(indices[k]) * scale - offsetY);
+        }
+
+        graphics.setStroke(new BasicStroke(width, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+        graphics.draw(path);
+    }
+}
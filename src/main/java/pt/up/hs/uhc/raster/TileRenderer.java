@@ -0,0 +1,338 @@
+package pt.up.hs.uhc.raster;
+
+import pt.up.hs.uhc.models.Page;
+import pt.up.hs.uhc.models.Stroke;
+
+import javax.imageio.ImageIO;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+
+/**
+ * Renderer of pages into square tiles, for zoomable viewers.
+ *
+ * At zoom level {@code 0}, the page (see {@link RasterWriter} for pages
+ * without dimensions) fits a single tile; each level doubles its size in
+ * pixels. Tiles are addressed by their column and row, from the top-left
+ * corner. Only the strokes which may intersect a tile, found through a
+ * spatial index of the page, are drawn into it.
+ *
+ * Rendered tiles are kept in a bounded cache, evicting the least recently
+ * used, keyed by a hash of the content of the page. Hence, opening a page
+ * again (or a copy of it) reuses its tiles, while changing it does not.
+ * Cached tiles are shared, so they must not be modified. Tiles may be
+ * requested by several threads.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+public class TileRenderer {
+
+    private static final int MAX_ZOOM = 20;
+
+    private int tileSize = 256;
+    private final TileCache cache = new TileCache(256);
+
+    /**
+     * Set the size of the side of tiles, in pixels (default: 256).
+     *
+     * @param tileSize size of tiles, in pixels.
+     * @return {@link TileRenderer} this renderer.
+     */
+    public TileRenderer tileSize(int tileSize) {
+        if (tileSize <= 0) {
+            throw new IllegalArgumentException("Tile size must be positive.");
+        }
+        synchronized (cache) {
+            this.tileSize = tileSize;
+            cache.clear();
+        }
+        return this;
+    }
+
+    /**
+     * Set the maximum number of cached tiles (default: 256).
+     *
+     * @param cacheSize maximum number of cached tiles ({@code 0} disables
+     *                  the cache).
+     * @return {@link TileRenderer} this renderer.
+     */
+    public TileRenderer cacheSize(int cacheSize) {
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("Cache size must not be negative.");
+        }
+        synchronized (cache) {
+            cache.maxSize = cacheSize;
+            cache.trim();
+        }
+        return this;
+    }
+
+    /**
+     * Prepare a page to render its tiles, hashing its content and building
+     * its spatial index. The page must not be changed while its tiles are
+     * rendered; open it again after changing it.
+     *
+     * @param page {@link Page} the page.
+     * @return {@link TiledPage} the page prepared to render tiles.
+     */
+    public TiledPage open(Page page) {
+        return new TiledPage(page);
+    }
+
+    /**
+     * Compute a hash of the content of a page which is drawn (dimensions,
+     * coordinates and pressures of dots, and their split into strokes).
+     *
+     * @param page {@link Page} the page.
+     * @return {@code long} the hash.
+     */
+    public static long contentHash(Page page) {
+
+        long hash = 0x9E3779B97F4A7C15L;
+        hash = mix(hash, Double.doubleToLongBits(page.getWidth() == null ? Double.NaN : page.getWidth()));
+        hash = mix(hash, Double.doubleToLongBits(page.getHeight() == null ? Double.NaN : page.getHeight()));
+        for (Stroke stroke: page.getStrokes()) {
+            hash = mix(hash, stroke.getDotCount());
+            for (int i = 0; i < stroke.getDotCount(); i++) {
+                hash = mix(hash, Double.doubleToLongBits(stroke.getX(i)));
+                hash = mix(hash, Double.doubleToLongBits(stroke.getY(i)));
+                hash = mix(hash, Double.doubleToLongBits(stroke.getPressure(i)));
+            }
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        return Long.rotateLeft(hash ^ (value * 0xC2B2AE3D27D4EB4FL), 31) * 0x9E3779B97F4A7C15L;
+    }
+
+    /**
+     * A page prepared to render its tiles.
+     */
+    public class TiledPage {
+
+        private final Page page;
+        private final long contentHash;
+        private final double width;
+        private final double height;
+        private final StrokeIndex index;
+
+        private TiledPage(Page page) {
+            this.page = page;
+            this.contentHash = contentHash(page);
+            double[] size = StrokePainter.getPageSize(page);
+            this.width = size[0];
+            this.height = size[1];
+            this.index = new StrokeIndex(page, width, height);
+        }
+
+        public Page getPage() {
+            return page;
+        }
+
+        public long getContentHash() {
+            return contentHash;
+        }
+
+        /**
+         * Get the number of pixels per page unit at a zoom level.
+         *
+         * @param zoom zoom level.
+         * @return {@code double} pixels per page unit.
+         */
+        public double getScale(int zoom) {
+            checkZoom(zoom);
+            return (double) tileSize * (1L << zoom) / Math.max(width, height);
+        }
+
+        /**
+         * Get the number of columns of tiles at a zoom level.
+         *
+         * @param zoom zoom level.
+         * @return number of columns.
+         */
+        public int getColumns(int zoom) {
+            return Math.max(1, (int) Math.ceil(width * getScale(zoom) / tileSize - 1e-9));
+        }
+
+        /**
+         * Get the number of rows of tiles at a zoom level.
+         *
+         * @param zoom zoom level.
+         * @return number of rows.
+         */
+        public int getRows(int zoom) {
+            return Math.max(1, (int) Math.ceil(height * getScale(zoom) / tileSize - 1e-9));
+        }
+
+        /**
+         * Get a tile, rendering it unless it is cached.
+         *
+         * @param zoom   zoom level.
+         * @param column column of the tile.
+         * @param row    row of the tile.
+         * @return {@link BufferedImage} the tile (not to be modified).
+         */
+        public BufferedImage getTile(int zoom, int column, int row) {
+
+            if (column < 0 || column >= getColumns(zoom) || row < 0 || row >= getRows(zoom)) {
+                throw new IllegalArgumentException(
+                        String.format("No tile (%d, %d) at zoom level %d.", column, row, zoom)
+                );
+            }
+
+            int size;
+            TileKey key;
+            synchronized (cache) {
+                size = tileSize;
+                key = new TileKey(contentHash, size, zoom, column, row);
+                BufferedImage tile = cache.get(key);
+                if (tile != null) {
+                    return tile;
+                }
+            }
+
+            BufferedImage tile = render(size, zoom, column, row);
+
+            synchronized (cache) {
+                if (size == tileSize && cache.maxSize > 0) {
+                    cache.put(key, tile);
+                }
+            }
+            return tile;
+        }
+
+        /**
+         * Write a tile as PNG.
+         *
+         * @param zoom   zoom level.
+         * @param column column of the tile.
+         * @param row    row of the tile.
+         * @param os     {@link OutputStream} output to write the tile to.
+         * @throws IOException if the tile could not be written.
+         */
+        public void writeTile(int zoom, int column, int row, OutputStream os) throws IOException {
+            BufferedImage tile = getTile(zoom, column, row);
+            try (ImageOutputStream ios = new MemoryCacheImageOutputStream(os)) {
+                ImageIO.write(tile, RasterWriter.ImageType.PNG.getFormatName(), ios);
+            }
+            os.flush();
+        }
+
+        private BufferedImage render(int size, int zoom, int column, int row) {
+
+            double scale = (double) size * (1L << zoom) / Math.max(width, height);
+            double offsetX = (double) column * size;
+            double offsetY = (double) row * size;
+
+            BufferedImage tile = new BufferedImage(size, size, BufferedImage.TYPE_BYTE_GRAY);
+            Graphics2D graphics = tile.createGraphics();
+            try {
+                StrokePainter.setRenderingHints(graphics);
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, size, size);
+                graphics.setColor(Color.BLACK);
+
+                // lines are at least one pixel wide, plus antialiasing
+                double margin = (StrokePainter.MIN_STROKE_WIDTH + 1) / scale;
+                int[] strokes = index.query(
+                        offsetX / scale - margin,
+                        offsetY / scale - margin,
+                        (offsetX + size) / scale + margin,
+                        (offsetY + size) / scale + margin
+                );
+
+                StrokePainter painter = new StrokePainter();
+                for (int s: strokes) {
+                    painter.paint(graphics, index.getStroke(s), scale, offsetX, offsetY);
+                }
+            } finally {
+                graphics.dispose();
+            }
+            return tile;
+        }
+
+        private void checkZoom(int zoom) {
+            if (zoom < 0 || zoom > MAX_ZOOM) {
+                throw new IllegalArgumentException("Zoom level must be between 0 and " + MAX_ZOOM + ".");
+            }
+        }
+    }
+
+    /**
+     * Key of a cached tile.
+     */
+    private static class TileKey {
+        private final long contentHash;
+        private final int tileSize;
+        private final int zoom;
+        private final int column;
+        private final int row;
+
+        private TileKey(long contentHash, int tileSize, int zoom, int column, int row) {
+            this.contentHash = contentHash;
+            this.tileSize = tileSize;
+            this.zoom = zoom;
+            this.column = column;
+            this.row = row;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            TileKey tileKey = (TileKey) o;
+            return contentHash == tileKey.contentHash &&
+                    tileSize == tileKey.tileSize &&
+                    zoom == tileKey.zoom &&
+                    column == tileKey.column &&
+                    row == tileKey.row;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(contentHash, tileSize, zoom, column, row);
+        }
+    }
+
+    /**
+     * Cache of tiles, evicting the least recently used beyond its maximum
+     * size. Accesses must be synchronized on it.
+     */
+    private static class TileCache {
+        private final LinkedHashMap<TileKey, BufferedImage> tiles = new LinkedHashMap<>(16, 0.75f, true);
+        private int maxSize;
+
+        private TileCache(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        private BufferedImage get(TileKey key) {
+            return tiles.get(key);
+        }
+
+        private void put(TileKey key, BufferedImage tile) {
+            tiles.put(key, tile);
+            trim();
+        }
+
+        private void clear() {
+            tiles.clear();
+        }
+
+        private void trim() {
+            Iterator<BufferedImage> it = tiles.values().iterator();
+            while (tiles.size() > maxSize) {
+                it.next();
+                it.remove();
+            }
+        }
+    }
+}
@@ -4,74 +4,249 @@ import pt.up.hs.uhc.base.Constants;
 import pt.up.hs.uhc.base.PageWriter;
 import pt.up.hs.uhc.models.Page;
 import pt.up.hs.uhc.models.Stroke;
+import pt.up.hs.uhc.utils.NumberUtils;
+import pt.up.hs.uhc.utils.SimplificationUtils;
 
+import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.Arrays;
 
 /**
  * Writer for SVG files.
  *
+ * Each stroke is written as a path which starts with an absolute move to
+ * its first dot followed by relative lines to the next ones
+ * ({@code M x y l dx dy ...}). Coordinates are rounded to fixed-point
+ * units first, so that relative offsets do not accumulate rounding errors,
+ * and formatted without {@link String#format}. The document is streamed
+ * through a buffer flushed to the output in chunks. Attributes shared by
+ * all paths are set once, in their group.
+ *
+ * Strokes can be simplified within a tolerance, in page units (see
+ * {@link SimplificationUtils}), to write lighter documents. With several
+ * levels of detail, the page is written once per tolerance, in groups with
+ * class {@code lod} and attribute {@code data-tolerance}, from the coarsest
+ * to the finest. Only the finest group is displayed by default; viewers
+ * may show a coarser one instead, e.g., for previews.
+ *
  * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
  */
 public class SvgWriter implements PageWriter {
 
-    @Override
-    public void writeSingle(Page page, OutputStream os) throws Exception {
+    private static final int BUFFER_SIZE = 8192;
+
+    // stroke width of dots without pressure
+    private static final double DEFAULT_PRESSURE = 0.5D;
+
+    private int precision = Constants.WRITE_DOUBLE_PRECISION;
+    private double[] tolerances = { 0D };
+
+    /**
+     * Set the number of decimal places of coordinates (default:
+     * {@link Constants#WRITE_DOUBLE_PRECISION}).
+     *
+     * @param precision number of decimal places (0 to 8).
+     * @return {@link SvgWriter} this writer.
+     */
+    public SvgWriter precision(int precision) {
+        if (precision < 0 || precision > 8) {
+            throw new IllegalArgumentException("Precision must be between 0 and 8.");
+        }
+        this.precision = precision;
+        return this;
+    }
 
-        StringBuilder sb = new StringBuilder()
-                .append("<svg xmlns=\"http://www.w3.org/2000/svg\" height=\"")
-                .append(page.getHeight())
-                .append("\" width=\"")
-                .append(page.getWidth())
-                .append("\" stroke=\"#000\">")
-                .append(groupFromPage(page))
-                .append("</svg>");
+    /**
+     * Set the simplification tolerance of strokes, i.e., the maximum
+     * distance (in page units) of dropped dots to the written path (default:
+     * {@code 0}, no simplification).
+     *
+     * @param tolerance maximum shape error.
+     * @return {@link SvgWriter} this writer.
+     */
+    public SvgWriter tolerance(double tolerance) {
+        return levelsOfDetail(tolerance);
+    }
 
-        os.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+    /**
+     * Set the simplification tolerances of the levels of detail to write.
+     * A single tolerance writes a single level, as {@link #tolerance(double)}.
+     *
+     * @param tolerances maximum shape errors, in page units.
+     * @return {@link SvgWriter} this writer.
+     */
+    public SvgWriter levelsOfDetail(double... tolerances) {
+        if (tolerances.length == 0) {
+            throw new IllegalArgumentException("At least one tolerance is required.");
+        }
+        double[] sorted = tolerances.clone();
+        Arrays.sort(sorted);
+        if (!(sorted[0] >= 0) || Double.isInfinite(sorted[sorted.length - 1])) {
+            throw new IllegalArgumentException("Tolerances must be finite and non-negative.");
+        }
+        // coarsest first
+        for (int i = 0, j = sorted.length - 1; i < j; i++, j--) {
+            double tmp = sorted[i];
+            sorted[i] = sorted[j];
+            sorted[j] = tmp;
+        }
+        this.tolerances = sorted;
+        return this;
     }
 
-    private String groupFromPage(Page page) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("<g>");
-        page.getStrokes().parallelStream()
-                .forEachOrdered(stroke -> sb.append(pathFromStroke(stroke)));
-        sb.append("</g>");
-        return sb.toString();
+    @Override
+    public void writeSingle(Page page, OutputStream os) throws Exception {
+        Writer writer = new OutputStreamWriter(os, StandardCharsets.UTF_8);
+        Emitter emitter = new Emitter(writer);
+        emitter.page(page);
+        emitter.flush();
+        writer.flush();
     }
 
-    private String pathFromStroke(Stroke stroke) {
-
-        StringBuilder sb = new StringBuilder();
-        sb.append("<path d=\"");
-        sb.append('M');
-        AtomicReference<Double> sumPressure = new AtomicReference<>((double) 0);
-        stroke.getDots().parallelStream()
-                .forEachOrdered(dot -> {
-                    sb
-                            .append(String.format(Constants.WRITE_DOUBLE_FORMAT, dot.getX()))
-                            .append(' ')
-                            .append(String.format(Constants.WRITE_DOUBLE_FORMAT, dot.getY()))
-                            .append(',');
-                    sumPressure.updateAndGet(v -> v + (dot.getPressure() != null && dot.getPressure() > 0 ? dot.getPressure() : 0.5D));
-                });
-        sb
-                .deleteCharAt(sb.length() - 1)
-                .append('\"')
-                .append(' ')
-                .append("stroke-width=\"")
-                .append(String.format("%.3f", sumPressure.get() / stroke.getDots().size()))
-                .append("\"")
-                .append(' ')
-                .append("shape-rendering=\"geometricPrecision\"")
-                .append(' ')
-                .append("stroke-linejoin=\"round\"")
-                .append(' ')
-                .append("stroke-linecap=\"round\"")
-                .append(' ')
-                .append("fill=\"none\"")
-                .append("/>");
-
-        return sb.toString();
+    /**
+     * Emitter of the SVG of pages into a {@link Writer}.
+     */
+    private class Emitter {
+
+        private final Writer writer;
+        private final StringBuilder sb = new StringBuilder(BUFFER_SIZE + 256);
+        private char[] chars = new char[BUFFER_SIZE + 256];
+        private int[] indices = new int[256];
+
+        private Emitter(Writer writer) {
+            this.writer = writer;
+        }
+
+        private void page(Page page) throws IOException {
+
+            sb.append("<svg xmlns=\"http://www.w3.org/2000/svg\"");
+            if (page.getHeight() != null) {
+                sb.append(" height=\"");
+                number(page.getHeight());
+                sb.append('"');
+            }
+            if (page.getWidth() != null) {
+                sb.append(" width=\"");
+                number(page.getWidth());
+                sb.append('"');
+            }
+            sb.append(" stroke=\"#000\">");
+
+            sb.append("<g shape-rendering=\"geometricPrecision\" stroke-linejoin=\"round\"" +
+                    " stroke-linecap=\"round\" fill=\"none\">");
+            if (tolerances.length == 1) {
+                strokes(page, tolerances[0]);
+            } else {
+                for (int level = 0; level < tolerances.length; level++) {
+                    sb.append("<g class=\"lod\" data-tolerance=\"");
+                    number(tolerances[level]);
+                    sb.append('"');
+                    if (level < tolerances.length - 1) {
+                        sb.append(" display=\"none\"");
+                    }
+                    sb.append('>');
+                    strokes(page, tolerances[level]);
+                    sb.append("</g>");
+                }
+            }
+            sb.append("</g>");
+
+            sb.append("</svg>");
+        }
+
+        private void strokes(Page page, double tolerance) throws IOException {
+            for (Stroke stroke: page.getStrokes()) {
+                stroke(stroke, tolerance);
+                if (sb.length() >= BUFFER_SIZE) {
+                    flush();
+                }
+            }
+        }
+
+        private void stroke(Stroke stroke, double tolerance) {
+
+            int count = stroke.getDotCount();
+            if (indices.length < count) {
+                indices = new int[Math.max(count, indices.length * 2)];
+            }
+
+            // stroke width is the average pressure of all drawable dots
+            double sumPressure = 0D;
+            int drawable = 0;
+            for (int i = 0; i < count; i++) {
+                if (isDrawable(stroke, i)) {
+                    indices[drawable++] = i;
+                    double pressure = stroke.getPressure(i);
+                    sumPressure += pressure > 0 ? pressure : DEFAULT_PRESSURE;
+                }
+            }
+            if (drawable == 0) {
+                return;
+            }
+
+            int kept = SimplificationUtils.simplify(stroke, indices, drawable, tolerance);
+
+            long x = NumberUtils.toFixed(stroke.getX(indices[0]), precision);
+            long y = NumberUtils.toFixed(stroke.getY(indices[0]), precision);
+
+            sb.append("<path d=\"M");
+            NumberUtils.appendFixed(sb, x, precision);
+            coordinate(y);
+            sb.append('l');
+
+            for (int k = 1; k < kept; k++) {
+                long nextX = NumberUtils.toFixed(stroke.getX(indices[k]), precision);
+                long nextY = NumberUtils.toFixed(stroke.getY(indices[k]), precision);
+                if (k == 1) {
+                    NumberUtils.appendFixed(sb, nextX - x, precision);
+                } else {
+                    coordinate(nextX - x);
+                }
+                coordinate(nextY - y);
+                x = nextX;
+                y = nextY;
+            }
+
+            // a zero-length line, so that a single dot is still drawn
+            if (kept == 1) {
+                sb.append("0 0");
+            }
+
+            sb.append("\" stroke-width=\"");
+            NumberUtils.appendFixed(sb, NumberUtils.toFixed(sumPressure / drawable, 3), 3);
+            sb.append("\"/>");
+        }
+
+        /**
+         * Append a coordinate following another one, separated by a space
+         * unless its minus sign already separates them.
+         */
+        private void coordinate(long units) {
+            if (units >= 0) {
+                sb.append(' ');
+            }
+            NumberUtils.appendFixed(sb, units, precision);
+        }
+
+        private void number(double value) {
+            NumberUtils.appendFixed(sb, NumberUtils.toFixed(value, precision), precision);
+        }
+
+        private boolean isDrawable(Stroke stroke, int i) {
+            return !Double.isNaN(stroke.getX(i)) && !Double.isNaN(stroke.getY(i));
+        }
+
+        private void flush() throws IOException {
+            int length = sb.length();
+            if (chars.length < length) {
+                chars = new char[length];
+            }
+            sb.getChars(0, length, chars, 0);
+            writer.write(chars, 0, length);
+            sb.setLength(0);
+        }
     }
 }
@@ -0,0 +1,185 @@
+package pt.up.hs.uhc.utils;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * A {@link Map} optimized for a handful of entries. Up to
+ * {@link #INLINE_CAPACITY} entries are kept in two small arrays and looked up
+ * linearly; when it grows beyond that, entries are moved to a
+ * {@link HashMap}.
+ *
+ * @param <K> type of the keys.
+ * @param <V> type of the values.
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+public class CompactMap<K, V> extends AbstractMap<K, V> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final int INLINE_CAPACITY = 4;
+
+    private Object[] keys = new Object[INLINE_CAPACITY];
+    private Object[] values = new Object[INLINE_CAPACITY];
+    private int size = 0;
+
+    private HashMap<K, V> delegate = null;
+
+    public CompactMap() {
+    }
+
+    public CompactMap(Map<? extends K, ? extends V> map) {
+        putAll(map);
+    }
+
+    @Override
+    public int size() {
+        return delegate != null ? delegate.size() : size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return delegate != null ? delegate.containsKey(key) : indexOf(key) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (delegate != null) {
+            return delegate.get(key);
+        }
+        int i = indexOf(key);
+        return i >= 0 ? (V) values[i] : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(K key, V value) {
+        if (delegate != null) {
+            return delegate.put(key, value);
+        }
+        int i = indexOf(key);
+        if (i >= 0) {
+            V previous = (V) values[i];
+            values[i] = value;
+            return previous;
+        }
+        if (size == INLINE_CAPACITY) {
+            delegate = new HashMap<>(INLINE_CAPACITY * 4);
+            for (int j = 0; j < size; j++) {
+                delegate.put((K) keys[j], (V) values[j]);
+            }
+            keys = null;
+            values = null;
+            size = 0;
+            return delegate.put(key, value);
+        }
+        keys[size] = key;
+        values[size] = value;
+        size++;
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        if (delegate != null) {
+            return delegate.remove(key);
+        }
+        int i = indexOf(key);
+        if (i < 0) {
+            return null;
+        }
+        V previous = (V) values[i];
+        removeAt(i);
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        delegate = null;
+        keys = new Object[INLINE_CAPACITY];
+        values = new Object[INLINE_CAPACITY];
+        size = 0;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        if (delegate != null) {
+            return delegate.entrySet();
+        }
+        return new AbstractSet<Entry<K, V>>() {
+
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new InlineIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private int indexOf(Object key) {
+        for (int i = 0; i < size; i++) {
+            if (Objects.equals(keys[i], key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void removeAt(int i) {
+        int moved = size - i - 1;
+        if (moved > 0) {
+            System.arraycopy(keys, i + 1, keys, i, moved);
+            System.arraycopy(values, i + 1, values, i, moved);
+        }
+        size--;
+        keys[size] = null;
+        values[size] = null;
+    }
+
+    /**
+     * Iterator over the inline entries.
+     */
+    private class InlineIterator implements Iterator<Entry<K, V>> {
+        private int next = 0;
+        private int last = -1;
+
+        @Override
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Entry<K, V> next() {
+            if (next >= size) {
+                throw new NoSuchElementException();
+            }
+            last = next++;
+            final int index = last;
+            return new SimpleEntry<K, V>((K) keys[index], (V) values[index]) {
+
+                @Override
+                public V setValue(V value) {
+                    values[index] = value;
+                    return super.setValue(value);
+                }
+            };
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            removeAt(last);
+            next = last;
+            last = -1;
+        }
+    }
+}
@@ -0,0 +1,475 @@
+package pt.up.hs.uhc.utils;
+
+import pt.up.hs.uhc.exceptions.UnsupportedFormatException;
+import pt.up.hs.uhc.models.Format;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Detector of the {@link Format} of a file from its contents.
+ *
+ * A small prefix of the stream is peeked and probed for signatures (zip,
+ * tar and gzip containers and the names of their first entries, "%PDF",
+ * the Neo Notes page id, the UHC binary magic, the root element of XML
+ * documents and JSON objects). The extension of the file name is only used
+ * as a hint, when the contents are not conclusive. The stream returned with
+ * the detected format replays the peeked bytes.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+public class FormatDetector {
+
+    public static final int PROBE_SIZE = 8192;
+
+    private static final int TAR_BLOCK_SIZE = 512;
+    private static final int ZIP_LOCAL_HEADER_SIZE = 30;
+
+    private static final Map<String, Format> EXTENSIONS = new HashMap<>();
+    static {
+        EXTENSIONS.put("json.zip", Format.HANDSPY_ARCHIVE);
+        EXTENSIONS.put("json.tar", Format.HANDSPY_ARCHIVE);
+        EXTENSIONS.put("json.tar.gz", Format.HANDSPY_ARCHIVE);
+        EXTENSIONS.put("xml.zip", Format.HANDSPY_LEGACY_ARCHIVE);
+        EXTENSIONS.put("xml.tar", Format.HANDSPY_LEGACY_ARCHIVE);
+        EXTENSIONS.put("xml.tar.gz", Format.HANDSPY_LEGACY_ARCHIVE);
+        EXTENSIONS.put("ndjson", Format.HANDSPY_NDJSON);
+        EXTENSIONS.put("jsonl", Format.HANDSPY_NDJSON);
+        EXTENSIONS.put("neonotes", Format.NEONOTES_ARCHIVE);
+        EXTENSIONS.put("neonotes.zip", Format.NEONOTES_ARCHIVE);
+        EXTENSIONS.put("data", Format.NEONOTES);
+        EXTENSIONS.put("xml", Format.HANDSPY_LEGACY);
+        EXTENSIONS.put("ink", Format.INKML);
+        EXTENSIONS.put("inkml", Format.INKML);
+        EXTENSIONS.put("pdf", Format.LIVESCRIBE_PDF);
+        EXTENSIONS.put("json", Format.HANDSPY);
+        EXTENSIONS.put("uhcb", Format.UHC_BINARY);
+    }
+
+    /**
+     * Container of archive formats.
+     */
+    public enum Container {
+        ZIP("zip"), TAR("tar"), TAR_GZ("tar.gz");
+
+        private final String extension;
+
+        Container(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    /**
+     * Result of the detection.
+     */
+    public static class Detection {
+
+        private final Format format;
+        private final Container container;
+        private final String filename;
+        private final InputStream inputStream;
+
+        private Detection(Format format, Container container, String filename, InputStream inputStream) {
+            this.format = format;
+            this.container = container;
+            this.filename = filename;
+            this.inputStream = inputStream;
+        }
+
+        public Format getFormat() {
+            return format;
+        }
+
+        /**
+         * Get the container of archives found in the contents.
+         *
+         * @return {@link Container} container of the archive, or {@code null}
+         * if not an archive or only known from the extension.
+         */
+        public Container getContainer() {
+            return container;
+        }
+
+        /**
+         * Get the file name to hand to readers which pick the container
+         * of archives from the extension (see
+         * {@link pt.up.hs.uhc.base.BaseArchiveReader}), i.e., the original
+         * file name with the extension of the detected container appended
+         * if it does not end with it.
+         *
+         * @return {@link String} file name.
+         */
+        public String getFilename() {
+            return filename;
+        }
+
+        /**
+         * Get the stream to read the contents from, starting with the bytes
+         * peeked for the detection.
+         *
+         * @return {@link InputStream} stream to read the contents from.
+         */
+        public InputStream getInputStream() {
+            return inputStream;
+        }
+    }
+
+    /**
+     * Detect the format of a stream, peeking at its first bytes.
+     *
+     * @param filename {@link String} name of the file (hint), may be
+     *                 {@code null}.
+     * @param is       {@link InputStream} contents of the file.
+     * @return {@link Detection} detected format and replayable stream.
+     * @throws IOException if the stream cannot be read.
+     * @throws UnsupportedFormatException if the format cannot be detected.
+     */
+    public static Detection detect(String filename, InputStream is) throws IOException {
+
+        InputStream replayable = is.markSupported() ? is : new BufferedInputStream(is, PROBE_SIZE);
+
+        byte[] prefix = new byte[PROBE_SIZE];
+        replayable.mark(PROBE_SIZE);
+        int length = 0;
+        int read;
+        while (length < PROBE_SIZE && (read = replayable.read(prefix, length, PROBE_SIZE - length)) != -1) {
+            length += read;
+        }
+        replayable.reset();
+
+        Container container = detectContainer(prefix, length);
+        Format format = detect(prefix, length, filename);
+
+        String name = filename == null ? "file" : filename;
+        if (container != null && !name.toLowerCase(Locale.ROOT).endsWith("." + container.getExtension())) {
+            name = name + "." + container.getExtension();
+        }
+
+        return new Detection(format, container, name, replayable);
+    }
+
+    /**
+     * Detect the format from the first bytes of a file.
+     *
+     * @param prefix   {@code byte[]} first bytes of the file.
+     * @param length   number of bytes in {@code prefix}.
+     * @param filename {@link String} name of the file (hint), may be
+     *                 {@code null}.
+     * @return {@link Format} detected format.
+     * @throws UnsupportedFormatException if the format cannot be detected.
+     */
+    public static Format detect(byte[] prefix, int length, String filename) {
+
+        Format hint = filename == null ? null : fromExtension(filename);
+
+        Format format = probe(prefix, length, hint);
+        if (format == null) {
+            format = hint;
+        }
+        if (format == null) {
+            throw new UnsupportedFormatException();
+        }
+        return format;
+    }
+
+    /**
+     * Get the format associated with the extension of a file name.
+     *
+     * @param filename {@link String} name of the file.
+     * @return {@link Format} format associated with the extension, or
+     * {@code null} if none.
+     */
+    public static Format fromExtension(String filename) {
+        String ext = FilenameUtils.getFileExtension(filename).toLowerCase(Locale.ROOT);
+        while (true) {
+            Format format = EXTENSIONS.get(ext);
+            if (format != null) {
+                return format;
+            }
+            int dot = ext.indexOf('.');
+            if (dot == -1) {
+                return null;
+            }
+            ext = ext.substring(dot + 1);
+        }
+    }
+
+    private static Format probe(byte[] prefix, int length, Format hint) {
+
+        if (startsWith(prefix, length, 0, 'P', 'K', 3, 4)) {
+            return probeZip(prefix, length, hint);
+        }
+
+        if (startsWith(prefix, length, 0, 0x1F, 0x8B)) {
+            byte[] tar = gunzip(prefix, length);
+            return isTar(tar, tar.length) ? probeTar(tar, tar.length, hint) : null;
+        }
+
+        if (isTar(prefix, length)) {
+            return probeTar(prefix, length, hint);
+        }
+
+        if (startsWith(prefix, length, 0, '%', 'P', 'D', 'F')) {
+            return Format.LIVESCRIBE_PDF;
+        }
+
+        if (startsWith(prefix, length, 0, 'n', 'e', 'o')) {
+            return Format.NEONOTES;
+        }
+
+        if (startsWith(prefix, length, 0, 'U', 'H', 'C', 'B')) {
+            return Format.UHC_BINARY;
+        }
+
+        int pos = startsWith(prefix, length, 0, 0xEF, 0xBB, 0xBF) ? 3 : 0;
+        pos = skipWhitespace(prefix, length, pos);
+        if (pos < length && prefix[pos] == '{') {
+            return hint == Format.HANDSPY_NDJSON || isNdjson(prefix, length, pos)
+                    ? Format.HANDSPY_NDJSON
+                    : Format.HANDSPY;
+        }
+        if (pos < length && prefix[pos] == '<') {
+            return probeXml(prefix, length, pos);
+        }
+
+        return null;
+    }
+
+    private static Format probeZip(byte[] prefix, int length, Format hint) {
+
+        int pos = 0;
+        while (startsWith(prefix, length, pos, 'P', 'K', 3, 4) && pos + ZIP_LOCAL_HEADER_SIZE <= length) {
+
+            int flags = readShortLE(prefix, pos + 6);
+            long compressedSize = readIntLE(prefix, pos + 18) & 0xFFFFFFFFL;
+            int nameLength = readShortLE(prefix, pos + 26);
+            int extraLength = readShortLE(prefix, pos + 28);
+
+            int nameStart = pos + ZIP_LOCAL_HEADER_SIZE;
+            if (nameStart + nameLength > length) {
+                break;
+            }
+
+            Format format = fromEntryName(new String(prefix, nameStart, nameLength, StandardCharsets.UTF_8));
+            if (format != null) {
+                return format;
+            }
+
+            // sizes are only known ahead when not given in a data descriptor
+            if ((flags & 0x08) != 0) {
+                break;
+            }
+            pos = (int) Math.min(Integer.MAX_VALUE, (long) nameStart + nameLength + extraLength + compressedSize);
+        }
+
+        return isArchive(hint) ? hint : null;
+    }
+
+    private static Format probeTar(byte[] block, int length, Format hint) {
+
+        int pos = 0;
+        while (pos + TAR_BLOCK_SIZE <= length && isTar(block, length, pos)) {
+
+            int nameEnd = pos;
+            while (nameEnd < pos + 100 && block[nameEnd] != 0) {
+                nameEnd++;
+            }
+            Format format = fromEntryName(new String(block, pos, nameEnd - pos, StandardCharsets.UTF_8));
+            if (format != null) {
+                return format;
+            }
+
+            long size = 0;
+            for (int i = pos + 124; i < pos + 136 && block[i] >= '0' && block[i] <= '7'; i++) {
+                size = size * 8 + (block[i] - '0');
+            }
+            long next = pos + TAR_BLOCK_SIZE + (size + TAR_BLOCK_SIZE - 1) / TAR_BLOCK_SIZE * TAR_BLOCK_SIZE;
+            pos = (int) Math.min(Integer.MAX_VALUE, next);
+        }
+
+        return isArchive(hint) ? hint : null;
+    }
+
+    private static Format fromEntryName(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".data") || lower.endsWith("noteinfo.xml")) {
+            return Format.NEONOTES_ARCHIVE;
+        } else if (lower.endsWith(".json")) {
+            return Format.HANDSPY_ARCHIVE;
+        } else if (lower.endsWith(".xml")) {
+            return Format.HANDSPY_LEGACY_ARCHIVE;
+        }
+        return null;
+    }
+
+    private static Format probeXml(byte[] prefix, int length, int pos) {
+
+        while (pos < length && prefix[pos] == '<') {
+            if (startsWith(prefix, length, pos, '<', '?')) {
+                pos = indexOf(prefix, length, pos, "?>");
+            } else if (startsWith(prefix, length, pos, '<', '!', '-', '-')) {
+                pos = indexOf(prefix, length, pos, "-->");
+            } else if (startsWith(prefix, length, pos, '<', '!')) {
+                pos = indexOf(prefix, length, pos, ">");
+            } else {
+                int start = pos + 1;
+                int end = start;
+                while (end < length && !isWhitespace(prefix[end]) && prefix[end] != '>' && prefix[end] != '/') {
+                    end++;
+                }
+                String name = new String(prefix, start, end - start, StandardCharsets.UTF_8);
+                name = name.substring(name.indexOf(':') + 1);
+                if (name.equals("ink")) {
+                    return Format.INKML;
+                } else if (name.equals("protocol")) {
+                    return Format.HANDSPY_LEGACY;
+                }
+                return null;
+            }
+            if (pos == -1) {
+                return null;
+            }
+            pos = skipWhitespace(prefix, length, pos);
+        }
+
+        return null;
+    }
+
+    /**
+     * Check whether the first JSON object is followed by another one in the
+     * next line.
+     */
+    private static boolean isNdjson(byte[] prefix, int length, int pos) {
+
+        int depth = 0;
+        boolean inString = false;
+        for (; pos < length; pos++) {
+            byte b = prefix[pos];
+            if (inString) {
+                if (b == '\\') {
+                    pos++;
+                } else if (b == '"') {
+                    inString = false;
+                }
+            } else if (b == '"') {
+                inString = true;
+            } else if (b == '{' || b == '[') {
+                depth++;
+            } else if (b == '}' || b == ']') {
+                depth--;
+                if (depth == 0) {
+                    break;
+                }
+            }
+        }
+        if (pos >= length) {
+            return false;
+        }
+
+        boolean newLine = false;
+        for (pos++; pos < length && isWhitespace(prefix[pos]); pos++) {
+            newLine |= prefix[pos] == '\n';
+        }
+        return newLine && pos < length && prefix[pos] == '{';
+    }
+
+    private static boolean isArchive(Format format) {
+        return format == Format.NEONOTES_ARCHIVE ||
+                format == Format.HANDSPY_ARCHIVE ||
+                format == Format.HANDSPY_LEGACY_ARCHIVE;
+    }
+
+    private static Container detectContainer(byte[] prefix, int length) {
+        if (startsWith(prefix, length, 0, 'P', 'K', 3, 4)) {
+            return Container.ZIP;
+        }
+        if (startsWith(prefix, length, 0, 0x1F, 0x8B)) {
+            byte[] tar = gunzip(prefix, length);
+            return isTar(tar, tar.length) ? Container.TAR_GZ : null;
+        }
+        return isTar(prefix, length) ? Container.TAR : null;
+    }
+
+    private static boolean isTar(byte[] block, int length) {
+        return isTar(block, length, 0);
+    }
+
+    private static boolean isTar(byte[] block, int length, int pos) {
+        return startsWith(block, length, pos + 257, 'u', 's', 't', 'a', 'r');
+    }
+
+    /**
+     * Decompress as much as possible of the first bytes of gzipped data.
+     */
+    private static byte[] gunzip(byte[] prefix, int length) {
+        byte[] result = new byte[PROBE_SIZE];
+        int count = 0;
+        try (GZIPInputStream gzis = new GZIPInputStream(new ByteArrayInputStream(prefix, 0, length))) {
+            int read;
+            while (count < result.length && (read = gzis.read(result, count, result.length - count)) != -1) {
+                count += read;
+            }
+        } catch (IOException e) {
+            // truncated data, keep what was decompressed
+        }
+        byte[] tar = new byte[count];
+        System.arraycopy(result, 0, tar, 0, count);
+        return tar;
+    }
+
+    private static boolean startsWith(byte[] bytes, int length, int pos, int... signature) {
+        if (pos < 0 || pos + signature.length > length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((bytes[pos + i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(byte[] bytes, int length, int from, String token) {
+        byte[] target = token.getBytes(StandardCharsets.US_ASCII);
+        outer:
+        for (int i = from; i <= length - target.length; i++) {
+            for (int j = 0; j < target.length; j++) {
+                if (bytes[i + j] != target[j]) {
+                    continue outer;
+                }
+            }
+            return i + target.length;
+        }
+        return -1;
+    }
+
+    private static int skipWhitespace(byte[] bytes, int length, int pos) {
+        while (pos < length && isWhitespace(bytes[pos])) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    private static int readShortLE(byte[] bytes, int pos) {
+        return (bytes[pos] & 0xFF) | (bytes[pos + 1] & 0xFF) << 8;
+    }
+
+    private static int readIntLE(byte[] bytes, int pos) {
+        return readShortLE(bytes, pos) | readShortLE(bytes, pos + 2) << 16;
+    }
+}
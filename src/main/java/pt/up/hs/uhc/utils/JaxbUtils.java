@@ -0,0 +1,110 @@
+package pt.up.hs.uhc.utils;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Utilities to deal with JAXB.
+ *
+ * Creating a {@link JAXBContext} is expensive, so contexts are created once
+ * per bound class and shared. Contexts are thread-safe, but (un)marshallers
+ * are not, hence each thread gets its own (un)marshaller per context, which
+ * is reused across calls.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+public class JaxbUtils {
+
+    private static final ConcurrentMap<Class<?>, Binding> BINDINGS = new ConcurrentHashMap<>();
+
+    /**
+     * Get the shared context for a class.
+     *
+     * @param contextClass {@link Class} class to bind (e.g., an
+     *                     {@code ObjectFactory} or a root type).
+     * @return {@link JAXBContext} the shared context.
+     * @throws JAXBException if the context cannot be created.
+     */
+    public static JAXBContext getContext(Class<?> contextClass) throws JAXBException {
+        return getBinding(contextClass).context;
+    }
+
+    /**
+     * Get the unmarshaller of the calling thread for a class.
+     *
+     * @param contextClass {@link Class} class to bind.
+     * @return {@link Unmarshaller} the unmarshaller of the calling thread.
+     * @throws JAXBException if the context or unmarshaller cannot be created.
+     */
+    public static Unmarshaller getUnmarshaller(Class<?> contextClass) throws JAXBException {
+        Binding binding = getBinding(contextClass);
+        Unmarshaller unmarshaller = binding.unmarshaller.get();
+        if (unmarshaller == null) {
+            unmarshaller = binding.context.createUnmarshaller();
+            binding.unmarshaller.set(unmarshaller);
+        }
+        return unmarshaller;
+    }
+
+    /**
+     * Get the marshaller of the calling thread for a class. Marshallers
+     * produce formatted output.
+     *
+     * @param contextClass {@link Class} class to bind.
+     * @return {@link Marshaller} the marshaller of the calling thread.
+     * @throws JAXBException if the context or marshaller cannot be created.
+     */
+    public static Marshaller getMarshaller(Class<?> contextClass) throws JAXBException {
+        Binding binding = getBinding(contextClass);
+        Marshaller marshaller = binding.marshaller.get();
+        if (marshaller == null) {
+            marshaller = binding.context.createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+            binding.marshaller.set(marshaller);
+        }
+        return marshaller;
+    }
+
+    /**
+     * Create the contexts of the given classes ahead of time, so that the
+     * first conversion does not pay for it.
+     *
+     * @param contextClasses {@link Class} classes to bind.
+     * @throws JAXBException if a context cannot be created.
+     */
+    public static void warmUp(Class<?>... contextClasses) throws JAXBException {
+        for (Class<?> contextClass: contextClasses) {
+            getUnmarshaller(contextClass);
+            getMarshaller(contextClass);
+        }
+    }
+
+    private static Binding getBinding(Class<?> contextClass) throws JAXBException {
+        Binding binding = BINDINGS.get(contextClass);
+        if (binding == null) {
+            Binding created = new Binding(JAXBContext.newInstance(contextClass));
+            binding = BINDINGS.putIfAbsent(contextClass, created);
+            if (binding == null) {
+                binding = created;
+            }
+        }
+        return binding;
+    }
+
+    /**
+     * Shared context of a class and the (un)marshallers of each thread.
+     */
+    private static class Binding {
+        private final JAXBContext context;
+        private final ThreadLocal<Unmarshaller> unmarshaller = new ThreadLocal<>();
+        private final ThreadLocal<Marshaller> marshaller = new ThreadLocal<>();
+
+        private Binding(JAXBContext context) {
+            this.context = context;
+        }
+    }
+}
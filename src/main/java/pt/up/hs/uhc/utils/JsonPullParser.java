@@ -0,0 +1,520 @@
+package pt.up.hs.uhc.utils;
+
+import com.github.cliftonlabs.json_simple.JsonArray;
+import com.github.cliftonlabs.json_simple.JsonObject;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+
+/**
+ * Pull parser of JSON, reading one token at a time from a {@link Reader}.
+ *
+ * Unlike {@link com.github.cliftonlabs.json_simple.Jsoner}, no object tree
+ * is built: callers walk the document and decide what to keep, numbers can
+ * be read directly as primitives, and names are cached so that the keys
+ * repeated in every object of an array are not allocated over and over.
+ * Several top-level values may follow each other (e.g., one per line).
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+public class JsonPullParser implements Closeable {
+
+    /**
+     * Tokens of a JSON document.
+     */
+    public enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME,
+        STRING, NUMBER, TRUE, FALSE, NULL, END_DOCUMENT
+    }
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int NAME_CACHE_SIZE = 64;
+
+    // scopes
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_ARRAY = 2;
+    private static final int NONEMPTY_ARRAY = 3;
+    private static final int EMPTY_OBJECT = 4;
+    private static final int NONEMPTY_OBJECT = 5;
+    private static final int DANGLING_NAME = 6;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int pos = 0;
+    private int limit = 0;
+    private long offset = 0;
+
+    private int[] stack = new int[32];
+    private int depth = 1;
+
+    private Token peeked = null;
+
+    private final StringBuilder text = new StringBuilder();
+    private final String[] names = new String[NAME_CACHE_SIZE];
+
+    public JsonPullParser(Reader reader) {
+        this.reader = reader;
+        this.stack[0] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * Get the type of the next token, without consuming it.
+     *
+     * @return {@link Token} type of the next token.
+     * @throws IOException if the document cannot be read or is malformed.
+     */
+    public Token peek() throws IOException {
+        if (peeked != null) {
+            return peeked;
+        }
+
+        int c;
+        switch (stack[depth - 1]) {
+            case EMPTY_ARRAY:
+                stack[depth - 1] = NONEMPTY_ARRAY;
+                if (nextNonWhitespace() == ']') {
+                    return peeked = Token.END_ARRAY;
+                }
+                pos--;
+                break;
+            case NONEMPTY_ARRAY:
+                c = nextNonWhitespace();
+                if (c == ']') {
+                    return peeked = Token.END_ARRAY;
+                } else if (c != ',') {
+                    throw syntaxError("Expected ',' or ']'");
+                }
+                break;
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT:
+                c = nextNonWhitespace();
+                if (c == '}') {
+                    return peeked = Token.END_OBJECT;
+                }
+                if (stack[depth - 1] == NONEMPTY_OBJECT) {
+                    if (c != ',') {
+                        throw syntaxError("Expected ',' or '}'");
+                    }
+                    c = nextNonWhitespace();
+                }
+                if (c != '"') {
+                    throw syntaxError("Expected name");
+                }
+                stack[depth - 1] = DANGLING_NAME;
+                return peeked = Token.NAME;
+            case DANGLING_NAME:
+                if (nextNonWhitespace() != ':') {
+                    throw syntaxError("Expected ':'");
+                }
+                stack[depth - 1] = NONEMPTY_OBJECT;
+                break;
+            default:
+                stack[depth - 1] = NONEMPTY_DOCUMENT;
+                if (!skipWhitespace()) {
+                    return peeked = Token.END_DOCUMENT;
+                }
+                break;
+        }
+
+        c = nextNonWhitespace();
+        switch (c) {
+            case '{':
+                return peeked = Token.BEGIN_OBJECT;
+            case '[':
+                return peeked = Token.BEGIN_ARRAY;
+            case '"':
+                return peeked = Token.STRING;
+            case 't':
+                expectLiteral("rue");
+                return peeked = Token.TRUE;
+            case 'f':
+                expectLiteral("alse");
+                return peeked = Token.FALSE;
+            case 'n':
+                expectLiteral("ull");
+                return peeked = Token.NULL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    pos--;
+                    return peeked = Token.NUMBER;
+                }
+                throw syntaxError("Unexpected character");
+        }
+    }
+
+    /**
+     * Check whether the current array or object has more elements.
+     *
+     * @return {@code true} if there are more elements, {@code false}
+     * otherwise.
+     * @throws IOException if the document cannot be read or is malformed.
+     */
+    public boolean hasNext() throws IOException {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    public void beginObject() throws IOException {
+        consume(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    public void endObject() throws IOException {
+        consume(Token.END_OBJECT);
+        depth--;
+    }
+
+    public void beginArray() throws IOException {
+        consume(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    public void endArray() throws IOException {
+        consume(Token.END_ARRAY);
+        depth--;
+    }
+
+    /**
+     * Read the next name of the current object.
+     *
+     * @return {@link String} the name.
+     * @throws IOException if the document cannot be read or is malformed.
+     */
+    public String nextName() throws IOException {
+        consume(Token.NAME);
+        readString();
+
+        int hash = 0;
+        for (int i = 0; i < text.length(); i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+        int slot = (hash ^ (hash >>> 16)) & (NAME_CACHE_SIZE - 1);
+
+        String name = names[slot];
+        if (name == null || !name.contentEquals(text)) {
+            name = text.toString();
+            names[slot] = name;
+        }
+        return name;
+    }
+
+    public String nextString() throws IOException {
+        consume(Token.STRING);
+        readString();
+        return text.toString();
+    }
+
+    public boolean nextBoolean() throws IOException {
+        Token token = peek();
+        if (token != Token.TRUE && token != Token.FALSE) {
+            throw syntaxError("Expected a boolean but was " + token);
+        }
+        peeked = null;
+        return token == Token.TRUE;
+    }
+
+    public void nextNull() throws IOException {
+        consume(Token.NULL);
+    }
+
+    /**
+     * Read the next number as a {@code double}.
+     *
+     * @return {@code double} the number.
+     * @throws IOException if the document cannot be read or is malformed.
+     */
+    public double nextDouble() throws IOException {
+        consume(Token.NUMBER);
+        readNumber();
+        try {
+            return NumberUtils.parseDouble(text, 0, text.length());
+        } catch (NumberFormatException e) {
+            throw syntaxError("Invalid number " + text);
+        }
+    }
+
+    /**
+     * Read the next number as a {@code long}. Fractional numbers are
+     * truncated.
+     *
+     * @return {@code long} the number.
+     * @throws IOException if the document cannot be read or is malformed.
+     */
+    public long nextLong() throws IOException {
+        consume(Token.NUMBER);
+        readNumber();
+
+        int length = text.length();
+        boolean negative = text.charAt(0) == '-';
+        int start = negative ? 1 : 0;
+        if (length > start && length - start <= 18) {
+            long value = 0;
+            int i = start;
+            char c;
+            while (i < length && (c = text.charAt(i)) >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                i++;
+            }
+            if (i == length) {
+                return negative ? -value : value;
+            }
+        }
+
+        try {
+            return new BigDecimal(text.toString()).longValue();
+        } catch (NumberFormatException e) {
+            throw syntaxError("Invalid number " + text);
+        }
+    }
+
+    /**
+     * Read the next value as json-simple would deserialize it, i.e., as a
+     * {@link JsonObject}, {@link JsonArray}, {@link String},
+     * {@link BigDecimal}, {@link Boolean} or {@code null}.
+     *
+     * @return {@link Object} the value.
+     * @throws IOException if the document cannot be read or is malformed.
+     */
+    public Object readValue() throws IOException {
+        switch (peek()) {
+            case BEGIN_OBJECT:
+                JsonObject object = new JsonObject();
+                beginObject();
+                while (hasNext()) {
+                    String name = nextName();
+                    object.put(name, readValue());
+                }
+                endObject();
+                return object;
+            case BEGIN_ARRAY:
+                JsonArray array = new JsonArray();
+                beginArray();
+                while (hasNext()) {
+                    array.add(readValue());
+                }
+                endArray();
+                return array;
+            case STRING:
+                return nextString();
+            case NUMBER:
+                consume(Token.NUMBER);
+                readNumber();
+                try {
+                    return new BigDecimal(text.toString());
+                } catch (NumberFormatException e) {
+                    throw syntaxError("Invalid number " + text);
+                }
+            case TRUE:
+            case FALSE:
+                return nextBoolean();
+            case NULL:
+                nextNull();
+                return null;
+            default:
+                throw syntaxError("Expected a value but was " + peek());
+        }
+    }
+
+    /**
+     * Skip the next value, including nested arrays and objects.
+     *
+     * @throws IOException if the document cannot be read or is malformed.
+     */
+    public void skipValue() throws IOException {
+        int level = 0;
+        do {
+            Token token = peek();
+            switch (token) {
+                case BEGIN_OBJECT:
+                    beginObject();
+                    level++;
+                    break;
+                case BEGIN_ARRAY:
+                    beginArray();
+                    level++;
+                    break;
+                case END_OBJECT:
+                    endObject();
+                    level--;
+                    break;
+                case END_ARRAY:
+                    endArray();
+                    level--;
+                    break;
+                case NAME:
+                    nextName();
+                    break;
+                case STRING:
+                    nextString();
+                    break;
+                case NUMBER:
+                    consume(Token.NUMBER);
+                    readNumber();
+                    break;
+                case END_DOCUMENT:
+                    throw syntaxError("Unexpected end of document");
+                default:
+                    peeked = null;
+                    break;
+            }
+        } while (level > 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void consume(Token expected) throws IOException {
+        Token token = peek();
+        if (token != expected) {
+            throw syntaxError("Expected " + expected + " but was " + token);
+        }
+        peeked = null;
+    }
+
+    private void push(int scope) {
+        if (depth == stack.length) {
+            int[] newStack = new int[depth * 2];
+            System.arraycopy(stack, 0, newStack, 0, depth);
+            stack = newStack;
+        }
+        stack[depth++] = scope;
+    }
+
+    /**
+     * Read the characters of a string (after the opening quote) into the
+     * text buffer, resolving escapes.
+     */
+    private void readString() throws IOException {
+        text.setLength(0);
+        while (true) {
+            int start = pos;
+            while (pos < limit) {
+                char c = buffer[pos++];
+                if (c == '"') {
+                    text.append(buffer, start, pos - 1 - start);
+                    return;
+                } else if (c == '\\') {
+                    text.append(buffer, start, pos - 1 - start);
+                    text.append(readEscape());
+                    start = pos;
+                }
+            }
+            text.append(buffer, start, pos - start);
+            if (!fill()) {
+                throw syntaxError("Unterminated string");
+            }
+        }
+    }
+
+    private char readEscape() throws IOException {
+        if (pos == limit && !fill()) {
+            throw syntaxError("Unterminated escape sequence");
+        }
+        char c = buffer[pos++];
+        switch (c) {
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    if (pos == limit && !fill()) {
+                        throw syntaxError("Unterminated escape sequence");
+                    }
+                    int digit = Character.digit(buffer[pos++], 16);
+                    if (digit < 0) {
+                        throw syntaxError("Invalid unicode escape");
+                    }
+                    value = (value << 4) | digit;
+                }
+                return (char) value;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case '"':
+            case '\\':
+            case '/':
+                return c;
+            default:
+                throw syntaxError("Invalid escape sequence");
+        }
+    }
+
+    /**
+     * Read the characters of a number into the text buffer.
+     */
+    private void readNumber() throws IOException {
+        text.setLength(0);
+        while (true) {
+            int start = pos;
+            while (pos < limit && isNumberChar(buffer[pos])) {
+                pos++;
+            }
+            text.append(buffer, start, pos - start);
+            if (pos < limit || !fill()) {
+                return;
+            }
+        }
+    }
+
+    private static boolean isNumberChar(char c) {
+        return (c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E';
+    }
+
+    private void expectLiteral(String rest) throws IOException {
+        for (int i = 0; i < rest.length(); i++) {
+            if ((pos == limit && !fill()) || buffer[pos++] != rest.charAt(i)) {
+                throw syntaxError("Invalid literal");
+            }
+        }
+    }
+
+    /**
+     * Skip whitespace.
+     *
+     * @return {@code true} if there are more characters, {@code false} at
+     * the end of the input.
+     */
+    private boolean skipWhitespace() throws IOException {
+        while (pos < limit || fill()) {
+            char c = buffer[pos];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return true;
+            }
+            pos++;
+        }
+        return false;
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        if (!skipWhitespace()) {
+            throw syntaxError("Unexpected end of document");
+        }
+        return buffer[pos++];
+    }
+
+    private boolean fill() throws IOException {
+        offset += limit;
+        pos = 0;
+        limit = 0;
+        int read = reader.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            return false;
+        }
+        limit = read;
+        return true;
+    }
+
+    private IOException syntaxError(String message) {
+        return new IOException(message + " at position " + (offset + pos) + ".");
+    }
+}
@@ -1,7 +1,9 @@
 package pt.up.hs.uhc.utils;
 
+import com.github.cliftonlabs.json_simple.JsonArray;
 import com.github.cliftonlabs.json_simple.JsonObject;
 
+import java.util.Collection;
 import java.util.Map;
 
 /**
@@ -13,8 +15,26 @@ public class JsonUtils {
 
     public static JsonObject fromMap(Map<String, ?> simpleMap) {
         JsonObject jsonObject = new JsonObject();
-        simpleMap.entrySet().parallelStream()
-                .forEach(e -> jsonObject.put(e.getKey(), e.getValue()));
+        simpleMap.forEach((key, value) -> jsonObject.put(key, toJsonValue(value)));
         return jsonObject;
     }
+
+    /**
+     * Convert a value into one json-simple can serialize. Enums (e.g., the
+     * capture errors of a page) are written as their names.
+     *
+     * @param value {@link Object} the value.
+     * @return {@link Object} the JSON value.
+     */
+    private static Object toJsonValue(Object value) {
+        if (value instanceof Enum) {
+            return ((Enum<?>) value).name();
+        }
+        if (value instanceof Collection) {
+            JsonArray jsonArray = new JsonArray();
+            ((Collection<?>) value).forEach(item -> jsonArray.add(toJsonValue(item)));
+            return jsonArray;
+        }
+        return value;
+    }
 }
@@ -0,0 +1,61 @@
+package pt.up.hs.uhc.utils;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Utilities to deal with metadata maps of pages, strokes and dots.
+ *
+ * Metadata starts as the shared, immutable {@link #EMPTY} map and is only
+ * allocated (as a {@link CompactMap}) when the first entry is added, or
+ * when the map is requested to be changed directly.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+public class MetadataUtils {
+
+    public static final Map<String, Object> EMPTY = Collections.emptyMap();
+
+    /**
+     * Put an entry into a metadata map, allocating it if it is still the
+     * shared empty map (or {@code null}).
+     *
+     * @param metadata {@link Map} current metadata map.
+     * @param key      {@link String} key of the entry.
+     * @param value    {@link Object} value of the entry.
+     * @return {@link Map} the metadata map to keep.
+     */
+    public static Map<String, Object> put(Map<String, Object> metadata, String key, Object value) {
+        if (metadata == null || metadata == EMPTY) {
+            metadata = new CompactMap<>();
+        }
+        metadata.put(key, value);
+        return metadata;
+    }
+
+    /**
+     * Get a mutable metadata map, allocating it if it is still the shared
+     * empty map (or {@code null}).
+     *
+     * @param metadata {@link Map} current metadata map.
+     * @return {@link Map} the metadata map to keep.
+     */
+    public static Map<String, Object> mutable(Map<String, Object> metadata) {
+        if (metadata == null || metadata == EMPTY) {
+            return new CompactMap<>();
+        }
+        return metadata;
+    }
+
+    /**
+     * Get the value of an entry from a metadata map, which may be
+     * {@code null}.
+     *
+     * @param metadata {@link Map} metadata map.
+     * @param key      {@link String} key of the entry.
+     * @return {@link Object} value of the entry.
+     */
+    public static Object get(Map<String, Object> metadata, String key) {
+        return metadata == null ? null : metadata.get(key);
+    }
+}
@@ -9,6 +9,23 @@ import static pt.up.hs.uhc.base.Constants.EPSILON;
  */
 public class NumberUtils {
 
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // mantissas up to 2^53 are exactly representable as doubles
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private static final int MAX_MANTISSA_DIGITS = 18;
+
+    private static final long[] LONG_POWERS_OF_TEN = {
+            1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L
+    };
+
+    // largest value that can be scaled into a long without overflow
+    private static final double MAX_SCALED = 9e18;
+
     public static Double roundAvoid(Double value, int places) {
         if (value == null) {
             return null;
@@ -17,6 +34,28 @@ public class NumberUtils {
         return Math.round(value * scale) / scale;
     }
 
+    /**
+     * Convert a nullable value into a primitive one, mapping {@code null} to
+     * {@link Double#NaN}.
+     *
+     * @param value {@link Double} the nullable value.
+     * @return {@code double} the primitive value.
+     */
+    public static double nullToNaN(Double value) {
+        return value == null ? Double.NaN : value;
+    }
+
+    /**
+     * Convert a primitive value into a nullable one, mapping
+     * {@link Double#NaN} to {@code null}.
+     *
+     * @param value {@code double} the primitive value.
+     * @return {@link Double} the nullable value.
+     */
+    public static Double nanToNull(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
     public static int compare(double d1, double d2) {
         if (d1 - EPSILON <= d2 && d1 + EPSILON >= d2) {
             return 0;
@@ -26,4 +65,183 @@ public class NumberUtils {
         }
         return 1;
     }
+
+    /**
+     * Parse a decimal number from a range of characters, without creating
+     * intermediate strings. Numbers with at most 15 significant digits and
+     * no exponent (the common case) are converted exactly, with a single
+     * rounding; others (including {@code NaN}, {@code Infinity} and numbers
+     * with surrounding whitespace) fall back to
+     * {@link Double#parseDouble(String)}. Hence, the result is always the
+     * same as {@link Double#parseDouble(String)}.
+     *
+     * @param cs    {@link CharSequence} characters.
+     * @param start index of the first character of the number.
+     * @param end   index after the last character of the number.
+     * @return {@code double} the number.
+     * @throws NumberFormatException if the range is not a number.
+     */
+    public static double parseDouble(CharSequence cs, int start, int end) {
+
+        int pos = start;
+
+        boolean negative = false;
+        if (pos < end && (cs.charAt(pos) == '-' || cs.charAt(pos) == '+')) {
+            negative = cs.charAt(pos) == '-';
+            pos++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean hasDigits = false;
+
+        char c;
+        while (pos < end && (c = cs.charAt(pos)) >= '0' && c <= '9') {
+            hasDigits = true;
+            if (digits < MAX_MANTISSA_DIGITS) {
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa != 0) {
+                    digits++;
+                }
+            } else {
+                exponent++;
+            }
+            pos++;
+        }
+
+        if (pos < end && cs.charAt(pos) == '.') {
+            pos++;
+            while (pos < end && (c = cs.charAt(pos)) >= '0' && c <= '9') {
+                hasDigits = true;
+                if (digits < MAX_MANTISSA_DIGITS) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (mantissa != 0) {
+                        digits++;
+                    }
+                    exponent--;
+                }
+                pos++;
+            }
+        }
+
+        if (!hasDigits) {
+            // e.g., NaN, Infinity or surrounding whitespace, let the JDK decide
+            return Double.parseDouble(cs.subSequence(start, end).toString());
+        }
+
+        if (pos < end) {
+            // exponent or garbage, let the JDK decide
+            return Double.parseDouble(cs.subSequence(start, end).toString());
+        }
+
+        double value;
+        if (mantissa == 0) {
+            value = 0D;
+        } else if (mantissa < MAX_EXACT_MANTISSA && exponent >= 0 && exponent < POWERS_OF_TEN.length) {
+            value = mantissa * POWERS_OF_TEN[exponent];
+        } else if (mantissa < MAX_EXACT_MANTISSA && exponent < 0 && -exponent < POWERS_OF_TEN.length) {
+            value = mantissa / POWERS_OF_TEN[-exponent];
+        } else {
+            return Double.parseDouble(cs.subSequence(start, end).toString());
+        }
+
+        return negative ? -value : value;
+    }
+
+    /**
+     * Append a number rounded to a fixed number of decimal places, without
+     * trailing zeros but always with at least one decimal (e.g.,
+     * {@code 300.0}, {@code 0.457}, {@code -2.5}). For values which already
+     * have no more decimal places than {@code precision}, the result is the
+     * same as {@link Double#toString(double)} in its plain notation range.
+     * Non-finite values are appended as {@link Double#toString(double)}.
+     *
+     * @param sb        {@link StringBuilder} to append to.
+     * @param value     {@code double} the number.
+     * @param precision number of decimal places (0 to 8).
+     * @return {@link StringBuilder} the given builder.
+     */
+    public static StringBuilder appendDecimal(StringBuilder sb, double value, int precision) {
+
+        long scale = LONG_POWERS_OF_TEN[precision];
+        double scaled = Math.abs(value) * scale;
+
+        if (Double.isNaN(value) || scaled >= MAX_SCALED) {
+            return sb.append(value);
+        }
+
+        long units = Math.round(scaled);
+        if (value < 0 && units != 0) {
+            sb.append('-');
+        }
+
+        sb.append(units / scale).append('.');
+
+        long fraction = units % scale;
+        if (fraction == 0) {
+            return sb.append('0');
+        }
+
+        int digits = precision;
+        while (fraction % 10 == 0) {
+            fraction /= 10;
+            digits--;
+        }
+        for (long p = LONG_POWERS_OF_TEN[digits - 1]; p > fraction; p /= 10) {
+            sb.append('0');
+        }
+        return sb.append(fraction);
+    }
+
+    /**
+     * Convert a number into fixed-point units of {@code 10^-precision}
+     * (e.g., {@code 1.2345} with precision {@code 3} is {@code 1235} units),
+     * rounding half-up.
+     *
+     * @param value     {@code double} the number.
+     * @param precision number of decimal places (0 to 8).
+     * @return {@code long} the number of units.
+     */
+    public static long toFixed(double value, int precision) {
+        return Math.round(value * LONG_POWERS_OF_TEN[precision]);
+    }
+
+    /**
+     * Append a fixed-point number of units of {@code 10^-precision} in its
+     * shortest decimal form, without trailing zeros nor decimal point for
+     * whole numbers (e.g., {@code 1500} units with precision {@code 3} is
+     * {@code 1.5}, and {@code -2000} is {@code -2}).
+     *
+     * @param sb        {@link StringBuilder} to append to.
+     * @param units     {@code long} number of units.
+     * @param precision number of decimal places (0 to 8).
+     * @return {@link StringBuilder} the given builder.
+     */
+    public static StringBuilder appendFixed(StringBuilder sb, long units, int precision) {
+
+        if (units < 0) {
+            sb.append('-');
+            units = -units;
+        }
+
+        long scale = LONG_POWERS_OF_TEN[precision];
+        sb.append(units / scale);
+
+        long fraction = units % scale;
+        if (fraction == 0) {
+            return sb;
+        }
+
+        int digits = precision;
+        while (fraction % 10 == 0) {
+            fraction /= 10;
+            digits--;
+        }
+        sb.append('.');
+        for (long p = LONG_POWERS_OF_TEN[digits - 1]; p > fraction; p /= 10) {
+            sb.append('0');
+        }
+        return sb.append(fraction);
+    }
 }
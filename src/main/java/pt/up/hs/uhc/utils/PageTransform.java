@@ -0,0 +1,187 @@
+package pt.up.hs.uhc.utils;
+
+import pt.up.hs.uhc.models.Page;
+import pt.up.hs.uhc.models.Stroke;
+
+/**
+ * Affine transform of the coordinates of pages, composed from a sequence of
+ * translations, scales, rotations and mirrors (applied in the order they
+ * are added) into a single matrix, so that each dot is transformed once.
+ *
+ * <pre>
+ * x' = m00 * x + m01 * y + m02
+ * y' = m10 * x + m11 * y + m12
+ * </pre>
+ *
+ * Dots with a missing coordinate are left unchanged. Page dimensions, when
+ * present, are multiplied by the scale factors of the transform.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+public class PageTransform {
+
+    private double m00 = 1D, m01 = 0D, m02 = 0D;
+    private double m10 = 0D, m11 = 1D, m12 = 0D;
+
+    // product of the scale factors, applied to page dimensions
+    private double scaleX = 1D;
+    private double scaleY = 1D;
+
+    private boolean parallel = false;
+
+    /**
+     * Set whether strokes are transformed in parallel (default: {@code false}).
+     *
+     * @param parallel {@code true} to transform strokes in parallel.
+     * @return {@link PageTransform} this transform.
+     */
+    public PageTransform parallel(boolean parallel) {
+        this.parallel = parallel;
+        return this;
+    }
+
+    /**
+     * Add a translation.
+     *
+     * @param dx horizontal offset.
+     * @param dy vertical offset.
+     * @return {@link PageTransform} this transform.
+     */
+    public PageTransform translate(double dx, double dy) {
+        return concatenate(1D, 0D, dx, 0D, 1D, dy);
+    }
+
+    /**
+     * Add a uniform scale, from the origin.
+     *
+     * @param s scale factor.
+     * @return {@link PageTransform} this transform.
+     */
+    public PageTransform scale(double s) {
+        return scale(s, s);
+    }
+
+    /**
+     * Add a scale, from the origin.
+     *
+     * @param sx horizontal scale factor.
+     * @param sy vertical scale factor.
+     * @return {@link PageTransform} this transform.
+     */
+    public PageTransform scale(double sx, double sy) {
+        scaleX *= sx;
+        scaleY *= sy;
+        return concatenate(sx, 0D, 0D, 0D, sy, 0D);
+    }
+
+    /**
+     * Add a rotation around a point.
+     *
+     * @param cx horizontal coordinate of the center.
+     * @param cy vertical coordinate of the center.
+     * @param a  angle, in radians.
+     * @return {@link PageTransform} this transform.
+     */
+    public PageTransform rotate(double cx, double cy, double a) {
+        double cos = Math.cos(a);
+        double sin = Math.sin(a);
+        return concatenate(
+                cos, -sin, cx - cos * cx + sin * cy,
+                sin, cos, cy - sin * cx - cos * cy
+        );
+    }
+
+    /**
+     * Add a reflection across the line through two points.
+     *
+     * @param x1 horizontal coordinate of the first point.
+     * @param y1 vertical coordinate of the first point.
+     * @param x2 horizontal coordinate of the second point.
+     * @param y2 vertical coordinate of the second point.
+     * @return {@link PageTransform} this transform.
+     */
+    public PageTransform mirror(double x1, double y1, double x2, double y2) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double length2 = dx * dx + dy * dy;
+        if (length2 == 0) {
+            throw new IllegalArgumentException("Mirror line requires two distinct points.");
+        }
+        double a = (dx * dx - dy * dy) / length2;
+        double b = 2 * dx * dy / length2;
+        return concatenate(
+                a, b, x1 - a * x1 - b * y1,
+                b, -a, y1 - b * x1 + a * y1
+        );
+    }
+
+    /**
+     * Transform a point.
+     *
+     * @param x horizontal coordinate.
+     * @param y vertical coordinate.
+     * @return {@code double[]} transformed coordinates.
+     */
+    public double[] transform(double x, double y) {
+        return new double[] { m00 * x + m01 * y + m02, m10 * x + m11 * y + m12 };
+    }
+
+    /**
+     * Apply the transform to the dots (and dimensions) of a page.
+     *
+     * @param page {@link Page} the page.
+     */
+    public void apply(Page page) {
+
+        if (page.getWidth() != null) {
+            page.width(page.getWidth() * Math.abs(scaleX));
+        }
+        if (page.getHeight() != null) {
+            page.height(page.getHeight() * Math.abs(scaleY));
+        }
+
+        if (parallel) {
+            page.getStrokes().parallelStream().forEach(this::apply);
+        } else {
+            page.getStrokes().forEach(this::apply);
+        }
+    }
+
+    /**
+     * Apply the transform to the dots of a stroke.
+     *
+     * @param stroke {@link Stroke} the stroke.
+     */
+    public void apply(Stroke stroke) {
+        for (int i = 0; i < stroke.getDotCount(); i++) {
+            double x = stroke.getX(i);
+            double y = stroke.getY(i);
+            if (Double.isNaN(x) || Double.isNaN(y)) {
+                continue;
+            }
+            stroke.setX(i, m00 * x + m01 * y + m02);
+            stroke.setY(i, m10 * x + m11 * y + m12);
+        }
+    }
+
+    /**
+     * Concatenate a transform to be applied after the current one.
+     */
+    private PageTransform concatenate(double n00, double n01, double n02, double n10, double n11, double n12) {
+
+        double r00 = n00 * m00 + n01 * m10;
+        double r01 = n00 * m01 + n01 * m11;
+        double r02 = n00 * m02 + n01 * m12 + n02;
+        double r10 = n10 * m00 + n11 * m10;
+        double r11 = n10 * m01 + n11 * m11;
+        double r12 = n10 * m02 + n11 * m12 + n12;
+
+        m00 = r00;
+        m01 = r01;
+        m02 = r02;
+        m10 = r10;
+        m11 = r11;
+        m12 = r12;
+        return this;
+    }
+}
@@ -1,16 +1,12 @@
 package pt.up.hs.uhc.utils;
 
-import pt.up.hs.uhc.models.Dot;
 import pt.up.hs.uhc.models.Page;
 import pt.up.hs.uhc.models.Rect;
 import pt.up.hs.uhc.models.Stroke;
 
-import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
-import java.util.logging.Logger;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * Utilities to deal with pages.
@@ -21,54 +17,34 @@ public class PageUtils {
 
     public static Rect getBoundingRect(Page page) {
         Rect rect = new Rect(Double.MAX_VALUE, Double.MAX_VALUE, 0, 0);
-        getDotStream(page)
-                .forEach(dot -> {
-                    rect
-                            .x1(Math.min(rect.getX1(), dot.getX()))
-                            .x2(Math.max(rect.getX2(), dot.getX()))
-                            .y1(Math.min(rect.getY1(), dot.getY()))
-                            .y2(Math.max(rect.getY2(), dot.getY()));
-                });
+        for (Stroke stroke: page.getStrokes()) {
+            for (int i = 0; i < stroke.getDotCount(); i++) {
+                double x = stroke.getX(i);
+                double y = stroke.getY(i);
+                rect
+                        .x1(Math.min(rect.getX1(), x))
+                        .x2(Math.max(rect.getX2(), x))
+                        .y1(Math.min(rect.getY1(), y))
+                        .y2(Math.max(rect.getY2(), y));
+            }
+        }
         return rect;
     }
 
     public static void translate(Page page, double dx, double dy) {
-        getDotStream(page)
-                .forEach(dot -> {
-                    dot.setX(dot.getX() + dx);
-                    dot.setY(dot.getY() + dy);
-                });
+        new PageTransform().parallel(true).translate(dx, dy).apply(page);
     }
 
     public static void scale(Page page, double s) {
-        page
-                .width(page.getWidth() * s)
-                .height(page.getHeight() * s);
-        getDotStream(page)
-                .forEach(dot -> {
-                    dot.setX(dot.getX() * s);
-                    dot.setY(dot.getY() * s);
-                });
+        new PageTransform().parallel(true).scale(s).apply(page);
     }
 
     public static void rotate(Page page, double cx, double cy, double a) {
-        getDotStream(page)
-                .forEach(dot -> {
-                    dot.setX(cx + Math.cos(a) * (dot.getX() - cx) - Math.sin(a) * (dot.getY() - cy));
-                    dot.setY(cy + Math.sin(a) * (dot.getX() - cx) + Math.cos(a) * (dot.getY() - cy));
-                });
+        new PageTransform().parallel(true).rotate(cx, cy, a).apply(page);
     }
 
     public static void mirror(Page page, double x1, double y1, double x2, double y2) {
-        double dx = x2 - x1;
-        double dy = y2 - y2;
-        double a = (dx * dx - dy * dy) / (dx * dx + dy*dy);
-        double b = 2 * dx * dy / (dx*dx + dy*dy);
-        getDotStream(page)
-                .forEach(dot -> {
-                    dot.setX(a * (dot.getX() - x1) + b * (dot.getY() - y1) + x1);
-                    dot.setY(b * (dot.getX() - x1) - a * (dot.getY() - y1) + y1);
-                });
+        new PageTransform().parallel(true).mirror(x1, y1, x2, y2).apply(page);
     }
 
     public static void normalize(Page page, int decimalPlaces) {
@@ -77,12 +53,14 @@ public class PageUtils {
                 .width(NumberUtils.roundAvoid(page.getWidth(), decimalPlaces))
                 .height(NumberUtils.roundAvoid(page.getHeight(), decimalPlaces));
 
-        getDotStream(page)
-                .forEach(dot -> {
-                    dot
-                            .x(NumberUtils.roundAvoid(dot.getX(), decimalPlaces))
-                            .y(NumberUtils.roundAvoid(dot.getY(), decimalPlaces))
-                            .pressure(NumberUtils.roundAvoid(dot.getPressure(), decimalPlaces));
+        double scale = Math.pow(10, decimalPlaces);
+        page.getStrokes().parallelStream()
+                .forEach(stroke -> {
+                    for (int i = 0; i < stroke.getDotCount(); i++) {
+                        stroke.setX(i, round(stroke.getX(i), scale));
+                        stroke.setY(i, round(stroke.getY(i), scale));
+                        stroke.setPressure(i, round(stroke.getPressure(i), scale));
+                    }
                 });
     }
 
@@ -98,10 +76,9 @@ public class PageUtils {
                     stroke
                             .startTime(stroke.getStartTime() - startTime)
                             .endTime(stroke.getEndTime() - startTime);
-                    stroke.getDots().parallelStream()
-                            .forEach(dot -> {
-                                dot.timestamp(dot.getTimestamp() - startTime);
-                            });
+                    for (int i = 0; i < stroke.getDotCount(); i++) {
+                        stroke.setTimestamp(i, stroke.getTimestamp(i) - startTime);
+                    }
                 });
     }
 
@@ -143,10 +120,10 @@ public class PageUtils {
         return !pageRect.contains(rect);
     }
 
-    private static Stream<Dot> getDotStream(Page page) {
-        return page.getStrokes()
-                .stream()
-                .map(Stroke::getDots)
-                .flatMap(Collection::parallelStream);
+    private static double round(double value, double scale) {
+        if (Double.isNaN(value)) {
+            return value;
+        }
+        return Math.round(value * scale) / scale;
     }
 }
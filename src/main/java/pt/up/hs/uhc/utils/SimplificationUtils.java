@@ -0,0 +1,144 @@
+package pt.up.hs.uhc.utils;
+
+import pt.up.hs.uhc.models.Stroke;
+
+/**
+ * Utilities to simplify strokes, dropping dots which do not change their
+ * shape by more than a tolerance.
+ *
+ * Strokes are simplified with the Ramer-Douglas-Peucker algorithm, which
+ * guarantees that every dropped dot lies within the tolerance (in page
+ * units, e.g., millimetres) of the simplified line. The first and last
+ * dots are always kept.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+public class SimplificationUtils {
+
+    /**
+     * Simplify a stroke into a new one, with the kept dots (and their
+     * metadata) and the same times and metadata. Dots with missing
+     * coordinates are dropped.
+     *
+     * @param stroke    {@link Stroke} the stroke.
+     * @param tolerance maximum distance of dropped dots to the simplified
+     *                  stroke.
+     * @return {@link Stroke} the simplified stroke.
+     */
+    public static Stroke simplify(Stroke stroke, double tolerance) {
+
+        int[] indices = new int[stroke.getDotCount()];
+        int count = 0;
+        for (int i = 0; i < stroke.getDotCount(); i++) {
+            if (!Double.isNaN(stroke.getX(i)) && !Double.isNaN(stroke.getY(i))) {
+                indices[count++] = i;
+            }
+        }
+        count = simplify(stroke, indices, count, tolerance);
+
+        Stroke simplified = new Stroke(count)
+                .startTime(stroke.getStartTime())
+                .endTime(stroke.getEndTime());
+        if (stroke.hasMetadata()) {
+            stroke.getMetadata().forEach(simplified::addMetadata);
+        }
+        for (int i = 0; i < count; i++) {
+            simplified.addDot(stroke.getDot(indices[i]));
+        }
+        return simplified;
+    }
+
+    /**
+     * Simplify a sequence of dots of a stroke, given by their indices,
+     * keeping the indices of the remaining dots in place, in order. Dots
+     * must have coordinates.
+     *
+     * @param stroke    {@link Stroke} the stroke.
+     * @param indices   {@code int[]} indices of the dots to simplify,
+     *                  replaced by the indices of the kept ones.
+     * @param count     number of indices.
+     * @param tolerance maximum distance of dropped dots to the simplified
+     *                  stroke.
+     * @return number of kept dots.
+     */
+    public static int simplify(Stroke stroke, int[] indices, int count, double tolerance) {
+
+        if (count < 3 || !(tolerance > 0)) {
+            return count;
+        }
+
+        double tolerance2 = tolerance * tolerance;
+
+        boolean[] keep = new boolean[count];
+        keep[0] = true;
+        keep[count - 1] = true;
+
+        // ranges still to simplify, as pairs of (first, last) positions
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = count - 1;
+
+        while (top > 0) {
+            int last = stack[--top];
+            int first = stack[--top];
+
+            double ax = stroke.getX(indices[first]);
+            double ay = stroke.getY(indices[first]);
+            double bx = stroke.getX(indices[last]);
+            double by = stroke.getY(indices[last]);
+
+            double farthest2 = -1D;
+            int farthest = -1;
+            for (int k = first + 1; k < last; k++) {
+                double d2 = distanceToSegment2(stroke.getX(indices[k]), stroke.getY(indices[k]), ax, ay, bx, by);
+                if (d2 > farthest2) {
+                    farthest2 = d2;
+                    farthest = k;
+                }
+            }
+
+            if (farthest != -1 && farthest2 > tolerance2) {
+                keep[farthest] = true;
+                if (top + 4 > stack.length) {
+                    int[] grown = new int[stack.length * 2];
+                    System.arraycopy(stack, 0, grown, 0, top);
+                    stack = grown;
+                }
+                if (farthest - first > 1) {
+                    stack[top++] = first;
+                    stack[top++] = farthest;
+                }
+                if (last - farthest > 1) {
+                    stack[top++] = farthest;
+                    stack[top++] = last;
+                }
+            }
+        }
+
+        int kept = 0;
+        for (int k = 0; k < count; k++) {
+            if (keep[k]) {
+                indices[kept++] = indices[k];
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Squared distance from a point to a segment.
+     */
+    private static double distanceToSegment2(double px, double py, double ax, double ay, double bx, double by) {
+
+        double dx = bx - ax;
+        double dy = by - ay;
+        double length2 = dx * dx + dy * dy;
+
+        double t = length2 == 0 ? 0 : ((px - ax) * dx + (py - ay) * dy) / length2;
+        t = Math.max(0, Math.min(1, t));
+
+        double ex = px - (ax + t * dx);
+        double ey = py - (ay + t * dy);
+        return ex * ex + ey * ey;
+    }
+}
@@ -3,6 +3,7 @@ package pt.up.hs.uhc.utils;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 
 /**
  * Utilities to deal with streams.
@@ -24,4 +25,44 @@ public class StreamUtils {
 
         return outputStream.toByteArray();
     }
+
+    /**
+     * Read all remaining bytes of a stream whose size may be known in
+     * advance (e.g., an archive entry), avoiding intermediate copies when
+     * it is.
+     *
+     * @param inputStream {@link InputStream} stream to read.
+     * @param size        expected number of bytes, or a negative value if
+     *                    unknown.
+     * @return {@code byte[]} bytes read.
+     * @throws IOException if an error occurs while reading the stream.
+     */
+    public static byte[] readAllBytes(InputStream inputStream, long size) throws IOException {
+        if (size < 0 || size > Integer.MAX_VALUE - 8) {
+            return readAllBytes(inputStream);
+        }
+
+        byte[] bytes = new byte[(int) size];
+        int offset = 0;
+        int readLen;
+        while (offset < bytes.length &&
+                (readLen = inputStream.read(bytes, offset, bytes.length - offset)) != -1) {
+            offset += readLen;
+        }
+
+        if (offset < bytes.length) {
+            return Arrays.copyOf(bytes, offset);
+        }
+
+        // entry may be larger than announced
+        int next = inputStream.read();
+        if (next == -1) {
+            return bytes;
+        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(bytes.length * 2);
+        outputStream.write(bytes);
+        outputStream.write(next);
+        outputStream.write(readAllBytes(inputStream));
+        return outputStream.toByteArray();
+    }
 }
@@ -0,0 +1,233 @@
+package pt.up.hs.uhc;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pt.up.hs.uhc.generator.CorpusGenerator;
+import pt.up.hs.uhc.models.Format;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Test {@link Cli}.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+public class CliTest {
+
+    private static final int FILES = 12;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testConvertDirectoryInParallel() throws Exception {
+        testConvertDirectory("-j", "4");
+    }
+
+    @Test
+    public void testConvertDirectoryInParallelOrdered() throws Exception {
+        testConvertDirectory("-j", "4", "--ordered");
+    }
+
+    private void testConvertDirectory(String... options) throws Exception {
+
+        Path inputDir = createInputs();
+        Path outputDir = Files.createDirectory(tempDir.resolve("out"));
+        Files.write(inputDir.resolve("d1/bad.json"), "{\"strokes\": [".getBytes(StandardCharsets.UTF_8));
+
+        String[] args = args(inputDir, outputDir, options);
+
+        String out = run(false, args);
+
+        Assertions.assertTrue(out.contains(String.format("%d succeeded, 0 up to date, 1 failed", FILES)), out);
+        for (int i = 0; i < FILES; i++) {
+            Path output = outputDir.resolve(String.format("d%d/page-%d.csv", i % 3, i));
+            Assertions.assertTrue(Files.size(output) > 0, output.toString());
+        }
+        Assertions.assertFalse(Files.exists(outputDir.resolve("d1/bad.csv")));
+
+        // up to date on the second run, except the failing file
+        out = run(false, args);
+        Assertions.assertTrue(out.contains(String.format("0 succeeded, %d up to date, 1 failed", FILES)), out);
+
+        // all succeed without the failing file
+        Files.delete(inputDir.resolve("d1/bad.json"));
+        Assertions.assertTrue(Cli.run(args));
+    }
+
+    @Test
+    public void testForceConversion() throws Exception {
+
+        Path inputDir = createInputs();
+        Path outputDir = Files.createDirectory(tempDir.resolve("out"));
+        Path output = outputDir.resolve("d0/page-0.csv");
+
+        run(true, args(inputDir, outputDir));
+        Files.write(output, new byte[0]);
+
+        String out = run(true, args(inputDir, outputDir, "--force"));
+        Assertions.assertTrue(out.contains(String.format("%d succeeded, 0 up to date, 0 failed", FILES)), out);
+        Assertions.assertTrue(Files.size(output) > 0);
+    }
+
+    @Test
+    public void testDeletedInput() throws Exception {
+
+        Path inputDir = createInputs();
+        Path outputDir = Files.createDirectory(tempDir.resolve("out"));
+        Path output = outputDir.resolve("d1/page-1.csv");
+
+        run(true, args(inputDir, outputDir));
+        Assertions.assertTrue(Files.exists(output));
+
+        Files.delete(inputDir.resolve("d1/page-1.json"));
+
+        String out = run(true, args(inputDir, outputDir));
+        Assertions.assertTrue(
+                out.contains(String.format("0 succeeded, %d up to date, 0 failed, 1 deleted", FILES - 1)), out
+        );
+        Assertions.assertFalse(Files.exists(output));
+        Assertions.assertTrue(Files.exists(outputDir.resolve("d2/page-2.csv")));
+
+        try (ConversionManifest manifest = ConversionManifest.open(outputDir)) {
+            Assertions.assertNull(manifest.get("d1/page-1.json"));
+            Assertions.assertFalse(manifest.hasOutput("d1/page-1.csv"));
+            Assertions.assertEquals(FILES - 1, manifest.getPaths().size());
+        }
+    }
+
+    @Test
+    public void testOutputPerPage() throws Exception {
+
+        Path inputDir = createArchive(3);
+        Path outputDir = Files.createDirectory(tempDir.resolve("out"));
+
+        run(true, args(inputDir, outputDir, "--format", "svg"));
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertTrue(Files.size(outputDir.resolve(String.format("corpus-%d.svg", i))) > 0);
+        }
+        Assertions.assertFalse(Files.exists(outputDir.resolve("corpus.svg")));
+
+        Path templateDir = Files.createDirectory(tempDir.resolve("template"));
+        run(true, args(inputDir, templateDir, "--format", "svg", "--page-template", "p{page}/{name}.{ext}"));
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertTrue(Files.exists(templateDir.resolve(String.format("p%d/corpus.svg", i))));
+        }
+    }
+
+    @Test
+    public void testSingleOutput() throws Exception {
+
+        Path inputDir = createArchive(3);
+        Path outputDir = Files.createDirectory(tempDir.resolve("out"));
+
+        run(true, args(inputDir, outputDir, "--format", "csv", "--single-output", "--columns", "x,y,page"));
+
+        List<String> lines = Files.readAllLines(outputDir.resolve("corpus.csv"));
+        Assertions.assertEquals("x,y,page", lines.get(0));
+        Assertions.assertEquals(1 + 3 * 5 * 10, lines.size());
+        Assertions.assertTrue(lines.get(lines.size() - 1).endsWith(",2"));
+        Assertions.assertFalse(Files.exists(outputDir.resolve("corpus-0.csv")));
+    }
+
+    @Test
+    public void testRasterSize() throws Exception {
+
+        Path inputDir = createInputs();
+        Path outputDir = Files.createDirectory(tempDir.resolve("out"));
+
+        run(true, args(inputDir, outputDir, "--format", "png", "--size", "105x0"));
+
+        BufferedImage image = ImageIO.read(outputDir.resolve("d0/page-0.png").toFile());
+        Assertions.assertEquals(105, image.getWidth());
+        Assertions.assertEquals(Math.round(105 * CorpusGenerator.PAGE_HEIGHT / CorpusGenerator.PAGE_WIDTH),
+                image.getHeight());
+    }
+
+    @Test
+    public void testInvalidOutputOptions() throws Exception {
+
+        Path inputDir = createArchive(3);
+        Path outputDir = Files.createDirectory(tempDir.resolve("out"));
+
+        // svg holds a single page
+        run(false, args(inputDir, outputDir, "--format", "svg", "--single-output"));
+        run(false, args(inputDir, outputDir, "--format", "svg", "--columns", "x,y"));
+        run(false, args(inputDir, outputDir, "--format", "csv", "--columns", "x,z"));
+        run(false, args(inputDir, outputDir, "--format", "csv", "--size", "10x10"));
+        run(false, args(inputDir, outputDir, "--format", "png", "--size", "10"));
+        run(false, args(inputDir, outputDir, "--format", "pdf"));
+        run(false, args(inputDir, outputDir, "--page-template", "{name}.{ext}"));
+
+        try (Stream<Path> outputs = Files.list(outputDir)) {
+            Assertions.assertEquals(0, outputs.count());
+        }
+    }
+
+    /**
+     * Create a Neo Notes archive ({@code corpus.neonotes.zip}) of
+     * {@code pages} pages of 5 x 10.
+     */
+    private Path createArchive(int pages) throws Exception {
+
+        Path inputDir = Files.createDirectory(tempDir.resolve("in"));
+        try (OutputStream os = Files.newOutputStream(inputDir.resolve("corpus.neonotes.zip"))) {
+            new CorpusGenerator(1L).pages(pages).strokes(5).dots(10).writeNeoNotesArchive(os);
+        }
+        return inputDir;
+    }
+
+    /**
+     * Create {@link #FILES} single-page HandSpy inputs, spread over three
+     * directories.
+     */
+    private Path createInputs() throws Exception {
+
+        Path inputDir = Files.createDirectory(tempDir.resolve("in"));
+
+        CorpusGenerator generator = new CorpusGenerator(1L).strokes(5).dots(10);
+        for (int i = 0; i < FILES; i++) {
+            Path file = inputDir.resolve(String.format("d%d/page-%d.json", i % 3, i));
+            Files.createDirectories(file.getParent());
+            try (OutputStream os = Files.newOutputStream(file)) {
+                generator.write(generator.generatePage(i), i, Format.HANDSPY, os);
+            }
+        }
+        return inputDir;
+    }
+
+    private static String[] args(Path input, Path output, String... options) {
+        String[] args = new String[options.length + 4];
+        args[0] = "-i";
+        args[1] = input.toString();
+        args[2] = "-o";
+        args[3] = output.toString();
+        System.arraycopy(options, 0, args, 4, options.length);
+        return args;
+    }
+
+    /**
+     * Run the CLI, capturing its standard output.
+     */
+    private static String run(boolean success, String... args) {
+        PrintStream stdout = System.out;
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        try {
+            System.setOut(new PrintStream(captured, true));
+            Assertions.assertEquals(success, Cli.run(args));
+        } finally {
+            System.setOut(stdout);
+        }
+        return new String(captured.toByteArray());
+    }
+}
@@ -0,0 +1,148 @@
+package pt.up.hs.uhc;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Test {@link ConversionManifest}.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+public class ConversionManifestTest {
+
+    @Test
+    public void testReopenAfterUpdates() throws Exception {
+
+        Path dir = Files.createTempDirectory("uhc-manifest");
+
+        try (ConversionManifest manifest = ConversionManifest.open(dir)) {
+            Assertions.assertTrue(manifest.getPaths().isEmpty());
+            manifest.put(new ConversionManifest.Entry(
+                    "a/1.json", 10, 100, "h1", "v", "csv", Collections.singletonList("a/1.csv")));
+            manifest.put(new ConversionManifest.Entry(
+                    "a/2.json", 20, 200, "h2", "v", "csv", Arrays.asList("a/2-0.csv", "a/2-1.csv")));
+            manifest.put(new ConversionManifest.Entry(
+                    "a/1.json", 11, 101, "h3", "v", "csv", Collections.singletonList("a/1.csv")));
+            manifest.remove("a/2.json");
+        }
+
+        // one line per input after compaction
+        Assertions.assertEquals(1, Files.readAllLines(dir.resolve(ConversionManifest.FILENAME)).size());
+
+        try (ConversionManifest manifest = ConversionManifest.open(dir)) {
+            Assertions.assertEquals(1, manifest.getPaths().size());
+            ConversionManifest.Entry entry = manifest.get("a/1.json");
+            Assertions.assertEquals(11, entry.getSize());
+            Assertions.assertEquals(101, entry.getModified());
+            Assertions.assertEquals("h3", entry.getHash());
+            Assertions.assertEquals("v", entry.getVersion());
+            Assertions.assertEquals("csv", entry.getFormat());
+            Assertions.assertTrue(manifest.hasOutput("a/1.csv"));
+            Assertions.assertEquals(Collections.singletonList("a/1.csv"), entry.getOutputs());
+            Assertions.assertFalse(manifest.hasOutput("a/2-1.csv"));
+            Assertions.assertNull(manifest.get("a/2.json"));
+        }
+    }
+
+    @Test
+    public void testIgnoreIncompleteLine() throws Exception {
+
+        Path dir = Files.createTempDirectory("uhc-manifest");
+        Path file = dir.resolve(ConversionManifest.FILENAME);
+
+        try (ConversionManifest manifest = ConversionManifest.open(dir)) {
+            manifest.put(new ConversionManifest.Entry(
+                    "1.json", 10, 100, "h1", "v", "csv", Collections.singletonList("1.csv")));
+        }
+
+        // an interrupted run may leave half a line behind
+        Files.write(file, "{\"output\":\"2.csv\",\"pa".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        try (ConversionManifest manifest = ConversionManifest.open(dir)) {
+            Assertions.assertEquals(1, manifest.getPaths().size());
+            Assertions.assertEquals("h1", manifest.get("1.json").getHash());
+            manifest.put(new ConversionManifest.Entry(
+                    "3.json", 30, 300, "h3", "v", "csv", Collections.singletonList("3.csv")));
+        }
+
+        try (ConversionManifest manifest = ConversionManifest.open(dir)) {
+            Assertions.assertEquals(2, manifest.getPaths().size());
+            Assertions.assertEquals("h3", manifest.get("3.json").getHash());
+        }
+    }
+
+    @Test
+    public void testSkipCorruptLine() throws Exception {
+
+        Path dir = Files.createTempDirectory("uhc-manifest");
+        Path file = dir.resolve(ConversionManifest.FILENAME);
+
+        Files.write(file, Arrays.asList(
+                "{\"path\":\"1.json\",\"size\":10,\"modified\":100,\"hash\":\"h1\",\"version\":\"v\"," +
+                        "\"format\":\"csv\",\"outputs\":[\"1.csv\"]}",
+                "{\"path\":\"2.json\",\"si#@!",
+                "{\"path\":\"4.json\",\"size\":\"x\"}",
+                "{\"path\":\"3.json\",\"size\":30,\"modified\":300,\"hash\":\"h3\",\"version\":\"v\"," +
+                        "\"format\":\"csv\",\"outputs\":[\"3.csv\"]}"
+        ), StandardCharsets.UTF_8);
+
+        try (ConversionManifest manifest = ConversionManifest.open(dir)) {
+            Assertions.assertEquals(2, manifest.getPaths().size());
+            Assertions.assertEquals("h1", manifest.get("1.json").getHash());
+            Assertions.assertEquals("h3", manifest.get("3.json").getHash());
+            Assertions.assertTrue(manifest.hasOutput("3.csv"));
+        }
+
+        // entries after the corrupt lines survive compaction
+        Assertions.assertEquals(2, Files.readAllLines(file).size());
+        try (ConversionManifest manifest = ConversionManifest.open(dir)) {
+            Assertions.assertEquals("h3", manifest.get("3.json").getHash());
+        }
+    }
+
+    @Test
+    public void testSharedOutputs() throws Exception {
+
+        Path dir = Files.createTempDirectory("uhc-manifest");
+
+        try (ConversionManifest manifest = ConversionManifest.open(dir)) {
+            manifest.put(new ConversionManifest.Entry(
+                    "1.json", 10, 100, "h1", "v", "csv", Arrays.asList("1.csv", "shared.csv")));
+            manifest.put(new ConversionManifest.Entry(
+                    "2.json", 20, 200, "h2", "v", "csv", Collections.singletonList("shared.csv")));
+
+            manifest.remove("1.json");
+            Assertions.assertFalse(manifest.hasOutput("1.csv"));
+            Assertions.assertTrue(manifest.hasOutput("shared.csv"));
+
+            manifest.put(new ConversionManifest.Entry(
+                    "2.json", 21, 201, "h2", "v", "csv", Collections.singletonList("2.csv")));
+            Assertions.assertFalse(manifest.hasOutput("shared.csv"));
+            Assertions.assertTrue(manifest.hasOutput("2.csv"));
+        }
+
+        try (ConversionManifest manifest = ConversionManifest.open(dir)) {
+            Assertions.assertTrue(manifest.hasOutput("2.csv"));
+            Assertions.assertFalse(manifest.hasOutput("shared.csv"));
+        }
+    }
+
+    @Test
+    public void testHash() throws Exception {
+
+        Path file = Files.createTempFile("uhc-manifest", ".json");
+        Files.write(file, "abc".getBytes(StandardCharsets.US_ASCII));
+
+        Assertions.assertEquals(
+                "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+                ConversionManifest.hash(file)
+        );
+    }
+}
@@ -2,15 +2,25 @@ package pt.up.hs.uhc;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pt.up.hs.uhc.csv.CsvWriter;
+import pt.up.hs.uhc.exceptions.UnsupportedFormatException;
 import pt.up.hs.uhc.models.Dot;
 import pt.up.hs.uhc.models.Format;
 import pt.up.hs.uhc.models.Page;
 import pt.up.hs.uhc.models.Stroke;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Test Universal Handwriting Converter.
@@ -19,6 +29,9 @@ import java.util.List;
  */
 public class UniversalHandwritingConverterTest {
 
+    @TempDir
+    Path tempDir;
+
     /*@Test
     public void testReadNeoNotesWithAutoDetect() {
         UniversalHandwritingConverter uhc = new UniversalHandwritingConverter()
@@ -515,7 +528,7 @@ public class UniversalHandwritingConverterTest {
                 .file(TestUtils.openFileForResource("neonotes/single/page_full.data"))
                 .center()
                 .outputFormat(Format.SVG)
-                .write(Files.newOutputStream(Paths.get("page.svg")));
+                .write(Files.newOutputStream(tempDir.resolve("page.svg")));
     }
 
     @Test
@@ -524,10 +537,10 @@ public class UniversalHandwritingConverterTest {
                 .file(TestUtils.openFileForResource("neonotes/archive/soft-lines.neonotes.zip"))
                 .center()
                 .outputFormat(Format.SVG)
-                .write(0, Files.newOutputStream(Paths.get("page-1.svg")))
-                .write(1, Files.newOutputStream(Paths.get("page-2.svg")))
-                .write(2, Files.newOutputStream(Paths.get("page-3.svg")))
-                .write(3, Files.newOutputStream(Paths.get("page-4.svg")));
+                .write(0, Files.newOutputStream(tempDir.resolve("page-1.svg")))
+                .write(1, Files.newOutputStream(tempDir.resolve("page-2.svg")))
+                .write(2, Files.newOutputStream(tempDir.resolve("page-3.svg")))
+                .write(3, Files.newOutputStream(tempDir.resolve("page-4.svg")));
     }
 
     @Test
@@ -536,18 +549,18 @@ public class UniversalHandwritingConverterTest {
                 .file(TestUtils.openFileForResource("neonotes/archive/mariona-1.neonotes.zip"))
                 .center()
                 .outputFormat(Format.SVG)
-                .write(0, Files.newOutputStream(Paths.get("page-1.svg")))
-                .write(1, Files.newOutputStream(Paths.get("page-2.svg")))
-                .write(2, Files.newOutputStream(Paths.get("page-3.svg")))
-                .write(3, Files.newOutputStream(Paths.get("page-4.svg")))
-                .write(4, Files.newOutputStream(Paths.get("page-5.svg")))
-                .write(5, Files.newOutputStream(Paths.get("page-6.svg")))
-                .write(6, Files.newOutputStream(Paths.get("page-7.svg")))
-                .write(7, Files.newOutputStream(Paths.get("page-8.svg")))
-                .write(8, Files.newOutputStream(Paths.get("page-9.svg")))
-                .write(9, Files.newOutputStream(Paths.get("page-10.svg")))
-                .write(10, Files.newOutputStream(Paths.get("page-11.svg")))
-                .write(11, Files.newOutputStream(Paths.get("page-12.svg")));
+                .write(0, Files.newOutputStream(tempDir.resolve("page-1.svg")))
+                .write(1, Files.newOutputStream(tempDir.resolve("page-2.svg")))
+                .write(2, Files.newOutputStream(tempDir.resolve("page-3.svg")))
+                .write(3, Files.newOutputStream(tempDir.resolve("page-4.svg")))
+                .write(4, Files.newOutputStream(tempDir.resolve("page-5.svg")))
+                .write(5, Files.newOutputStream(tempDir.resolve("page-6.svg")))
+                .write(6, Files.newOutputStream(tempDir.resolve("page-7.svg")))
+                .write(7, Files.newOutputStream(tempDir.resolve("page-8.svg")))
+                .write(8, Files.newOutputStream(tempDir.resolve("page-9.svg")))
+                .write(9, Files.newOutputStream(tempDir.resolve("page-10.svg")))
+                .write(10, Files.newOutputStream(tempDir.resolve("page-11.svg")))
+                .write(11, Files.newOutputStream(tempDir.resolve("page-12.svg")));
     }
 
     @Test
@@ -556,6 +569,107 @@ public class UniversalHandwritingConverterTest {
                 .file(TestUtils.openFileForResource("neonotes/single/page_full.data"))
                 .center()
                 .normalize(true, 3)
-                .write(Files.newOutputStream(Paths.get("page.json")));
+                .write(Files.newOutputStream(tempDir.resolve("page.json")));
+    }
+
+    @Test
+    public void testWriteEachSvg() {
+        List<ByteArrayOutputStream> outputs = new ArrayList<>();
+
+        int count = new UniversalHandwritingConverter()
+                .outputFormat(Format.SVG)
+                .writeEach(TestUtils.openFileForResource("neonotes/archive/soft-lines.neonotes.zip"), pageNr -> {
+                    ByteArrayOutputStream os = new ByteArrayOutputStream();
+                    outputs.add(os);
+                    return os;
+                });
+
+        Assertions.assertEquals(4, count);
+        Assertions.assertEquals(4, outputs.size());
+        Assertions.assertTrue(outputs.stream().allMatch(os -> os.size() > 0));
+    }
+
+    @Test
+    public void testReadWithMisleadingName() throws Exception {
+
+        byte[] content = Files.readAllBytes(
+                TestUtils.openFileForResource("neonotes/archive/soft-lines.neonotes.zip").toPath());
+
+        List<Page> pages = new UniversalHandwritingConverter()
+                .file("upload.bin", new ByteArrayInputStream(content))
+                .getPages();
+
+        Assertions.assertEquals(4, pages.size());
+    }
+
+    @Test
+    public void testWriteAllPagesAsCsv() {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+
+        int count = new UniversalHandwritingConverter()
+                .outputFormat(Format.CSV)
+                .csvColumns(CsvWriter.Column.PAGE, CsvWriter.Column.X)
+                .writeAll(TestUtils.openFileForResource("neonotes/archive/soft-lines.neonotes.zip"), os);
+
+        Assertions.assertEquals(4, count);
+
+        String[] lines = new String(os.toByteArray(), StandardCharsets.US_ASCII).split("\n");
+        Assertions.assertEquals("page,x", lines[0]);
+        Assertions.assertEquals(
+                IntStream.range(0, 4).mapToObj(String::valueOf).collect(Collectors.toList()),
+                Arrays.stream(lines).skip(1).map(line -> line.split(",")[0]).distinct().collect(Collectors.toList())
+        );
+    }
+
+    @Test
+    public void testWriteAllUnsupportedFormat() {
+        Assertions.assertFalse(UniversalHandwritingConverter.isMultiPageFormat(Format.SVG));
+        Assertions.assertThrows(UnsupportedFormatException.class, () -> new UniversalHandwritingConverter()
+                .outputFormat(Format.SVG)
+                .writeAll(TestUtils.openFileForResource("neonotes/archive/soft-lines.neonotes.zip"),
+                        new ByteArrayOutputStream()));
+    }
+
+    @Test
+    public void testWriteLinesAndReadNdjson() {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+
+        int count = new UniversalHandwritingConverter()
+                .writeLines(TestUtils.openFileForResource("neonotes/archive/soft-lines.neonotes.zip"), os);
+
+        Assertions.assertEquals(4, count);
+
+        List<Page> pages = new UniversalHandwritingConverter()
+                .file("pages.ndjson", new ByteArrayInputStream(os.toByteArray()))
+                .getPages();
+
+        Assertions.assertEquals(4, pages.size());
+        Assertions.assertTrue(pages.stream().allMatch(page -> !page.getStrokes().isEmpty()));
+    }
+
+    @Test
+    public void testWarmUpAndConvertInkMLInParallel() {
+        UniversalHandwritingConverter.warmUp();
+
+        Page expected = new UniversalHandwritingConverter()
+                .file(TestUtils.openFileForResource("inkml/single/sample-filled.inkml"))
+                .getPage();
+
+        List<Page> pages = IntStream.range(0, 16).parallel()
+                .mapToObj(i -> {
+                    ByteArrayOutputStream os = new ByteArrayOutputStream();
+                    new UniversalHandwritingConverter()
+                            .page(expected)
+                            .outputFormat(Format.INKML)
+                            .write(os);
+                    return new UniversalHandwritingConverter()
+                            .file("page.inkml", new ByteArrayInputStream(os.toByteArray()))
+                            .getPage();
+                })
+                .collect(Collectors.toList());
+
+        for (Page page: pages) {
+            Assertions.assertEquals(expected.getStrokes(), page.getStrokes());
+        }
     }
 }
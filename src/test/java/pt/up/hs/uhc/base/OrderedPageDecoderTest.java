@@ -0,0 +1,72 @@
+package pt.up.hs.uhc.base;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pt.up.hs.uhc.models.Page;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Test {@link OrderedPageDecoder}.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+public class OrderedPageDecoderTest {
+
+    @Test
+    public void testDecodeInOrder() throws Exception {
+
+        Set<String> threadNames = ConcurrentHashMap.newKeySet();
+        OrderedPageDecoder.Decoder decoder = bytes -> {
+            threadNames.add(Thread.currentThread().getName());
+            // later entries finish first
+            Thread.sleep(20 - bytes[0]);
+            return new Page().addMetadataPageNo((int) bytes[0]);
+        };
+
+        try (OrderedPageDecoder pageDecoder = new OrderedPageDecoder(decoder, 4)) {
+            for (int i = 0; i < 20; i++) {
+                pageDecoder.submit(new byte[] { (byte) i });
+            }
+            List<Page> pages = pageDecoder.finish();
+            Assertions.assertEquals(20, pages.size());
+            for (int i = 0; i < 20; i++) {
+                Assertions.assertEquals(i, pages.get(i).getMetadata().get("pageNo"));
+            }
+        }
+
+        Assertions.assertTrue(threadNames.size() > 1);
+        for (String name: threadNames) {
+            Assertions.assertTrue(name.matches("uhc-page-decoder-\\d+"), name);
+        }
+    }
+
+    @Test
+    public void testFailFast() {
+
+        OrderedPageDecoder.Decoder decoder = bytes -> {
+            if (bytes[0] == 0) {
+                throw new IOException("Corrupt entry.");
+            }
+            Thread.sleep(10);
+            return new Page();
+        };
+
+        int[] submitted = { 0 };
+        IOException e = Assertions.assertThrows(IOException.class, () -> {
+            try (OrderedPageDecoder pageDecoder = new OrderedPageDecoder(decoder, 2)) {
+                for (int i = 0; i < 100; i++) {
+                    pageDecoder.submit(new byte[] { (byte) i });
+                    submitted[0]++;
+                }
+                pageDecoder.finish();
+            }
+        });
+        Assertions.assertEquals("Corrupt entry.", e.getMessage());
+        // reported while submitting, long before the last entry
+        Assertions.assertTrue(submitted[0] < 100, String.valueOf(submitted[0]));
+    }
+}
@@ -0,0 +1,85 @@
+package pt.up.hs.uhc.binary;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pt.up.hs.uhc.base.PageSource;
+import pt.up.hs.uhc.generator.CorpusGenerator;
+import pt.up.hs.uhc.models.DotType;
+import pt.up.hs.uhc.models.Format;
+import pt.up.hs.uhc.models.Page;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Test UHC binary reader.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+public class UhcBinaryReaderTest {
+
+    @Test
+    public void testOpenMultiplePages() throws Exception {
+
+        List<Page> pages = new CorpusGenerator(11L).pages(3).strokes(5).dots(20).generatePages();
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Assertions.assertEquals(3, new UhcBinaryWriter().writeAll(pages.iterator(), baos));
+
+        try (PageSource source = new UhcBinaryReader().open(new ByteArrayInputStream(baos.toByteArray()))) {
+            for (Page page: pages) {
+                Assertions.assertTrue(source.hasNext());
+                Assertions.assertEquals(page.getMetadata(), source.next().getMetadata());
+            }
+            Assertions.assertFalse(source.hasNext());
+        }
+    }
+
+    @Test
+    public void testReadPageByIndex() throws Exception {
+
+        List<Page> pages = new CorpusGenerator(13L).pages(4).strokes(5).dots(20).generatePages();
+
+        Path file = Files.createTempFile("pages", ".uhcb");
+        try {
+            try (OutputStream os = Files.newOutputStream(file)) {
+                new UhcBinaryWriter().writeAll(pages.iterator(), os);
+            }
+
+            UhcBinaryReader reader = new UhcBinaryReader();
+            Assertions.assertEquals(4, reader.countPages(file));
+
+            Page page = reader.readPage(file, 2);
+            Assertions.assertEquals(pages.get(2).getMetadata(), page.getMetadata());
+            Assertions.assertEquals(pages.get(2).getStrokes().size(), page.getStrokes().size());
+            Assertions.assertEquals(
+                    pages.get(2).getStrokes().get(4).getTimestamp(19),
+                    page.getStrokes().get(4).getTimestamp(19)
+            );
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testReadEnumMetadata() throws Exception {
+
+        Page page = new Page(210D, 297D)
+                .addMetadata("type", DotType.DOWN)
+                .addMetadata("format", Format.INKML)
+                .addMetadata("other", Thread.State.NEW);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        new UhcBinaryWriter().writeSingle(page, baos);
+
+        Page actual = new UhcBinaryReader().readSingle(new ByteArrayInputStream(baos.toByteArray()));
+        Assertions.assertEquals(DotType.DOWN, actual.getMetadata().get("type"));
+        Assertions.assertEquals(Format.INKML, actual.getMetadata().get("format"));
+        // enums other than those of the models are never loaded by name
+        Assertions.assertEquals("NEW", actual.getMetadata().get("other"));
+    }
+}
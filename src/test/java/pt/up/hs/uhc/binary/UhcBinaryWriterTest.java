@@ -0,0 +1,104 @@
+package pt.up.hs.uhc.binary;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pt.up.hs.uhc.TestUtils;
+import pt.up.hs.uhc.generator.CorpusGenerator;
+import pt.up.hs.uhc.handspy.HandSpyReader;
+import pt.up.hs.uhc.handspy.HandSpyWriter;
+import pt.up.hs.uhc.models.CaptureError;
+import pt.up.hs.uhc.models.Dot;
+import pt.up.hs.uhc.models.DotType;
+import pt.up.hs.uhc.models.Page;
+import pt.up.hs.uhc.models.Stroke;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Test UHC binary writer.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+public class UhcBinaryWriterTest {
+
+    @Test
+    public void testSampleFilled() throws Exception {
+
+        Page expectedPage = new HandSpyReader()
+                .readSingle(TestUtils.openReadStreamForResource("handspy/single/sample-filled.json"));
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        new UhcBinaryWriter().writeSingle(expectedPage, baos);
+
+        Page actualPage = new UhcBinaryReader().readSingle(new ByteArrayInputStream(baos.toByteArray()));
+
+        Assertions.assertEquals(expectedPage, actualPage);
+    }
+
+    @Test
+    public void testMissingValuesAndMetadata() throws Exception {
+
+        Page expectedPage = new Page(210D, null, 1.5D, 0D, null, 2D)
+                .addMetadata("string", "café")
+                .addMetadata("int", 7)
+                .addMetadata("long", -7L)
+                .addMetadata("double", 0.1D)
+                .addMetadata("decimal", new BigDecimal("609.25"))
+                .addMetadata("boolean", true)
+                .addMetadata("null", null)
+                .addMetadata("error", CaptureError.OUT_OF_BOUNDS)
+                .addMetadata("list", Arrays.asList("a", 1))
+                .addMetadata("map", Collections.singletonMap("k", false))
+                .addStroke(new Stroke(1000L, null)
+                        .addMetadata("color", "red")
+                        .addDot(1.25D, Double.NaN, 1000L, DotType.DOWN, 0.5D)
+                        .addDot(-3D, 4D, Stroke.NO_TIMESTAMP, null, Double.NaN)
+                        .addDot(new Dot(1D, 2D, 990L, DotType.UP, 0.125D).addMetadata("k", "v"))
+                        .addDot(5D, 6D, 1010L, DotType.MOVE, 1D)
+                        .addDot(7D, 8D, 1020L, DotType.UP, 0D))
+                .addStroke(new Stroke());
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        new UhcBinaryWriter().writeSingle(expectedPage, baos);
+
+        Page actualPage = new UhcBinaryReader().readSingle(new ByteArrayInputStream(baos.toByteArray()));
+
+        Assertions.assertEquals(expectedPage, actualPage);
+        Assertions.assertEquals(1.5D, actualPage.getMarginLeft());
+        Assertions.assertNull(actualPage.getMarginRight());
+    }
+
+    @Test
+    public void testQuantizedAndSmallerThanJson() throws Exception {
+
+        Page page = new CorpusGenerator(5L).strokes(50).dots(200).generatePage(0);
+
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        new UhcBinaryWriter().writeSingle(page, binary);
+
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        new HandSpyWriter().writeSingle(page, json);
+
+        Assertions.assertTrue(binary.size() * 10 < json.size(),
+                "binary " + binary.size() + " bytes, JSON " + json.size() + " bytes");
+
+        Page actualPage = new UhcBinaryReader().readSingle(new ByteArrayInputStream(binary.toByteArray()));
+
+        for (int s = 0; s < page.getStrokes().size(); s++) {
+            Stroke expected = page.getStrokes().get(s);
+            Stroke actual = actualPage.getStrokes().get(s);
+            Assertions.assertEquals(expected.getDotCount(), actual.getDotCount());
+            for (int i = 0; i < expected.getDotCount(); i++) {
+                Assertions.assertEquals(expected.getX(i), actual.getX(i), 0.0005D);
+                Assertions.assertEquals(expected.getY(i), actual.getY(i), 0.0005D);
+                Assertions.assertEquals(expected.getPressure(i), actual.getPressure(i), 0.0005D);
+                Assertions.assertEquals(expected.getTimestamp(i), actual.getTimestamp(i));
+                Assertions.assertEquals(expected.getType(i), actual.getType(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package pt.up.hs.uhc.csv;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pt.up.hs.uhc.models.DotType;
+import pt.up.hs.uhc.models.Page;
+import pt.up.hs.uhc.models.Stroke;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Test {@link CsvWriter}.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+public class CsvWriterTest {
+
+    private static Page createPage(double offset) {
+        Stroke first = new Stroke(1L, 2L)
+                .addDot(1.5D + offset, 2.25D, 1L, DotType.DOWN, 0.5D)
+                .addDot(-0.0004D, 3.0006D, 2L, DotType.UP, Double.NaN);
+        Stroke second = new Stroke(3L, 3L)
+                .addDot(10D, 20D, Stroke.NO_TIMESTAMP, null, 1D);
+        return new Page(100D, 200D).addStroke(first).addStroke(second);
+    }
+
+    @Test
+    public void testWriteDefaultColumns() throws Exception {
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        new CsvWriter().writeSingle(createPage(0D), os);
+
+        Assertions.assertEquals(
+                "x,y,timestamp\n" +
+                        "1.5,2.25,1\n" +
+                        "0.0,3.001,2\n" +
+                        "10.0,20.0,\n",
+                new String(os.toByteArray(), StandardCharsets.US_ASCII)
+        );
+    }
+
+    @Test
+    public void testWriteAllColumns() throws Exception {
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        int count = new CsvWriter()
+                .columns(CsvWriter.Column.PAGE, CsvWriter.Column.STROKE, CsvWriter.Column.X,
+                        CsvWriter.Column.PRESSURE, CsvWriter.Column.TYPE)
+                .precision(1)
+                .separator(';')
+                .writeAll(Arrays.asList(createPage(0D), createPage(0.04D)).iterator(), os);
+
+        Assertions.assertEquals(2, count);
+        Assertions.assertEquals(
+                "page;stroke;x;pressure;type\n" +
+                        "0;0;1.5;0.5;DOWN\n" +
+                        "0;0;0.0;;UP\n" +
+                        "0;1;10.0;1.0;\n" +
+                        "1;0;1.5;0.5;DOWN\n" +
+                        "1;0;0.0;;UP\n" +
+                        "1;1;10.0;1.0;\n",
+                new String(os.toByteArray(), StandardCharsets.US_ASCII)
+        );
+    }
+
+    @Test
+    public void testWriteWithoutHeader() throws Exception {
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        new CsvWriter().header(false).columns(CsvWriter.Column.Y).writeSingle(createPage(0D), os);
+
+        Assertions.assertEquals("2.25\n3.001\n20.0\n", new String(os.toByteArray(), StandardCharsets.US_ASCII));
+    }
+}
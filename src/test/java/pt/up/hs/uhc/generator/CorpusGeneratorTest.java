@@ -0,0 +1,111 @@
+package pt.up.hs.uhc.generator;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pt.up.hs.uhc.handspy.HandSpyReader;
+import pt.up.hs.uhc.handspy.keys.PageMetadataKeys;
+import pt.up.hs.uhc.lspdf.LsInkMLReader;
+import pt.up.hs.uhc.models.Format;
+import pt.up.hs.uhc.models.Page;
+import pt.up.hs.uhc.models.Stroke;
+import pt.up.hs.uhc.neonotes.NeoNotesReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Test synthetic corpus generator.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+public class CorpusGeneratorTest {
+
+    @Test
+    public void testDeterministic() {
+
+        CorpusGenerator generator = new CorpusGenerator(7L)
+                .pages(3)
+                .strokes(20)
+                .dots(30)
+                .metadata(2);
+
+        List<Page> pages = generator.generatePages();
+        Assertions.assertEquals(3, pages.size());
+        Assertions.assertEquals(pages, new CorpusGenerator(7L).pages(3).strokes(20).dots(30).metadata(2).generatePages());
+        Assertions.assertEquals(pages.get(2), generator.generatePage(2));
+        Assertions.assertNotEquals(pages.get(0), new CorpusGenerator(8L).strokes(20).dots(30).metadata(2).generatePage(0));
+
+        Page page = pages.get(0);
+        Assertions.assertEquals(20, page.getStrokes().size());
+        Assertions.assertTrue(page.getStrokes().stream().allMatch(stroke -> stroke.getDotCount() == 30));
+        Assertions.assertEquals(2, page.getStrokes().get(0).getMetadata().size());
+    }
+
+    @Test
+    public void testHandSpy() throws Exception {
+
+        CorpusGenerator generator = new CorpusGenerator(1L).strokes(10).dots(20);
+        Page page = generator.generatePage(0);
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        generator.write(page, 0, Format.HANDSPY, os);
+
+        Page actual = new HandSpyReader().readSingle(new ByteArrayInputStream(os.toByteArray()));
+        Assertions.assertEquals(page.getStrokes().size(), actual.getStrokes().size());
+    }
+
+    @Test
+    public void testNeoNotesArchive() throws Exception {
+
+        CorpusGenerator generator = new CorpusGenerator(1L).pages(3).strokes(10).dots(20);
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        generator.writeNeoNotesArchive(os);
+
+        List<Page> pages = new NeoNotesReader()
+                .readArchive(new ZipInputStream(new ByteArrayInputStream(os.toByteArray())));
+        Assertions.assertEquals(3, pages.size());
+
+        for (int i = 0; i < pages.size(); i++) {
+            Page expected = generator.generatePage(i);
+            Page actual = pages.get(i);
+            Assertions.assertNull(actual.getMetadata(PageMetadataKeys.CAPTURE_ERROR.getKey()));
+            assertSameStrokes(expected, actual, 1e-4);
+        }
+    }
+
+    @Test
+    public void testLivescribeInkML() throws Exception {
+
+        CorpusGenerator generator = new CorpusGenerator(1L).pages(2).strokes(10).dots(20);
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        generator.writeLivescribeInkML(os);
+
+        List<Page> pages = new LsInkMLReader().read(new ByteArrayInputStream(os.toByteArray()));
+        Assertions.assertEquals(2, pages.size());
+
+        for (int i = 0; i < pages.size(); i++) {
+            Page expected = generator.generatePage(i);
+            Page actual = pages.get(i);
+            Assertions.assertEquals(CorpusGenerator.PAGE_WIDTH, actual.getWidth(), 0.1);
+            assertSameStrokes(expected, actual, 0.05);
+        }
+    }
+
+    private static void assertSameStrokes(Page expected, Page actual, double delta) {
+        Assertions.assertEquals(expected.getStrokes().size(), actual.getStrokes().size());
+        for (int s = 0; s < expected.getStrokes().size(); s++) {
+            Stroke expectedStroke = expected.getStrokes().get(s);
+            Stroke actualStroke = actual.getStrokes().get(s);
+            Assertions.assertEquals(expectedStroke.getStartTime(), actualStroke.getStartTime());
+            Assertions.assertEquals(expectedStroke.getDotCount(), actualStroke.getDotCount());
+            for (int d = 0; d < expectedStroke.getDotCount(); d++) {
+                Assertions.assertEquals(expectedStroke.getX(d), actualStroke.getX(d), delta);
+                Assertions.assertEquals(expectedStroke.getY(d), actualStroke.getY(d), delta);
+            }
+        }
+    }
+}
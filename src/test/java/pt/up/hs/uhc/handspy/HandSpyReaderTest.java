@@ -1,16 +1,30 @@
 package pt.up.hs.uhc.handspy;
 
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import pt.up.hs.uhc.TestUtils;
+import pt.up.hs.uhc.base.PageSource;
+import pt.up.hs.uhc.generator.CorpusGenerator;
 import pt.up.hs.uhc.handspy.keys.PageMetadataKeys;
 import pt.up.hs.uhc.models.Dot;
+import pt.up.hs.uhc.models.DotType;
 import pt.up.hs.uhc.models.Page;
 import pt.up.hs.uhc.models.Stroke;
+import pt.up.hs.uhc.utils.StreamUtils;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 /**
  * Test HandSpy reader.
@@ -87,4 +101,112 @@ public class HandSpyReaderTest {
 
         Assertions.assertNull(page.getMetadata().get(PageMetadataKeys.CAPTURE_ERROR.getKey()));
     }
+
+    @Test
+    public void testUnknownKeysNullsAndEscapes() throws Exception {
+        String json = "{\"version\":[1,{\"a\":true}],\"width\":1.5e2,\"height\":null," +
+                "\"metadata\":{\"name\":\"caf\\u00e9 \\\"x\\\"\",\"n\":7}," +
+                "\"strokes\":[{\"startTime\":10,\"extra\":null,\"dots\":[" +
+                "{\"x\":1,\"y\":-2.25,\"timestamp\":null,\"type\":\"move\",\"pressure\":null}," +
+                "{\"y\":3,\"metadata\":{\"k\":\"v\"}}]}]}";
+
+        Page page = new HandSpyReader().readSingle(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        Assertions.assertEquals(150D, page.getWidth(), TestUtils.EPSILON);
+        Assertions.assertNull(page.getHeight());
+        Assertions.assertEquals("caf\u00e9 \"x\"", page.getMetadata("name"));
+        Assertions.assertEquals(new BigDecimal(7), page.getMetadata("n"));
+
+        Assertions.assertEquals(1, page.getStrokes().size());
+
+        Stroke stroke = page.getStrokes().get(0);
+        Assertions.assertEquals(10L, stroke.getStartTime());
+        Assertions.assertEquals(0L, stroke.getEndTime());
+        Assertions.assertEquals(2, stroke.getDotCount());
+
+        Assertions.assertEquals(new Dot(1D, -2.25D, null, DotType.MOVE, null), stroke.getDot(0));
+        Assertions.assertEquals(new Dot(0D, 3D, 0L, DotType.DOWN, 0D).addMetadata("k", "v"), stroke.getDot(1));
+    }
+
+    @Test
+    public void testReadWrittenPage() throws Exception {
+        Page expected = new CorpusGenerator(7L).strokes(20).dots(40).generatePage(0);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        new HandSpyWriter().writeSingle(expected, baos);
+
+        Page page = new HandSpyReader().readSingle(new ByteArrayInputStream(baos.toByteArray()));
+
+        Assertions.assertEquals(expected.getWidth(), page.getWidth());
+        Assertions.assertEquals(expected.getHeight(), page.getHeight());
+        Assertions.assertEquals(expected.getStrokes(), page.getStrokes());
+    }
+
+    @Test
+    public void testReadArchive() throws Exception {
+
+        ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(zip)) {
+            for (String name: new String[] { "sample-filled.json", "README.txt", "sample-empty.json" }) {
+                zos.putNextEntry(new ZipEntry("pages/" + name));
+                zos.write(readResource(name));
+                zos.closeEntry();
+            }
+        }
+
+        ByteArrayOutputStream tgz = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream taos = new TarArchiveOutputStream(new GZIPOutputStream(tgz))) {
+            for (String name: new String[] { "sample-filled.json", "sample-empty.json" }) {
+                byte[] bytes = readResource(name);
+                TarArchiveEntry entry = new TarArchiveEntry("pages/" + name);
+                entry.setSize(bytes.length);
+                taos.putArchiveEntry(entry);
+                taos.write(bytes);
+                taos.closeArchiveEntry();
+            }
+        }
+
+        for (List<Page> pages: Arrays.asList(
+                new HandSpyReader().readArchive("pages.json.zip", new ByteArrayInputStream(zip.toByteArray())),
+                new HandSpyReader().readArchive("pages.json.tar.gz", new ByteArrayInputStream(tgz.toByteArray()))
+        )) {
+            Assertions.assertEquals(2, pages.size());
+            Assertions.assertEquals(2, pages.get(0).getStrokes().size());
+            Assertions.assertEquals(1, pages.get(1).getStrokes().size());
+        }
+    }
+
+    @Test
+    public void testReadLines() throws Exception {
+
+        String ndjson = "{\"width\":1,\"height\":2,\"strokes\":[]}\n" +
+                "\n" +
+                "{\"width\":3,\"height\":4,\"strokes\":[{\"dots\":[{\"x\":5,\"y\":6}]}]}\n";
+
+        try (PageSource source = new HandSpyReader()
+                .openLines(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)))) {
+
+            Assertions.assertTrue(source.hasNext());
+            Page first = source.next();
+            Assertions.assertEquals(1D, first.getWidth(), TestUtils.EPSILON);
+            Assertions.assertEquals(0, first.getStrokes().size());
+
+            Assertions.assertTrue(source.hasNext());
+            Page second = source.next();
+            Assertions.assertEquals(4D, second.getHeight(), TestUtils.EPSILON);
+            Assertions.assertEquals(6D, second.getStrokes().get(0).getY(0), TestUtils.EPSILON);
+
+            Assertions.assertFalse(source.hasNext());
+        }
+    }
+
+    private static byte[] readResource(String name) throws IOException {
+        if (!name.endsWith(".json")) {
+            return name.getBytes(StandardCharsets.UTF_8);
+        }
+        try (InputStream is = TestUtils.openReadStreamForResource("handspy/single/" + name)) {
+            return StreamUtils.readAllBytes(is);
+        }
+    }
 }
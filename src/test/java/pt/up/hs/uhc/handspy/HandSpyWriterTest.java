@@ -4,12 +4,16 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import pt.up.hs.uhc.TestUtils;
 import pt.up.hs.uhc.models.Dot;
+import pt.up.hs.uhc.models.DotType;
 import pt.up.hs.uhc.models.Page;
 import pt.up.hs.uhc.models.Stroke;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Test HandSpy writer.
@@ -100,4 +104,52 @@ public class HandSpyWriterTest {
         // check
         Assertions.assertEquals(expectedPage, actualPage);
     }
+
+    @Test
+    public void testWriteRoundedValues() throws Exception {
+
+        Page page = new Page()
+                .width(210D)
+                .height(297.0004D)
+                .addStroke(
+                        new Stroke()
+                                .startTime(5L)
+                                .endTime(null)
+                                .addDot(1.23456D, -0.0004D, 7L, DotType.MOVE, Double.NaN)
+                                .addDot(-2.0496D, 3.05D, Stroke.NO_TIMESTAMP, DotType.DOWN, 1D)
+                );
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        new HandSpyWriter().precision(3).writeSingle(page, baos);
+
+        Assertions.assertEquals(
+                "{\"strokes\":[{\"dots\":[" +
+                        "{\"x\":1.235,\"y\":0.0,\"pressure\":null,\"type\":\"MOVE\",\"timestamp\":7}," +
+                        "{\"x\":-2.05,\"y\":3.05,\"pressure\":1.0,\"timestamp\":null}]," +
+                        "\"startTime\":5,\"endTime\":null}],\"width\":210.0,\"height\":297.0}",
+                new String(baos.toByteArray(), StandardCharsets.UTF_8)
+        );
+    }
+
+    @Test
+    public void testWriteLines() throws Exception {
+
+        HandSpyReader reader = new HandSpyReader();
+        List<Page> pages = Arrays.asList(
+                reader.readSingle(TestUtils.openReadStreamForResource("handspy/single/sample-filled.json")),
+                reader.readSingle(TestUtils.openReadStreamForResource("handspy/single/sample-empty.json"))
+        );
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        HandSpyWriter writer = new HandSpyWriter();
+        Assertions.assertEquals(2, writer.writeLines(pages.iterator(), baos));
+        // appending a line to the same stream
+        writer.writeLine(pages.get(0), baos);
+
+        String[] lines = new String(baos.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        Assertions.assertEquals(3, lines.length);
+
+        List<Page> actualPages = reader.readLines(new ByteArrayInputStream(baos.toByteArray()));
+        Assertions.assertEquals(Arrays.asList(pages.get(0), pages.get(1), pages.get(0)), actualPages);
+    }
 }
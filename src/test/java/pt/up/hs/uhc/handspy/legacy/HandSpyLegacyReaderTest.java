@@ -7,9 +7,14 @@ import pt.up.hs.uhc.handspy.keys.PageMetadataKeys;
 import pt.up.hs.uhc.models.Dot;
 import pt.up.hs.uhc.models.Page;
 import pt.up.hs.uhc.models.Stroke;
+import pt.up.hs.uhc.utils.StreamUtils;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 /**
  * HandSpy legacy format reader test.
@@ -85,4 +90,26 @@ public class HandSpyLegacyReaderTest {
 
         Assertions.assertNull(page.getMetadata().get(PageMetadataKeys.CAPTURE_ERROR.getKey()));
     }
+
+    @Test
+    public void testReadArchive() throws Exception {
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(baos)) {
+            for (String name: new String[] { "sample-empty.xml", "sample-filled.xml" }) {
+                zos.putNextEntry(new ZipEntry(name));
+                try (InputStream is = TestUtils.openReadStreamForResource("handspy/legacy/single/" + name)) {
+                    zos.write(StreamUtils.readAllBytes(is));
+                }
+                zos.closeEntry();
+            }
+        }
+
+        List<Page> pages = new HandSpyLegacyReader()
+                .readArchive("pages.xml.zip", new ByteArrayInputStream(baos.toByteArray()));
+
+        Assertions.assertEquals(2, pages.size());
+        Assertions.assertEquals(1, pages.get(0).getStrokes().size());
+        Assertions.assertEquals(2, pages.get(1).getStrokes().size());
+    }
 }
@@ -3,6 +3,7 @@ package pt.up.hs.uhc.lspdf;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import pt.up.hs.uhc.TestUtils;
+import pt.up.hs.uhc.base.PageSource;
 import pt.up.hs.uhc.handspy.keys.PageMetadataKeys;
 import pt.up.hs.uhc.models.CaptureError;
 import pt.up.hs.uhc.models.Page;
@@ -11,6 +12,7 @@ import pt.up.hs.uhc.models.Stroke;
 import java.io.InputStream;
 import java.util.Collection;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Test Livescribe InkML reader.
@@ -172,4 +174,16 @@ public class LsInkMLReaderTest {
 
         Assertions.assertNull(page.getMetadata().get(PageMetadataKeys.CAPTURE_ERROR.getKey()));
     }
+
+    @Test
+    public void testOpen2Pages() throws Exception {
+
+        List<Page> expected = new LsInkMLReader().read(TestUtils.openReadStreamForResource("lspdf/2-pages.inkml"));
+
+        try (PageSource source = new LsInkMLReader().open(TestUtils.openReadStreamForResource("lspdf/2-pages.inkml"))) {
+            List<Page> pages = source.stream().collect(Collectors.toList());
+            Assertions.assertEquals(expected, pages);
+            Assertions.assertEquals("2427721690955807", pages.get(0).getMetadata("id"));
+        }
+    }
 }
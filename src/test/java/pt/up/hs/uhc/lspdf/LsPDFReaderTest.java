@@ -3,6 +3,7 @@ package pt.up.hs.uhc.lspdf;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import pt.up.hs.uhc.TestUtils;
+import pt.up.hs.uhc.base.PageSource;
 import pt.up.hs.uhc.handspy.keys.PageMetadataKeys;
 import pt.up.hs.uhc.models.CaptureError;
 import pt.up.hs.uhc.models.Page;
@@ -144,4 +145,18 @@ public class LsPDFReaderTest {
 
         Assertions.assertNull(page.getMetadata().get(PageMetadataKeys.CAPTURE_ERROR.getKey()));
     }
+
+    @Test
+    public void testOpen2Pages() throws Exception {
+
+        List<Page> expected = new LsPDFReader().read(TestUtils.openReadStreamForResource("lspdf/2-pages.pdf"));
+
+        try (PageSource source = new LsPDFReader().open(TestUtils.openReadStreamForResource("lspdf/2-pages.pdf"))) {
+            Assertions.assertTrue(source.hasNext());
+            Assertions.assertEquals(expected.get(0), source.next());
+            Assertions.assertTrue(source.hasNext());
+            Assertions.assertEquals(expected.get(1), source.next());
+            Assertions.assertFalse(source.hasNext());
+        }
+    }
 }
@@ -0,0 +1,73 @@
+package pt.up.hs.uhc.lspdf;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Test scanner of InkML trace points.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+public class TraceScannerTest {
+
+    @Test
+    public void testPoints() {
+
+        TraceScanner scanner = new TraceScanner();
+        scanner.reset("993 579, 0 2,-1 0 ,\n1.5 -0.25");
+
+        double[][] expected = {{993, 579}, {0, 2}, {-1, 0}, {1.5, -0.25}};
+
+        for (double[] point: expected) {
+            Assertions.assertTrue(scanner.nextPoint());
+            for (double value: point) {
+                Assertions.assertTrue(scanner.hasValue());
+                Assertions.assertEquals(value, scanner.nextValue());
+            }
+            Assertions.assertFalse(scanner.hasValue());
+        }
+        Assertions.assertFalse(scanner.nextPoint());
+    }
+
+    @Test
+    public void testValuesMatchParseDouble() {
+
+        Random random = new Random(42);
+        TraceScanner scanner = new TraceScanner();
+
+        for (int i = 0; i < 10000; i++) {
+            String value;
+            switch (i % 4) {
+                case 0:
+                    value = Integer.toString(random.nextInt());
+                    break;
+                case 1:
+                    value = Double.toString(random.nextDouble() * 1000D - 500D);
+                    break;
+                case 2:
+                    value = String.format(Locale.ROOT, "%.3f", random.nextGaussian() * 100D);
+                    break;
+                default:
+                    value = Double.toString(random.nextGaussian() * 1e-30);
+                    break;
+            }
+            scanner.reset(value);
+            Assertions.assertTrue(scanner.nextPoint());
+            Assertions.assertEquals(Double.parseDouble(value), scanner.nextValue(), value);
+        }
+    }
+
+    @Test
+    public void testInvalidValue() {
+
+        TraceScanner scanner = new TraceScanner();
+        scanner.reset("1 2x");
+
+        Assertions.assertTrue(scanner.nextPoint());
+        Assertions.assertEquals(1D, scanner.nextValue());
+        Assertions.assertThrows(NumberFormatException.class, scanner::nextValue);
+    }
+}
@@ -0,0 +1,133 @@
+package pt.up.hs.uhc.models;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Test {@link Stroke}.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+public class StrokeTest {
+
+    private static Stroke createStroke() {
+        return new Stroke(0L, 2L)
+                .addDot(new Dot(1D, 2D, 0L, DotType.DOWN, 0.5D))
+                .addDot(new Dot(3D, 4D, 1L, DotType.MOVE, 0.6D))
+                .addDot(new Dot(5D, 6D, 2L, DotType.UP, 0.7D));
+    }
+
+    @Test
+    public void testMissingValues() {
+
+        Stroke stroke = new Stroke()
+                .addDot(new Dot(null, 2D, null, null, null))
+                .addDot(Double.NaN, 3D, Stroke.NO_TIMESTAMP, null, Double.NaN);
+
+        Assertions.assertTrue(Double.isNaN(stroke.getX(0)));
+        Assertions.assertEquals(Stroke.NO_TIMESTAMP, stroke.getTimestamp(0));
+        Assertions.assertTrue(Double.isNaN(stroke.getPressure(0)));
+        Assertions.assertNull(stroke.getType(0));
+
+        Dot dot = stroke.getDots().get(1);
+        Assertions.assertNull(dot.getX());
+        Assertions.assertEquals(3D, dot.getY());
+        Assertions.assertNull(dot.getTimestamp());
+        Assertions.assertNull(dot.getType());
+        Assertions.assertNull(dot.getPressure());
+        Assertions.assertEquals(new Dot(null, 3D, null, null, null), dot);
+    }
+
+    @Test
+    public void testListView() {
+
+        Stroke stroke = createStroke();
+        List<Dot> dots = stroke.getDots();
+
+        Assertions.assertEquals(3, dots.size());
+        Assertions.assertEquals(new Dot(3D, 4D, 1L, DotType.MOVE, 0.6D), dots.get(1));
+
+        // set
+        Dot previous = dots.set(1, new Dot(7D, 8D, 1L, DotType.MOVE, 0.8D).addMetadata("k", "v"));
+        Assertions.assertEquals(new Dot(3D, 4D, 1L, DotType.MOVE, 0.6D), previous);
+        Assertions.assertEquals(7D, stroke.getX(1));
+        Assertions.assertEquals("v", stroke.getDotMetadata(1).get("k"));
+
+        // add
+        dots.add(0, new Dot(-1D, -2D, -1L, DotType.DOWN, 0.1D));
+        Assertions.assertEquals(4, stroke.getDotCount());
+        Assertions.assertEquals(-1D, stroke.getX(0));
+        Assertions.assertEquals(7D, stroke.getX(2));
+        Assertions.assertEquals("v", stroke.getDotMetadata(2).get("k"));
+        Assertions.assertNull(stroke.getDotMetadata(1));
+
+        // remove
+        Dot removed = dots.remove(2);
+        Assertions.assertEquals(7D, removed.getX());
+        Assertions.assertEquals(3, stroke.getDotCount());
+        Assertions.assertEquals(5D, stroke.getX(2));
+        Assertions.assertNull(stroke.getDotMetadata(2));
+
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> dots.get(3));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> dots.add(5, new Dot()));
+
+        // clear
+        dots.clear();
+        Assertions.assertEquals(0, stroke.getDotCount());
+        Assertions.assertTrue(stroke.getDots().isEmpty());
+    }
+
+    @Test
+    public void testReturnedDotsAreCopies() {
+
+        Stroke stroke = createStroke();
+
+        stroke.getDots().get(0).setX(100D);
+        Assertions.assertEquals(1D, stroke.getX(0));
+
+        stroke.setX(0, 100D);
+        Assertions.assertEquals(100D, stroke.getDots().get(0).getX());
+    }
+
+    @Test
+    public void testEqualsAndHashCode() throws Exception {
+
+        Stroke stroke = createStroke();
+        Stroke same = new Stroke(0L, 2L).dots(Arrays.asList(
+                new Dot(1D, 2D, 0L, DotType.DOWN, 0.5D),
+                new Dot(3D, 4D, 1L, DotType.MOVE, 0.6D),
+                new Dot(5D, 6D, 2L, DotType.UP, 0.7D)
+        ));
+
+        Assertions.assertEquals(stroke, same);
+        Assertions.assertEquals(stroke.hashCode(), same.hashCode());
+        Assertions.assertEquals(stroke.getDots(), same.getDots());
+        Assertions.assertEquals(stroke.getDots().hashCode(), same.getDots().hashCode());
+
+        // missing values are equal to each other
+        Assertions.assertEquals(
+                new Stroke().addDot(Double.NaN, 1D, Stroke.NO_TIMESTAMP, null, Double.NaN),
+                new Stroke().addDot(new Dot(null, 1D, null, null, null))
+        );
+
+        // empty dot metadata is the same as none
+        Assertions.assertEquals(
+                createStroke(),
+                new Stroke(0L, 2L)
+                        .addDot(new Dot(1D, 2D, 0L, DotType.DOWN, 0.5D).metadata(new java.util.HashMap<>()))
+                        .addDot(new Dot(3D, 4D, 1L, DotType.MOVE, 0.6D))
+                        .addDot(new Dot(5D, 6D, 2L, DotType.UP, 0.7D))
+        );
+
+        same.setPressure(2, 0.9D);
+        Assertions.assertNotEquals(stroke, same);
+
+        Stroke clone = stroke.clone();
+        Assertions.assertEquals(stroke, clone);
+        clone.setX(0, 9D);
+        Assertions.assertEquals(1D, stroke.getX(0));
+    }
+}
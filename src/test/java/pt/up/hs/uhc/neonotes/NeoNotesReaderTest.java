@@ -3,6 +3,7 @@ package pt.up.hs.uhc.neonotes;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import pt.up.hs.uhc.TestUtils;
+import pt.up.hs.uhc.exceptions.UniversalHandwritingConverterException;
 import pt.up.hs.uhc.handspy.keys.PageMetadataKeys;
 import pt.up.hs.uhc.models.CaptureError;
 import pt.up.hs.uhc.models.Page;
@@ -11,6 +12,11 @@ import pt.up.hs.uhc.models.Stroke;
 import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.zip.ZipInputStream;
 
@@ -80,6 +86,61 @@ public class NeoNotesReaderTest {
         Assertions.assertNull(page.getMetadata().get(PageMetadataKeys.CAPTURE_ERROR.getKey()));
     }
 
+    @Test
+    public void testCompletePageMapped() throws Exception {
+        Path path = TestUtils.openFileForResource("neonotes/single/page_full.data").toPath();
+
+        Page page = new NeoNotesReader().readSingle(path);
+        Page expectedPage = new NeoNotesReader().readSingle(
+                TestUtils.openReadStreamForResource("neonotes/single/page_full.data"));
+
+        Assertions.assertEquals(643, page.getStrokes().size());
+        Assertions.assertEquals(expectedPage, page);
+    }
+
+    @Test
+    public void testCompletePageFromBuffer() throws Exception {
+        byte[] bytes = Files.readAllBytes(
+                TestUtils.openFileForResource("neonotes/single/page_full.data").toPath());
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+
+        Page page = new NeoNotesReader().readSingle(buffer);
+
+        Assertions.assertEquals(0, buffer.position());
+        Assertions.assertEquals(643, page.getStrokes().size());
+        Stroke firstStroke = page.getStrokes().get(0);
+        Assertions.assertEquals(97, firstStroke.getDotCount());
+        Assertions.assertEquals(1576499042448L, firstStroke.getTimestamp(0));
+        Assertions.assertEquals(28.8984257D, firstStroke.getX(0), TestUtils.EPSILON);
+        Assertions.assertEquals(72.8031712D, firstStroke.getY(0), TestUtils.EPSILON);
+    }
+
+    @Test
+    public void testTruncatedPage() throws Exception {
+        byte[] bytes = Files.readAllBytes(
+                TestUtils.openFileForResource("neonotes/single/page_full.data").toPath());
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, bytes.length / 2);
+
+        Assertions.assertThrows(IOException.class, () -> new NeoNotesReader().readSingle(buffer));
+    }
+
+    @Test
+    public void testTruncatedStrokeExtraData() {
+        ByteBuffer buffer = ByteBuffer.allocate(128).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put("neo".getBytes(StandardCharsets.US_ASCII));
+        buffer.putInt(5).putInt(3).putInt(1).putFloat(80F).putFloat(110F);
+        buffer.putLong(0L).putLong(0L).put((byte) 0);
+        buffer.putInt(1);
+
+        // a stroke with a dot, announcing more extra data than there is
+        buffer.put((byte) 0).putInt(0xFF191919).put((byte) 0).putInt(1).putLong(1000L);
+        buffer.putFloat(10F).putFloat(10F).putFloat(0.5F).put((byte) 0);
+        buffer.put((byte) 200).put((byte) 1);
+        buffer.flip();
+
+        Assertions.assertThrows(IOException.class, () -> new NeoNotesReader().readSingle(buffer));
+    }
+
     @Test
     public void testReadArchive() throws Exception {
         InputStream is = TestUtils.openReadStreamForResource("neonotes/archive/archive.neonotes.zip");
@@ -138,6 +199,26 @@ public class NeoNotesReaderTest {
         Assertions.assertNull(secondPage.getMetadata().get(PageMetadataKeys.CAPTURE_ERROR.getKey()));
     }
 
+    @Test
+    public void testRandomAccessArchive() throws Exception {
+        Path path = TestUtils.openFileForResource("neonotes/archive/soft-lines.neonotes.zip").toPath();
+
+        List<Page> expectedPages = new NeoNotesReader().readArchive(path.toFile());
+
+        NeoNotesReader reader = new NeoNotesReader();
+
+        List<String> names = reader.listPages(path);
+        Assertions.assertEquals(4, names.size());
+        Assertions.assertEquals("Data/0066.page_store/page.data", names.get(1));
+
+        Assertions.assertEquals(expectedPages.get(2), reader.readPage(path, 2));
+        Assertions.assertEquals(expectedPages.get(1), reader.readPage(path, "Data/0066.page_store/page.data"));
+        Assertions.assertEquals(expectedPages.subList(1, 3), reader.readPages(path, 1, 3));
+
+        Assertions.assertThrows(UniversalHandwritingConverterException.class, () -> reader.readPage(path, 4));
+        Assertions.assertThrows(UniversalHandwritingConverterException.class, () -> reader.readPage(path, "Tag.xml"));
+    }
+
     @Test
     public void testReadFatArchive() throws Exception {
         InputStream is = TestUtils.openReadStreamForResource("neonotes/archive/fat-archive.neonotes.zip");
@@ -147,6 +228,18 @@ public class NeoNotesReaderTest {
         Assertions.assertEquals(70, pages.size());
     }
 
+    @Test
+    public void testReadFatArchiveParallel() throws Exception {
+        List<Page> expectedPages = new NeoNotesReader().readArchive(new ZipInputStream(new BufferedInputStream(
+                TestUtils.openReadStreamForResource("neonotes/archive/fat-archive.neonotes.zip"))));
+
+        List<Page> pages = new NeoNotesReader().threads(4).readArchive(new ZipInputStream(new BufferedInputStream(
+                TestUtils.openReadStreamForResource("neonotes/archive/fat-archive.neonotes.zip"))));
+
+        Assertions.assertEquals(70, pages.size());
+        Assertions.assertEquals(expectedPages, pages);
+    }
+
     @Test
     public void testReadFatArchive2() throws Exception {
         InputStream is = TestUtils.openReadStreamForResource("neonotes/archive/fat-archive-2.neonotes.zip");
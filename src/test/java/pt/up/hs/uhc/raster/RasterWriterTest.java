@@ -0,0 +1,89 @@
+package pt.up.hs.uhc.raster;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pt.up.hs.uhc.models.DotType;
+import pt.up.hs.uhc.models.Page;
+import pt.up.hs.uhc.models.Stroke;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Test {@link RasterWriter}.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+public class RasterWriterTest {
+
+    private static Page createPage(double y) {
+        return new Page(200D, 100D)
+                .addStroke(new Stroke(0L, 2L)
+                        .addDot(20D, y, 0L, DotType.DOWN, 2D)
+                        .addDot(100D, y, 1L, DotType.MOVE, 2D)
+                        .addDot(180D, y, 2L, DotType.UP, 2D))
+                .addStroke(new Stroke(3L, 3L)
+                        .addDot(100D, 90D, 3L, DotType.DOWN, 4D));
+    }
+
+    @Test
+    public void testWritePng() throws Exception {
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        new RasterWriter().size(400, 400).writeSingle(createPage(50D), os);
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(os.toByteArray()));
+
+        // fits the width, keeping the aspect ratio
+        Assertions.assertEquals(400, image.getWidth());
+        Assertions.assertEquals(200, image.getHeight());
+
+        // ink on the line and on the single dot, paper elsewhere
+        Assertions.assertEquals(0, gray(image, 200, 100));
+        Assertions.assertEquals(0, gray(image, 200, 180));
+        Assertions.assertEquals(255, gray(image, 200, 50));
+        Assertions.assertEquals(255, gray(image, 20, 100));
+    }
+
+    @Test
+    public void testWriteJpegWithoutPageSize() throws Exception {
+
+        Page page = new Page()
+                .addStroke(new Stroke(0L, 1L)
+                        .addDot(0D, 0D, 0L, DotType.DOWN, 0.5D)
+                        .addDot(50D, 25D, 1L, DotType.UP, 0.5D));
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        new RasterWriter().imageType(RasterWriter.ImageType.JPEG).size(0, 50).writeSingle(page, os);
+
+        byte[] bytes = os.toByteArray();
+        Assertions.assertEquals((byte) 0xFF, bytes[0]);
+        Assertions.assertEquals((byte) 0xD8, bytes[1]);
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(bytes));
+        Assertions.assertEquals(100, image.getWidth());
+        Assertions.assertEquals(50, image.getHeight());
+    }
+
+    @Test
+    public void testReuseImageAcrossPages() {
+
+        RasterWriter writer = new RasterWriter().size(200, 200);
+
+        BufferedImage first = writer.render(createPage(20D));
+        Assertions.assertEquals(0, gray(first, 100, 20));
+
+        BufferedImage second = writer.render(createPage(60D));
+        Assertions.assertSame(first, second);
+
+        // previous page is cleared
+        Assertions.assertEquals(255, gray(second, 100, 20));
+        Assertions.assertEquals(0, gray(second, 100, 60));
+    }
+
+    private static int gray(BufferedImage image, int x, int y) {
+        return image.getRGB(x, y) & 0xFF;
+    }
+}
@@ -0,0 +1,41 @@
+package pt.up.hs.uhc.raster;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pt.up.hs.uhc.models.DotType;
+import pt.up.hs.uhc.models.Page;
+import pt.up.hs.uhc.models.Stroke;
+
+/**
+ * Test {@link StrokeIndex}.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+public class StrokeIndexTest {
+
+    @Test
+    public void testQuery() {
+
+        Page page = new Page(100D, 100D);
+        for (int i = 0; i < 10; i++) {
+            page.addStroke(new Stroke(0L, 1L)
+                    .addDot(i * 10 + 1, i * 10 + 1, 0L, DotType.DOWN, 1D)
+                    .addDot(i * 10 + 5, i * 10 + 5, 1L, DotType.UP, 1D));
+        }
+        // crosses the whole page
+        page.addStroke(new Stroke(2L, 3L)
+                .addDot(0D, 99D, 2L, DotType.DOWN, 1D)
+                .addDot(99D, 99D, 3L, DotType.UP, 1D));
+        // nothing to draw
+        page.addStroke(new Stroke(4L, 4L).addDot(Double.NaN, 1D, 4L, DotType.DOWN, 1D));
+
+        StrokeIndex index = new StrokeIndex(page, 100D, 100D);
+
+        Assertions.assertArrayEquals(new int[] { 0 }, index.query(0D, 0D, 8D, 8D));
+        Assertions.assertArrayEquals(new int[] { 2, 3 }, index.query(22D, 22D, 35D, 35D));
+        Assertions.assertArrayEquals(new int[] { 9, 10 }, index.query(95D, 95D, 120D, 120D));
+        Assertions.assertArrayEquals(new int[] { 10 }, index.query(0D, 98D, 5D, 100D));
+        Assertions.assertArrayEquals(new int[0], index.query(60D, 10D, 90D, 30D));
+        Assertions.assertEquals(12, index.query(-10D, -10D, 110D, 110D).length + 1);
+    }
+}
@@ -0,0 +1,110 @@
+package pt.up.hs.uhc.raster;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pt.up.hs.uhc.generator.CorpusGenerator;
+import pt.up.hs.uhc.models.DotType;
+import pt.up.hs.uhc.models.Page;
+import pt.up.hs.uhc.models.Stroke;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Test {@link TileRenderer}.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+public class TileRendererTest {
+
+    private static Page createPage() {
+        return new Page(200D, 100D)
+                .addStroke(new Stroke(0L, 1L)
+                        .addDot(20D, 50D, 0L, DotType.DOWN, 4D)
+                        .addDot(180D, 50D, 1L, DotType.UP, 4D))
+                .addStroke(new Stroke(2L, 2L)
+                        .addDot(150D, 10D, 2L, DotType.DOWN, 4D));
+    }
+
+    @Test
+    public void testTilesMatchWholePage() {
+
+        Page page = new CorpusGenerator(11L).strokes(30).dots(200).generatePage(0);
+
+        TileRenderer.TiledPage tiled = new TileRenderer().tileSize(64).open(page);
+        Assertions.assertEquals(3, tiled.getColumns(2));
+        Assertions.assertEquals(4, tiled.getRows(2));
+
+        double scale = tiled.getScale(2);
+        BufferedImage whole = new RasterWriter()
+                .size((int) Math.round(page.getWidth() * scale), 0)
+                .render(page);
+
+        long differences = 0;
+        for (int row = 0; row < tiled.getRows(2); row++) {
+            for (int column = 0; column < tiled.getColumns(2); column++) {
+                BufferedImage tile = tiled.getTile(2, column, row);
+                for (int y = 0; y < 64 && row * 64 + y < whole.getHeight(); y++) {
+                    for (int x = 0; x < 64 && column * 64 + x < whole.getWidth(); x++) {
+                        int expected = whole.getRGB(column * 64 + x, row * 64 + y) & 0xFF;
+                        int actual = tile.getRGB(x, y) & 0xFF;
+                        // antialiasing samples differ slightly with the offset of tiles
+                        if (Math.abs(expected - actual) > 64) {
+                            differences++;
+                        }
+                    }
+                }
+            }
+        }
+        Assertions.assertEquals(0, differences);
+    }
+
+    @Test
+    public void testDrawOnlyIntersectingStrokes() throws Exception {
+
+        TileRenderer.TiledPage tiled = new TileRenderer().tileSize(100).open(createPage());
+
+        // 2x1 tiles at zoom 1, 1 pixel per unit
+        Assertions.assertEquals(1D, tiled.getScale(1), 1e-9);
+
+        BufferedImage left = tiled.getTile(1, 0, 0);
+        Assertions.assertEquals(0, left.getRGB(50, 50) & 0xFF);
+        Assertions.assertEquals(255, left.getRGB(50, 10) & 0xFF);
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        tiled.writeTile(1, 1, 0, os);
+        BufferedImage right = ImageIO.read(new ByteArrayInputStream(os.toByteArray()));
+        Assertions.assertEquals(100, right.getWidth());
+        Assertions.assertEquals(0, right.getRGB(50, 50) & 0xFF);
+        Assertions.assertEquals(0, right.getRGB(50, 10) & 0xFF);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> tiled.getTile(1, 2, 0));
+    }
+
+    @Test
+    public void testCacheByContent() {
+
+        TileRenderer renderer = new TileRenderer().tileSize(32).cacheSize(2);
+
+        TileRenderer.TiledPage tiled = renderer.open(createPage());
+        BufferedImage tile = tiled.getTile(0, 0, 0);
+        Assertions.assertSame(tile, tiled.getTile(0, 0, 0));
+
+        // same content, same tiles
+        TileRenderer.TiledPage copy = renderer.open(createPage());
+        Assertions.assertEquals(tiled.getContentHash(), copy.getContentHash());
+        Assertions.assertSame(tile, copy.getTile(0, 0, 0));
+
+        // different content, different tiles
+        Page changed = createPage().addStroke(new Stroke(3L, 3L).addDot(1D, 1D, 3L, DotType.DOWN, 1D));
+        TileRenderer.TiledPage other = renderer.open(changed);
+        Assertions.assertNotEquals(tiled.getContentHash(), other.getContentHash());
+        Assertions.assertNotSame(tile, other.getTile(0, 0, 0));
+
+        // least recently used tiles are evicted
+        tiled.getTile(1, 0, 0);
+        Assertions.assertNotSame(tile, tiled.getTile(0, 0, 0));
+    }
+}
@@ -0,0 +1,119 @@
+package pt.up.hs.uhc.svg;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pt.up.hs.uhc.generator.CorpusGenerator;
+import pt.up.hs.uhc.models.DotType;
+import pt.up.hs.uhc.models.Page;
+import pt.up.hs.uhc.models.Stroke;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Test SVG writer.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+public class SvgWriterTest {
+
+    private static final Pattern PATH = Pattern.compile("<path d=\"M([^l]+)l([^\"]*)\"");
+    private static final Pattern NUMBER = Pattern.compile("-?[0-9.]+");
+
+    @Test
+    public void testWriteRelativePaths() throws Exception {
+
+        Page page = new Page(210D, 297.5D)
+                .addStroke(new Stroke(0L, 2L)
+                        .addDot(10D, 20D, 0L, DotType.DOWN, 0.2D)
+                        .addDot(10.5D, 19.25D, 1L, DotType.MOVE, 0.4D)
+                        .addDot(Double.NaN, 1D, 2L, DotType.MOVE, 0.4D)
+                        .addDot(12.0004D, 19.25D, 2L, DotType.UP, 0D))
+                .addStroke(new Stroke(3L, 3L)
+                        .addDot(5D, 5D, 3L, DotType.DOWN, Double.NaN))
+                .addStroke(new Stroke(4L, 4L));
+
+        Assertions.assertEquals(
+                "<svg xmlns=\"http://www.w3.org/2000/svg\" height=\"297.5\" width=\"210\" stroke=\"#000\">" +
+                        "<g shape-rendering=\"geometricPrecision\" stroke-linejoin=\"round\"" +
+                        " stroke-linecap=\"round\" fill=\"none\">" +
+                        "<path d=\"M10 20l0.5-0.75 1.5 0\" stroke-width=\"0.367\"/>" +
+                        "<path d=\"M5 5l0 0\" stroke-width=\"0.5\"/>" +
+                        "</g></svg>",
+                write(new SvgWriter(), page)
+        );
+    }
+
+    @Test
+    public void testRelativeOffsetsDoNotDrift() throws Exception {
+
+        Page page = new CorpusGenerator(3L).strokes(5).dots(2000).generatePage(0);
+        String svg = write(new SvgWriter().precision(2), page);
+
+        Matcher paths = PATH.matcher(svg);
+        for (Stroke stroke: page.getStrokes()) {
+            Assertions.assertTrue(paths.find());
+
+            Matcher start = NUMBER.matcher(paths.group(1));
+            Assertions.assertTrue(start.find());
+            double x = Double.parseDouble(start.group());
+            Assertions.assertTrue(start.find());
+            double y = Double.parseDouble(start.group());
+
+            Matcher offsets = NUMBER.matcher(paths.group(2));
+            for (int i = 1; i < stroke.getDotCount(); i++) {
+                Assertions.assertTrue(offsets.find());
+                x += Double.parseDouble(offsets.group());
+                Assertions.assertTrue(offsets.find());
+                y += Double.parseDouble(offsets.group());
+            }
+
+            int last = stroke.getDotCount() - 1;
+            Assertions.assertEquals(stroke.getX(last), x, 0.005 + 1e-9);
+            Assertions.assertEquals(stroke.getY(last), y, 0.005 + 1e-9);
+        }
+    }
+
+    @Test
+    public void testWriteLevelsOfDetail() throws Exception {
+
+        Page page = new Page()
+                .addStroke(new Stroke(0L, 3L)
+                        .addDot(0D, 0D, 0L, DotType.DOWN, 0.5D)
+                        .addDot(1D, 0.05D, 1L, DotType.MOVE, 0.5D)
+                        .addDot(2D, 0D, 2L, DotType.MOVE, 0.5D)
+                        .addDot(2D, 2D, 3L, DotType.UP, 0.5D));
+
+        Assertions.assertEquals(
+                "<svg xmlns=\"http://www.w3.org/2000/svg\" stroke=\"#000\">" +
+                        "<g shape-rendering=\"geometricPrecision\" stroke-linejoin=\"round\"" +
+                        " stroke-linecap=\"round\" fill=\"none\">" +
+                        "<g class=\"lod\" data-tolerance=\"0.1\" display=\"none\">" +
+                        "<path d=\"M0 0l2 0 0 2\" stroke-width=\"0.5\"/></g>" +
+                        "<g class=\"lod\" data-tolerance=\"0\">" +
+                        "<path d=\"M0 0l1 0.05 1-0.05 0 2\" stroke-width=\"0.5\"/></g>" +
+                        "</g></svg>",
+                write(new SvgWriter().levelsOfDetail(0D, 0.1D), page)
+        );
+    }
+
+    @Test
+    public void testSimplifiedOutputIsSmaller() throws Exception {
+
+        Page page = new CorpusGenerator(5L).strokes(50).dots(500).generatePage(0);
+
+        String full = write(new SvgWriter(), page);
+        String simplified = write(new SvgWriter().tolerance(0.1D), page);
+
+        Assertions.assertTrue(simplified.length() < full.length());
+        Assertions.assertEquals(page.getStrokes().size(), simplified.split("<path ").length - 1);
+    }
+
+    private static String write(SvgWriter writer, Page page) throws Exception {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        writer.writeSingle(page, os);
+        return new String(os.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
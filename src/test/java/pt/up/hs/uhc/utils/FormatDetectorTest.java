@@ -0,0 +1,128 @@
+package pt.up.hs.uhc.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pt.up.hs.uhc.TestUtils;
+import pt.up.hs.uhc.binary.UhcBinaryWriter;
+import pt.up.hs.uhc.exceptions.UnsupportedFormatException;
+import pt.up.hs.uhc.generator.CorpusGenerator;
+import pt.up.hs.uhc.handspy.HandSpyWriter;
+import pt.up.hs.uhc.models.Format;
+import pt.up.hs.uhc.models.Page;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Test {@link FormatDetector}.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+public class FormatDetectorTest {
+
+    @Test
+    public void testDetectResourcesWithMisleadingName() throws IOException {
+        assertDetected(Format.NEONOTES_ARCHIVE, "neonotes/archive/archive.neonotes.zip");
+        assertDetected(Format.NEONOTES_ARCHIVE, "neonotes/archive/corners-page.neonotes");
+        assertDetected(Format.NEONOTES, "neonotes/single/page_full.data");
+        assertDetected(Format.LIVESCRIBE_PDF, "lspdf/2-pages.pdf");
+        assertDetected(Format.INKML, "inkml/single/sample-filled.inkml");
+        assertDetected(Format.HANDSPY, "handspy/single/sample-filled.json");
+        assertDetected(Format.HANDSPY_LEGACY, "handspy/legacy/single/sample-filled.xml");
+    }
+
+    @Test
+    public void testDetectGeneratedContent() throws Exception {
+
+        CorpusGenerator generator = new CorpusGenerator(7L).pages(2).strokes(3).dots(5);
+        Page page = generator.generatePage(0);
+
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        new UhcBinaryWriter().writeSingle(page, binary);
+        Assertions.assertEquals(Format.UHC_BINARY, detect("upload.bin", binary.toByteArray()).getFormat());
+
+        ByteArrayOutputStream lines = new ByteArrayOutputStream();
+        Iterator<Page> pages = generator.generatePages().iterator();
+        new HandSpyWriter().writeLines(pages, lines);
+        Assertions.assertEquals(Format.HANDSPY_NDJSON, detect("upload.bin", lines.toByteArray()).getFormat());
+
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        new HandSpyWriter().writeSingle(page, json);
+        Assertions.assertEquals(Format.HANDSPY, detect("upload.bin", json.toByteArray()).getFormat());
+    }
+
+    @Test
+    public void testDetectGzippedTarArchive() throws IOException {
+
+        byte[] name = "pages/page-0.json".getBytes(StandardCharsets.US_ASCII);
+        byte[] header = new byte[512];
+        System.arraycopy(name, 0, header, 0, name.length);
+        System.arraycopy("00000000002\0".getBytes(StandardCharsets.US_ASCII), 0, header, 124, 12);
+        System.arraycopy("ustar\0".getBytes(StandardCharsets.US_ASCII), 0, header, 257, 6);
+
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        tar.write(header);
+        tar.write(Arrays.copyOf("{}".getBytes(StandardCharsets.US_ASCII), 512));
+        tar.write(new byte[1024]);
+
+        ByteArrayOutputStream gz = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzos = new GZIPOutputStream(gz)) {
+            gzos.write(tar.toByteArray());
+        }
+
+        FormatDetector.Detection detection = detect("upload", gz.toByteArray());
+        Assertions.assertEquals(Format.HANDSPY_ARCHIVE, detection.getFormat());
+        Assertions.assertEquals(FormatDetector.Container.TAR_GZ, detection.getContainer());
+        Assertions.assertEquals("upload.tar.gz", detection.getFilename());
+
+        detection = detect("upload", tar.toByteArray());
+        Assertions.assertEquals(Format.HANDSPY_ARCHIVE, detection.getFormat());
+        Assertions.assertEquals("upload.tar", detection.getFilename());
+    }
+
+    @Test
+    public void testExtensionIsOnlyAHint() {
+
+        byte[] text = "hello".getBytes(StandardCharsets.US_ASCII);
+        Assertions.assertEquals(Format.HANDSPY_NDJSON, FormatDetector.detect(text, text.length, "a.b.jsonl"));
+        Assertions.assertThrows(UnsupportedFormatException.class,
+                () -> FormatDetector.detect(text, text.length, "notes.txt"));
+
+        byte[] pdf = "%PDF-1.4".getBytes(StandardCharsets.US_ASCII);
+        Assertions.assertEquals(Format.LIVESCRIBE_PDF, FormatDetector.detect(pdf, pdf.length, "page.json"));
+
+        Assertions.assertEquals(Format.HANDSPY_LEGACY_ARCHIVE, FormatDetector.fromExtension("pages.XML.tar.gz"));
+        Assertions.assertEquals(Format.HANDSPY, FormatDetector.fromExtension("page.v2.json"));
+        Assertions.assertNull(FormatDetector.fromExtension("page"));
+    }
+
+    private static void assertDetected(Format expected, String resource) throws IOException {
+
+        byte[] content = Files.readAllBytes(TestUtils.openFileForResource(resource).toPath());
+
+        FormatDetector.Detection detection = detect("upload.bin", content);
+        Assertions.assertEquals(expected, detection.getFormat(), resource);
+
+        // the peeked bytes are replayed
+        try (InputStream is = detection.getInputStream()) {
+            ByteArrayOutputStream replayed = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                replayed.write(buffer, 0, read);
+            }
+            Assertions.assertArrayEquals(content, replayed.toByteArray(), resource);
+        }
+    }
+
+    private static FormatDetector.Detection detect(String filename, byte[] content) throws IOException {
+        return FormatDetector.detect(filename, new ByteArrayInputStream(content));
+    }
+}
@@ -0,0 +1,125 @@
+package pt.up.hs.uhc.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pt.up.hs.uhc.models.Dot;
+import pt.up.hs.uhc.models.Page;
+import pt.up.hs.uhc.models.Stroke;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Test {@link MetadataUtils} and {@link CompactMap}, and the metadata of
+ * models.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+public class MetadataUtilsTest {
+
+    @Test
+    public void testPutAllocatesOnFirstEntry() {
+
+        Map<String, Object> metadata = MetadataUtils.EMPTY;
+        Assertions.assertNull(MetadataUtils.get(metadata, "a"));
+        Assertions.assertNull(MetadataUtils.get(null, "a"));
+
+        metadata = MetadataUtils.put(metadata, "a", 1);
+        Assertions.assertTrue(metadata instanceof CompactMap);
+        Assertions.assertEquals(1, MetadataUtils.get(metadata, "a"));
+
+        // the shared empty map is never changed
+        Assertions.assertTrue(MetadataUtils.EMPTY.isEmpty());
+
+        // the same map is kept afterwards
+        Assertions.assertSame(metadata, MetadataUtils.put(metadata, "b", 2));
+        Assertions.assertSame(metadata, MetadataUtils.mutable(metadata));
+        Assertions.assertTrue(MetadataUtils.mutable(null) instanceof CompactMap);
+    }
+
+    @Test
+    public void testCompactMapGrowsAndShrinks() {
+
+        CompactMap<String, Object> map = new CompactMap<>();
+        Map<String, Object> expected = new HashMap<>();
+        for (int i = 0; i < CompactMap.INLINE_CAPACITY; i++) {
+            map.put("k" + i, i);
+            expected.put("k" + i, i);
+        }
+        Assertions.assertEquals(expected, map);
+        Assertions.assertEquals(expected.hashCode(), map.hashCode());
+
+        // replacing does not grow
+        Assertions.assertEquals(0, map.put("k0", "zero"));
+        expected.put("k0", "zero");
+        Assertions.assertEquals(CompactMap.INLINE_CAPACITY, map.size());
+
+        // beyond the inline capacity, entries move to a hash map
+        map.put("extra", true);
+        expected.put("extra", true);
+        Assertions.assertEquals(expected, map);
+        Assertions.assertEquals("zero", map.get("k0"));
+
+        Assertions.assertEquals(true, map.remove("extra"));
+        expected.remove("extra");
+        Assertions.assertEquals(expected, map);
+
+        map.clear();
+        Assertions.assertTrue(map.isEmpty());
+        map.put("again", 1);
+        Assertions.assertEquals(1, map.get("again"));
+    }
+
+    @Test
+    public void testCompactMapIteratorRemove() {
+
+        CompactMap<String, Object> map = new CompactMap<>();
+        map.put("a", 1);
+        map.put("b", 2);
+        map.put("c", 3);
+
+        Iterator<Map.Entry<String, Object>> it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Object> entry = it.next();
+            if (entry.getKey().equals("b")) {
+                it.remove();
+            } else {
+                entry.setValue(10);
+            }
+        }
+
+        Assertions.assertEquals(2, map.size());
+        Assertions.assertEquals(10, map.get("a"));
+        Assertions.assertNull(map.get("b"));
+        Assertions.assertEquals(10, map.get("c"));
+    }
+
+    @Test
+    public void testModelsMetadataIsMutable() {
+
+        Page page = new Page();
+        Assertions.assertFalse(page.hasMetadata());
+        page.getMetadata().put("a", 1);
+        Assertions.assertTrue(page.hasMetadata());
+        Assertions.assertEquals(1, page.getMetadata("a"));
+
+        Stroke stroke = new Stroke();
+        Assertions.assertFalse(stroke.hasMetadata());
+        stroke.getMetadata().put("b", 2);
+        Assertions.assertEquals(2, stroke.getMetadata("b"));
+
+        Dot dot = new Dot();
+        Assertions.assertFalse(dot.hasMetadata());
+        dot.getMetadata().put("c", 3);
+        Assertions.assertEquals(3, dot.getMetadata("c"));
+
+        // empty metadata, whether allocated or not, is equal
+        Assertions.assertEquals(new Page(), new Page().metadata(new HashMap<>()));
+        Page requested = new Page();
+        requested.getMetadata();
+        Assertions.assertFalse(requested.hasMetadata());
+        Assertions.assertEquals(new Page(), requested);
+        Assertions.assertEquals(new Page().hashCode(), requested.hashCode());
+    }
+}
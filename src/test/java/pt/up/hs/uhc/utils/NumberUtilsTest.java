@@ -0,0 +1,44 @@
+package pt.up.hs.uhc.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test {@link NumberUtils}.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+public class NumberUtilsTest {
+
+    @Test
+    public void testParseDoubleAsJdk() {
+
+        String[] numbers = {
+                "0", "-0", "+1", "1.5", "-2.25", ".5", "5.", "123456.789012", "0.1", "0.30000000000000004",
+                "12345678901234567890", "1e3", "-1.5E-7", "1.7976931348623157E308", "4.9E-324",
+                "NaN", "Infinity", "-Infinity", "+Infinity", " 1.5", "1.5 ", "\t-3\n", "1d", "2.5f", "0x1p3"
+        };
+        for (String number: numbers) {
+            Assertions.assertEquals(
+                    Double.doubleToLongBits(Double.parseDouble(number)),
+                    Double.doubleToLongBits(NumberUtils.parseDouble(number, 0, number.length())),
+                    number
+            );
+        }
+
+        // range of a larger sequence
+        Assertions.assertEquals(-2.5D, NumberUtils.parseDouble("[1,-2.5,3]", 3, 7));
+    }
+
+    @Test
+    public void testParseDoubleInvalid() {
+        String[] invalid = { "", "-", ".", "abc", "1..2", "1-2", "- 1", "nan" };
+        for (String number: invalid) {
+            Assertions.assertThrows(
+                    NumberFormatException.class,
+                    () -> NumberUtils.parseDouble(number, 0, number.length()),
+                    number
+            );
+        }
+    }
+}
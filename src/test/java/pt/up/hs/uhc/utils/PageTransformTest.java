@@ -0,0 +1,99 @@
+package pt.up.hs.uhc.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pt.up.hs.uhc.TestUtils;
+import pt.up.hs.uhc.generator.CorpusGenerator;
+import pt.up.hs.uhc.models.DotType;
+import pt.up.hs.uhc.models.Page;
+import pt.up.hs.uhc.models.Stroke;
+
+/**
+ * Test {@link PageTransform} (and the transforms of {@link PageUtils}).
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+public class PageTransformTest {
+
+    private static Page createPage() {
+        return new Page(200D, 100D)
+                .addStroke(new Stroke(0L, 2L)
+                        .addDot(10D, 20D, 0L, DotType.DOWN, 0.5D)
+                        .addDot(30D, 20D, 1L, DotType.MOVE, 0.5D)
+                        .addDot(Double.NaN, 5D, 2L, DotType.UP, 0.5D));
+    }
+
+    @Test
+    public void testRotate() {
+
+        Page page = createPage();
+        PageUtils.rotate(page, 10D, 10D, Math.PI / 2);
+
+        Stroke stroke = page.getStrokes().get(0);
+        Assertions.assertEquals(0D, stroke.getX(0), TestUtils.EPSILON);
+        Assertions.assertEquals(10D, stroke.getY(0), TestUtils.EPSILON);
+        Assertions.assertEquals(0D, stroke.getX(1), TestUtils.EPSILON);
+        Assertions.assertEquals(30D, stroke.getY(1), TestUtils.EPSILON);
+
+        // missing coordinates are kept
+        Assertions.assertTrue(Double.isNaN(stroke.getX(2)));
+        Assertions.assertEquals(5D, stroke.getY(2), TestUtils.EPSILON);
+    }
+
+    @Test
+    public void testMirror() {
+
+        Page page = createPage();
+        PageUtils.mirror(page, 100D, 0D, 100D, 100D);
+
+        Stroke stroke = page.getStrokes().get(0);
+        Assertions.assertEquals(190D, stroke.getX(0), TestUtils.EPSILON);
+        Assertions.assertEquals(20D, stroke.getY(0), TestUtils.EPSILON);
+
+        // across the diagonal, coordinates are swapped
+        PageUtils.mirror(page, 0D, 0D, 1D, 1D);
+        Assertions.assertEquals(20D, stroke.getX(0), TestUtils.EPSILON);
+        Assertions.assertEquals(190D, stroke.getY(0), TestUtils.EPSILON);
+    }
+
+    @Test
+    public void testScaleWithoutDimensions() {
+
+        Page page = createPage().width(null);
+        PageUtils.scale(page, 2D);
+
+        Assertions.assertNull(page.getWidth());
+        Assertions.assertEquals(200D, page.getHeight(), TestUtils.EPSILON);
+        Assertions.assertEquals(60D, page.getStrokes().get(0).getX(1), TestUtils.EPSILON);
+    }
+
+    @Test
+    public void testFusedEqualsChained() {
+
+        Page chained = new CorpusGenerator(9L).strokes(10).dots(100).generatePage(0);
+        PageUtils.scale(chained, 1.5D);
+        PageUtils.translate(chained, -20D, 35D);
+        PageUtils.rotate(chained, 105D, 148.5D, 0.3D);
+        PageUtils.mirror(chained, 0D, 10D, 200D, 60D);
+
+        Page fused = new CorpusGenerator(9L).strokes(10).dots(100).generatePage(0);
+        new PageTransform()
+                .scale(1.5D)
+                .translate(-20D, 35D)
+                .rotate(105D, 148.5D, 0.3D)
+                .mirror(0D, 10D, 200D, 60D)
+                .parallel(true)
+                .apply(fused);
+
+        Assertions.assertEquals(chained.getWidth(), fused.getWidth(), TestUtils.EPSILON);
+        Assertions.assertEquals(chained.getHeight(), fused.getHeight(), TestUtils.EPSILON);
+        for (int s = 0; s < chained.getStrokes().size(); s++) {
+            Stroke expected = chained.getStrokes().get(s);
+            Stroke actual = fused.getStrokes().get(s);
+            for (int i = 0; i < expected.getDotCount(); i++) {
+                Assertions.assertEquals(expected.getX(i), actual.getX(i), 1e-9);
+                Assertions.assertEquals(expected.getY(i), actual.getY(i), 1e-9);
+            }
+        }
+    }
+}
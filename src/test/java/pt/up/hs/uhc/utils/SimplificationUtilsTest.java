@@ -0,0 +1,94 @@
+package pt.up.hs.uhc.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pt.up.hs.uhc.TestUtils;
+import pt.up.hs.uhc.generator.CorpusGenerator;
+import pt.up.hs.uhc.models.DotType;
+import pt.up.hs.uhc.models.Page;
+import pt.up.hs.uhc.models.Stroke;
+
+/**
+ * Test {@link SimplificationUtils}.
+ *
+ * @author José Carlos Paiva <code>josepaiva94@gmail.com</code>
+ */
+public class SimplificationUtilsTest {
+
+    @Test
+    public void testSimplifyStraightLine() {
+
+        Stroke stroke = new Stroke(0L, 10L).addMetadata("color", "blue");
+        for (int i = 0; i <= 10; i++) {
+            stroke.addDot(i, 2D * i, i, i == 0 ? DotType.DOWN : DotType.MOVE, 0.5D);
+        }
+        stroke.addDot(Double.NaN, 0D, 11L, DotType.UP, 0.5D);
+
+        Stroke simplified = SimplificationUtils.simplify(stroke, 0.01D);
+
+        Assertions.assertEquals(2, simplified.getDotCount());
+        Assertions.assertEquals(0D, simplified.getX(0), TestUtils.EPSILON);
+        Assertions.assertEquals(DotType.DOWN, simplified.getType(0));
+        Assertions.assertEquals(20D, simplified.getY(1), TestUtils.EPSILON);
+        Assertions.assertEquals(10L, simplified.getTimestamp(1));
+        Assertions.assertEquals(10L, (long) simplified.getEndTime());
+        Assertions.assertEquals("blue", simplified.getMetadata("color"));
+    }
+
+    @Test
+    public void testSimplifyKeepsCorners() {
+
+        Stroke stroke = new Stroke(0L, 4L)
+                .addDot(0D, 0D, 0L, DotType.DOWN, 0.5D)
+                .addDot(1D, 0.001D, 1L, DotType.MOVE, 0.5D)
+                .addDot(2D, 0D, 2L, DotType.MOVE, 0.5D)
+                .addDot(2D, 1D, 3L, DotType.MOVE, 0.5D)
+                .addDot(2D, 2D, 4L, DotType.UP, 0.5D);
+
+        int[] indices = { 0, 1, 2, 3, 4 };
+        int kept = SimplificationUtils.simplify(stroke, indices, indices.length, 0.1D);
+
+        Assertions.assertEquals(3, kept);
+        Assertions.assertEquals(0, indices[0]);
+        Assertions.assertEquals(2, indices[1]);
+        Assertions.assertEquals(4, indices[2]);
+
+        // no tolerance, no simplification
+        Assertions.assertEquals(5, SimplificationUtils.simplify(stroke, indices, 5, 0D));
+    }
+
+    @Test
+    public void testSimplifyWithinTolerance() {
+
+        double tolerance = 0.2D;
+        Page page = new CorpusGenerator(7L).strokes(20).dots(500).generatePage(0);
+
+        int total = 0;
+        int simplifiedTotal = 0;
+        for (Stroke stroke: page.getStrokes()) {
+            Stroke simplified = SimplificationUtils.simplify(stroke, tolerance);
+            total += stroke.getDotCount();
+            simplifiedTotal += simplified.getDotCount();
+
+            for (int i = 0; i < stroke.getDotCount(); i++) {
+                double distance = Double.POSITIVE_INFINITY;
+                for (int k = 1; k < simplified.getDotCount(); k++) {
+                    distance = Math.min(distance, distanceToSegment(
+                            stroke.getX(i), stroke.getY(i),
+                            simplified.getX(k - 1), simplified.getY(k - 1),
+                            simplified.getX(k), simplified.getY(k)));
+                }
+                Assertions.assertTrue(distance <= tolerance + TestUtils.EPSILON);
+            }
+        }
+        Assertions.assertTrue(simplifiedTotal < total);
+    }
+
+    private static double distanceToSegment(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double length2 = dx * dx + dy * dy;
+        double t = length2 == 0 ? 0 : Math.max(0, Math.min(1, ((px - ax) * dx + (py - ay) * dy) / length2));
+        return Math.hypot(px - ax - t * dx, py - ay - t * dy);
+    }
+}